@@ -136,6 +136,19 @@ public class WSFacade extends Endpoint {
         send(command);
     }
 
+    /**
+     * Sends a command to start or stop receiving the engine's live analysis of a game.
+     *
+     * @param authToken The authentication token of the user.
+     * @param gameID The ID of the game.
+     * @param subscribe True to start receiving analysis, false to stop.
+     * @throws ResponseException If an error occurs while sending the command.
+     */
+    public void sendAnalyze(AuthToken authToken, Integer gameID, boolean subscribe) throws ResponseException {
+        var command = new webSocketMessages.userCommands.AnalyzeCommand(authToken, gameID, subscribe);
+        send(command);
+    }
+
     /**
      * Ignored method.
      */
@@ -112,7 +112,7 @@ public class ChessBoardPrinter extends Printer {
      * @param column the column of the square
      */
     private void printSquare(ChessBoard board, int row, int column) {
-        ChessPosition position = new CPosition(row, column);
+        ChessPosition position = CPosition.of(row, column);
         ChessPiece piece = board.getPiece(position);
 
         BGColor bgColor;
@@ -145,7 +145,7 @@ public class ChessBoardPrinter extends Printer {
         setBackground(bgColor);
         setColor(color);
 
-        ChessPosition position = new CPosition(row, column);
+        ChessPosition position = CPosition.of(row, column);
         ChessPiece piece = board.getPiece(position);
         String character = getCharacter(piece);
 
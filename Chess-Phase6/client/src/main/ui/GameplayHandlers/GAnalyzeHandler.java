@@ -0,0 +1,39 @@
+package ui.GameplayHandlers;
+
+import Exceptions.ResponseException;
+import Models.AuthToken;
+import WSFacade.WSFacade;
+import ui.Printer;
+
+/**
+ * The GAnalyzeHandler class is responsible for handling the analyze command.
+ * It extends the OnlineGameHandler class and provides methods to turn the engine's live analysis on and off.
+ */
+public class GAnalyzeHandler extends OnlineGameHandler {
+    /**
+     * Constructs a GAnalyzeHandler object with the given WSFacade and AuthToken.
+     *
+     * @param wsFacade  The WSFacade to use for sending messages to the server.
+     * @param authToken The AuthToken to use for authentication.
+     */
+    public GAnalyzeHandler(WSFacade wsFacade, AuthToken authToken) {
+        super(wsFacade, authToken);
+    }
+
+    /**
+     * Extracts "on" or "off" from the arguments and sends the analyze request.
+     *
+     * @param gameID The ID of the game to analyze.
+     * @param args   The arguments of the command, eg. ["analyze", "on"].
+     * @throws ResponseException If an error occurs while sending the analyze request.
+     */
+    public void extractAndSend(Integer gameID, String[] args) throws ResponseException {
+        if (args.length != 2 || !(args[1].equals("on") || args[1].equals("off"))) {
+            p.reset();
+            p.setColor(Printer.Color.RED);
+            p.println("Usage: analyze <on|off>");
+            return;
+        }
+        wsFacade.sendAnalyze(authToken, gameID, args[1].equals("on"));
+    }
+}
@@ -40,6 +40,12 @@ public class GHelpHandler extends GameHandler {
         p.reset();
         p.println(" - Manually force a redraw of the game board");
 
+        p.setColor(Printer.Color.YELLOW);
+        p.setIndent(4);
+        p.print("analyze <on|off>");
+        p.reset();
+        p.println(" - Show or hide the engine's live analysis, while observing or once the game is over");
+
         p.setColor(Printer.Color.YELLOW);
         p.setIndent(4);
         p.print("help");
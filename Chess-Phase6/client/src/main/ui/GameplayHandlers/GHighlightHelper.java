@@ -43,7 +43,7 @@ public class GHighlightHelper extends GameHandler {
         var y = position.charAt(0) - 'a' + 1;
         var x = position.charAt(1) - '1' + 1;
 
-        var cPosition = new CPosition(x, y);
+        var cPosition = CPosition.of(x, y);
 
         highlightMoves(game, cPosition);
     }
@@ -46,8 +46,8 @@ public class GMoveHandler extends OnlineGameHandler {
         var y2 = position.charAt(2) - 'a' + 1;
         var x2 = position.charAt(3) - '1' + 1;
 
-        var cPosition = new CPosition(x1, y1);
-        var cPosition2 = new CPosition(x2, y2);
+        var cPosition = CPosition.of(x1, y1);
+        var cPosition2 = CPosition.of(x2, y2);
 
         ChessPiece.PieceType pieceType = null;
         if (args.length == 3) {
@@ -67,7 +67,7 @@ public class GMoveHandler extends OnlineGameHandler {
             }
         }
 
-        var move = new CMove(cPosition, cPosition2, pieceType);
+        var move = CMove.of(cPosition, cPosition2, pieceType);
         move(gameID, move);
     }
 
@@ -6,6 +6,7 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import ui.ChessBoardPrinter;
 import ui.Printer;
+import webSocketMessages.serverMessages.AnalysisMessage;
 import webSocketMessages.serverMessages.ServerMessage;
 
 /**
@@ -98,6 +99,27 @@ public class GameHandler {
         p.print(">>> ");
     }
 
+    /**
+     * Prints the engine's analysis: the depth, then each line with its score for white, eg. "+0.34 e2e4 e7e5".
+     *
+     * @param analysis the analysis to be printed
+     */
+    public void printAnalysis(AnalysisMessage analysis) {
+        p.reset();
+        p.setColor(Printer.Color.LIGHT_GREY);
+        p.println("");
+        p.println("[Engine] depth " + analysis.getDepth());
+        for (var line : analysis.getLines()) {
+            var score = line.mate() != 0 ? (line.mate() > 0 ? "#" : "#-") + Math.abs(line.mate())
+                    : String.format("%+.2f", line.score() / 100.0);
+            p.setIndent(4);
+            p.println(score + " " + line.pv());
+        }
+        p.setIndent(0);
+        p.setColor(Printer.Color.GREEN);
+        p.print(">>> ");
+    }
+
     /**
      * Handles an incoming websocket message from the server
      * 
@@ -117,6 +139,10 @@ public class GameHandler {
                 var notification = new Gson().fromJson(message, webSocketMessages.serverMessages.NotificationMessage.class);
                 printMessage(notification.getMessage());
             }
+            case ANALYSIS -> {
+                // Print analysis
+                printAnalysis(new Gson().fromJson(message, AnalysisMessage.class));
+            }
             case ERROR -> {
                 // Print error
                 var error = new Gson().fromJson(message, webSocketMessages.serverMessages.ErrorMessage.class);
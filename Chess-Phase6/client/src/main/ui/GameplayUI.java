@@ -35,6 +35,7 @@ public class GameplayUI extends GameHandler {
     private final GLeaveHandler leaveHandler;
     private final GResignHandler resignHandler;
     private final GRedrawHandler redrawHandler;
+    private final GAnalyzeHandler analyzeHandler;
 
     /**
      * Constructs a GameplayUI object with the given AuthToken, URL, team color, and game ID.
@@ -64,6 +65,7 @@ public class GameplayUI extends GameHandler {
         this.joinObserverHandler = new GObserveHandler(wsFacade, authToken);
         this.leaveHandler = new GLeaveHandler(wsFacade, authToken);
         this.resignHandler = new GResignHandler(wsFacade, authToken);
+        this.analyzeHandler = new GAnalyzeHandler(wsFacade, authToken);
     }
 
     /**
@@ -102,6 +104,7 @@ public class GameplayUI extends GameHandler {
                 }
                 case "resign" -> resignHandler.resign(gameID);
                 case "redraw" -> redrawHandler.redraw(game);
+                case "analyze" -> analyzeHandler.extractAndSend(gameID, args);
                 default -> {
                     p.reset();
                     p.setColor(Printer.Color.RED);
@@ -26,15 +26,22 @@ public class CreateHandler extends Handler {
      * @return The result of the create game request.
      */
     public CreateGameResult create(String[] args, AuthToken authToken) {
-        if (args.length != 2) {
+        if (args.length < 2 || args.length > 4) {
             p.reset();
             p.setColor(Printer.Color.RED);
             p.println("Error: Invalid number of arguments");
-            p.println("Usage: create <gameName>");
+            p.println("Usage: create <gameName> [easy|medium|hard] [white|black]");
             return null;
         }
         try {
-            var res = serverFacade.createGame(authToken, args[1]);
+            CreateGameResult res;
+            if (args.length == 2) {
+                res = serverFacade.createGame(authToken, args[1]);
+            } else {
+                //The computer plays black unless told otherwise
+                var botColor = args.length == 4 ? args[3].toUpperCase() : "BLACK";
+                res = serverFacade.createGame(authToken, args[1], args[2], botColor);
+            }
             p.reset();
             p.setColor(Printer.Color.GREEN);
             p.println("Game created!");
@@ -48,9 +48,9 @@ public class HelpHandler extends Handler {
     public void help_postLogin() {
         p.setColor(Printer.Color.YELLOW);
         p.setIndent(4);
-        p.print("create <name>");
+        p.print("create <name> [easy|medium|hard] [white|black]");
         p.reset();
-        p.println(" - Create a new game");
+        p.println(" - Create a new game, optionally against the computer playing the given color");
 
         p.setColor(Printer.Color.YELLOW);
         p.setIndent(4);
@@ -0,0 +1,130 @@
+package Benchmarks;
+
+import Engine.Evaluator;
+import Engine.NnueEvaluator;
+import Engine.NnueNetwork;
+import Engine.PieceSquareEvaluator;
+import chessGameImpl.BitBoard;
+import chessGameImpl.CGame;
+import chessGameImpl.Fen;
+import chessGameImpl.MoveList;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Compares the cost of the evaluators the way a search uses them: it walks every line of the standard perft
+ * positions to a fixed depth, making and taking back each move and scoring every position on the way. The time per
+ * position therefore includes keeping each evaluator's running state up to date, which is what makes incremental
+ * evaluation pay off. The network is also timed with its accumulators rebuilt at every position, to show what the
+ * incremental updates save.
+ * <p>
+ * Usage:
+ * <pre>
+ *   EvaluatorBenchmark [depth] [networkFile]
+ * </pre>
+ * Without a network file, a network of random weights with {@value NnueNetwork#DEFAULT_HIDDEN} hidden units is timed,
+ * which costs the same as a trained one.
+ */
+public class EvaluatorBenchmark {
+    /**
+     * The depth walked unless told otherwise
+     */
+    private static final int DEFAULT_DEPTH = 4;
+
+    /**
+     * How many times each evaluator is run before being timed, so the JIT has compiled it
+     */
+    private static final int WARMUP_RUNS = 2;
+
+    /**
+     * Entry point for the evaluator benchmark
+     *
+     * @param args see the class description
+     * @throws IOException if the network file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        var network = args.length > 1 ? NnueNetwork.open(Path.of(args[1]))
+                : NnueNetwork.random(NnueNetwork.DEFAULT_HIDDEN, 240);
+        System.out.printf("Depth %d, network with %d hidden units%n", depth, network.getHidden());
+
+        report("handcrafted", new PieceSquareEvaluator(), depth, false);
+        report("nnue", new NnueEvaluator(network), depth, false);
+        report("nnue refresh", new NnueEvaluator(network), depth, true);
+    }
+
+    /**
+     * Times an evaluator over every standard position and prints its speed
+     *
+     * @param name      what to call the evaluator
+     * @param evaluator the evaluator to time
+     * @param depth     how many plies to walk
+     * @param refresh   whether to rebuild the evaluator's state at every position instead of updating it
+     */
+    private static void report(String name, Evaluator evaluator, int depth, boolean refresh) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            run(evaluator, depth, refresh);
+        }
+        long start = System.nanoTime();
+        long[] counts = run(evaluator, depth, refresh);
+        long elapsed = Math.max(System.nanoTime() - start, 1);
+        System.out.printf("%-14s %12d positions %8d ms %12d positions/sec %6.1f ns/position  (checksum %d)%n", name,
+                counts[0], elapsed / 1_000_000, counts[0] * 1_000_000_000L / elapsed, (double) elapsed / counts[0],
+                counts[1]);
+    }
+
+    /**
+     * Walks and scores every standard position once
+     *
+     * @param evaluator the evaluator to run
+     * @param depth     how many plies to walk
+     * @param refresh   whether to rebuild the evaluator's state at every position
+     * @return how many positions were scored, and the sum of the scores so the work cannot be skipped
+     */
+    private static long[] run(Evaluator evaluator, int depth, boolean refresh) {
+        var counts = new long[2];
+        for (var position : Perft.POSITIONS) {
+            var game = Fen.parse(position.fen(), CGame.BoardType.BITBOARD);
+            var board = BitBoard.asBitBoard(game.getBoard());
+            evaluator.attach(board);
+            var lists = new MoveList[depth + 1];
+            for (int i = 0; i <= depth; i++) {
+                lists[i] = new MoveList();
+            }
+            walk(game, board, evaluator, depth, refresh, lists, counts);
+        }
+        return counts;
+    }
+
+    /**
+     * Scores a position and every position below it
+     *
+     * @param game      the position, which is left as it was found
+     * @param board     the game's board
+     * @param evaluator the evaluator to run
+     * @param depth     how many more plies to walk
+     * @param refresh   whether to rebuild the evaluator's state before scoring
+     * @param lists     a move list for each remaining ply, indexed by depth
+     * @param counts    the position count and score sum to add to
+     */
+    private static void walk(CGame game, BitBoard board, Evaluator evaluator, int depth, boolean refresh,
+                             MoveList[] lists, long[] counts) {
+        if (refresh) {
+            evaluator.attach(board);
+        }
+        counts[0]++;
+        counts[1] += evaluator.evaluate(board, game.getTeamTurn());
+        if (depth == 0) {
+            return;
+        }
+        var moves = lists[depth];
+        moves.clear();
+        game.legalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            walk(game, board, evaluator, depth - 1, refresh, lists, counts);
+            game.undoMove();
+        }
+    }
+}
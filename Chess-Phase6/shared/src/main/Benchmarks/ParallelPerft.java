@@ -0,0 +1,169 @@
+package Benchmarks;
+
+import chessGameImpl.CGame;
+import chessGameImpl.Fen;
+import chessGameImpl.MoveList;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs perft across every core with a ForkJoinPool. The move tree is split into one task per move for the first few
+ * plies, each task works on its own copy of the game, and the node counts are summed as the tasks join. Below the
+ * split the tasks run the single-threaded {@link Perft#perft} on their copy.
+ * <p>
+ * Usage:
+ * <pre>
+ *   ParallelPerft [ARRAY|BITBOARD] [depth] [threads]
+ * </pre>
+ * Runs the standard positions single-threaded and in parallel, checks both counts and prints the speedup.
+ */
+public class ParallelPerft {
+    /**
+     * How many plies from the root are split into separate tasks. Two plies gives several hundred tasks from a
+     * typical position, enough to keep a large pool busy while each task still does plenty of work.
+     */
+    public static final int SPLIT_PLIES = 2;
+
+    /**
+     * The depth the standard run goes to unless told otherwise
+     */
+    private static final int DEFAULT_DEPTH = 5;
+
+    /**
+     * A perft count of one subtree
+     */
+    private static class PerftTask extends RecursiveTask<Long> {
+        /**
+         * The position at the top of the subtree, owned by this task
+         */
+        private final CGame game;
+
+        /**
+         * How many plies to search below the position
+         */
+        private final int depth;
+
+        /**
+         * How many more plies to split into separate tasks
+         */
+        private final int splitPlies;
+
+        /**
+         * Constructor for a PerftTask
+         *
+         * @param game       the position at the top of the subtree, which the task takes ownership of
+         * @param depth      how many plies to search below the position
+         * @param splitPlies how many more plies to split into separate tasks
+         */
+        PerftTask(CGame game, int depth, int splitPlies) {
+            this.game = game;
+            this.depth = depth;
+            this.splitPlies = splitPlies;
+        }
+
+        /**
+         * @return the number of leaf nodes in the subtree
+         */
+        @Override
+        protected Long compute() {
+            //Splitting the last two plies costs more in copies than it gains
+            if (splitPlies == 0 || depth <= 2) {
+                return Perft.perft(game, depth);
+            }
+
+            var moves = new MoveList();
+            game.legalMoves(moves);
+            var tasks = new ArrayList<PerftTask>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                var child = game.copy();
+                child.doMove(moves.get(i));
+                tasks.add(new PerftTask(child, depth - 1, splitPlies - 1));
+            }
+
+            long nodes = 0;
+            for (var task : invokeAll(tasks)) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree on a pool
+     *
+     * @param game  the position to start from, which is not changed
+     * @param depth how many plies to search
+     * @param pool  the pool to run the tasks on
+     * @return the number of move sequences of exactly that many plies
+     */
+    public static long perft(CGame game, int depth, ForkJoinPool pool) {
+        return pool.invoke(new PerftTask(game.copy(), depth, SPLIT_PLIES));
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree on the common pool, which has a thread for every core
+     *
+     * @param game  the position to start from, which is not changed
+     * @param depth how many plies to search
+     * @return the number of move sequences of exactly that many plies
+     */
+    public static long perft(CGame game, int depth) {
+        return perft(game, depth, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Entry point for the parallel perft tool
+     *
+     * @param args see the class description
+     */
+    public static void main(String[] args) {
+        int next = 0;
+        var boardType = CGame.BoardType.BITBOARD;
+        if (args.length > 0 && (args[0].equals("ARRAY") || args[0].equals("BITBOARD"))) {
+            boardType = CGame.BoardType.valueOf(args[0]);
+            next++;
+        }
+        int maxDepth = args.length > next ? Integer.parseInt(args[next]) : DEFAULT_DEPTH;
+        int threads = args.length > next + 1 ? Integer.parseInt(args[next + 1]) : Runtime.getRuntime().availableProcessors();
+
+        boolean allPassed = true;
+        var pool = new ForkJoinPool(threads);
+        try {
+            System.out.println("Threads: " + threads);
+            //Warm up both paths so the first position is not timed while still being compiled
+            for (var position : Perft.POSITIONS) {
+                var game = Fen.parse(position.fen(), boardType);
+                Perft.perft(game, 3);
+                perft(game, 3, pool);
+            }
+
+            for (var position : Perft.POSITIONS) {
+                int depth = Math.min(maxDepth, position.nodes().length);
+                long expected = position.nodes()[depth - 1];
+                var game = Fen.parse(position.fen(), boardType);
+
+                long start = System.nanoTime();
+                long serialNodes = Perft.perft(game, depth);
+                long serialTime = Math.max(System.nanoTime() - start, 1);
+
+                start = System.nanoTime();
+                long parallelNodes = perft(game, depth, pool);
+                long parallelTime = Math.max(System.nanoTime() - start, 1);
+
+                boolean passed = serialNodes == expected && parallelNodes == expected;
+                allPassed &= passed;
+                System.out.printf("%-12s depth %d %12d nodes %12d nodes/sec serial %12d nodes/sec parallel %6.2fx%s%n",
+                        position.name(), depth, parallelNodes,
+                        serialNodes * 1_000_000_000L / serialTime, parallelNodes * 1_000_000_000L / parallelTime,
+                        (double) serialTime / parallelTime, passed ? "" : "   MISMATCH, expected " + expected);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        if (!allPassed) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package Benchmarks;
+
+import chessGameImpl.CGame;
+import chessGameImpl.Fen;
+import chessGameImpl.Move;
+import chessGameImpl.MoveList;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Perft counts every sequence of legal moves to a fixed depth. Comparing the counts against known values checks move
+ * generation for exactness, and timing the walk measures its speed.
+ * <p>
+ * Usage:
+ * <pre>
+ *   Perft [ARRAY|BITBOARD] [maxDepth]                 run the standard positions and check their counts
+ *   Perft [ARRAY|BITBOARD] depth &lt;fen&gt;               count one position
+ *   Perft [ARRAY|BITBOARD] divide depth &lt;fen&gt;        count one position per root move
+ * </pre>
+ * The expected counts are for this ruleset, which has no castling or en passant, so positions that allow either
+ * have counts that differ from the usual published ones.
+ */
+public class Perft {
+    /**
+     * A position with known perft counts
+     *
+     * @param name  what to call the position
+     * @param fen   the position
+     * @param nodes the node count at each depth, starting with depth 1
+     */
+    public record TestPosition(String name, String fen, long... nodes) {
+    }
+
+    /**
+     * The standard perft positions, with castling rights removed to match this ruleset
+     */
+    public static final List<TestPosition> POSITIONS = List.of(
+            new TestPosition("start", Fen.START,
+                    20, 400, 8902, 197281, 4865351),
+            new TestPosition("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1",
+                    46, 1865, 86585, 3499358),
+            new TestPosition("endgame", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    14, 191, 2810, 43087, 671300),
+            new TestPosition("promotions", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w - - 0 1",
+                    6, 258, 9217, 404404),
+            new TestPosition("middlegame", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w - - 1 8",
+                    43, 1452, 59922, 2018609)
+    );
+
+    /**
+     * The deepest search the standard run goes to unless told otherwise
+     */
+    private static final int DEFAULT_MAX_DEPTH = 4;
+
+    /**
+     * Entry point for the perft tool
+     *
+     * @param args see the class description
+     */
+    public static void main(String[] args) {
+        int next = 0;
+        var boardType = CGame.BoardType.BITBOARD;
+        if (args.length > 0 && (args[0].equals("ARRAY") || args[0].equals("BITBOARD"))) {
+            boardType = CGame.BoardType.valueOf(args[0]);
+            next++;
+        }
+
+        if (args.length > next + 1) {
+            boolean divide = args[next].equals("divide");
+            if (divide) {
+                next++;
+            }
+            int depth = Integer.parseInt(args[next]);
+            var game = Fen.parse(String.join(" ", List.of(args).subList(next + 1, args.length)), boardType);
+            if (divide) {
+                long total = 0;
+                for (var entry : divide(game, depth).entrySet()) {
+                    System.out.println(entry.getKey() + ": " + entry.getValue());
+                    total += entry.getValue();
+                }
+                System.out.println();
+                System.out.println("Nodes: " + total);
+            } else {
+                report("fen", game, depth, -1);
+            }
+            return;
+        }
+
+        int maxDepth = args.length > next ? Integer.parseInt(args[next]) : DEFAULT_MAX_DEPTH;
+        boolean allPassed = true;
+        for (var position : POSITIONS) {
+            int depth = Math.min(maxDepth, position.nodes().length);
+            var game = Fen.parse(position.fen(), boardType);
+            allPassed &= report(position.name(), game, depth, position.nodes()[depth - 1]);
+        }
+        if (!allPassed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs perft on a position and prints the count, the time taken and the nodes per second
+     *
+     * @param name     what to call the position
+     * @param game     the position
+     * @param depth    how many plies to search
+     * @param expected the known count, or -1 if it is not known
+     * @return false if the count did not match the known count
+     */
+    private static boolean report(String name, CGame game, int depth, long expected) {
+        long start = System.nanoTime();
+        long nodes = perft(game, depth);
+        long elapsed = Math.max(System.nanoTime() - start, 1);
+        boolean passed = expected < 0 || nodes == expected;
+
+        System.out.printf("%-12s depth %d %12d nodes %9d ms %12d nodes/sec%s%n", name, depth, nodes,
+                elapsed / 1_000_000, nodes * 1_000_000_000L / elapsed,
+                passed ? "" : "   MISMATCH, expected " + expected);
+        return passed;
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree
+     *
+     * @param game  the position to start from, which is left as it was found
+     * @param depth how many plies to search
+     * @return the number of move sequences of exactly that many plies
+     */
+    public static long perft(CGame game, int depth) {
+        return perft(game, depth, newMoveLists(depth));
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree, reusing one move list per ply
+     *
+     * @param game  the position to start from, which is left as it was found
+     * @param depth how many plies to search
+     * @param lists a move list for each remaining ply, indexed by depth
+     * @return the number of move sequences of exactly that many plies
+     */
+    private static long perft(CGame game, int depth, MoveList[] lists) {
+        if (depth == 0) {
+            return 1;
+        }
+        var moves = lists[depth];
+        game.legalMoves(moves);
+        //At the last ply the moves themselves are the leaves, so there is no need to make them
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            nodes += perft(game, depth - 1, lists);
+            game.undoMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the leaf nodes under each legal move, which narrows down where a wrong count comes from
+     *
+     * @param game  the position to start from, which is left as it was found
+     * @param depth how many plies to search, including the root move
+     * @return the count for each root move, keyed and sorted by the move written like e2e4 or a7a8q
+     */
+    public static Map<String, Long> divide(CGame game, int depth) {
+        var counts = new TreeMap<String, Long>();
+        var lists = newMoveLists(depth);
+        var moves = lists[depth];
+        game.legalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            counts.put(Move.toString(moves.get(i)), perft(game, depth - 1, lists));
+            game.undoMove();
+        }
+        return counts;
+    }
+
+    /**
+     * @param depth the deepest ply that needs a list
+     * @return a fresh move list for each ply from 0 to depth
+     */
+    private static MoveList[] newMoveLists(int depth) {
+        var lists = new MoveList[depth + 1];
+        for (int i = 0; i <= depth; i++) {
+            lists[i] = new MoveList();
+        }
+        return lists;
+    }
+}
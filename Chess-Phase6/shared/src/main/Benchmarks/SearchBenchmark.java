@@ -0,0 +1,97 @@
+package Benchmarks;
+
+import Engine.ParallelSearch;
+import Engine.PieceSquareEvaluator;
+import Engine.SearchLimits;
+import Engine.TranspositionTable;
+import chessGameImpl.CGame;
+import chessGameImpl.Fen;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how Lazy SMP search scales with threads, by timing how long it takes to search the standard perft
+ * positions to a fixed depth with 1 thread, 2 threads, and so on doubling up to the thread count asked for.
+ * The table is cleared before every position, so each run starts from nothing.
+ * <p>
+ * Usage:
+ * <pre>
+ *   SearchBenchmark [depth] [maxThreads] [tableMegabytes]
+ * </pre>
+ * Prints the total time to depth for each thread count and its speedup over a single thread.
+ */
+public class SearchBenchmark {
+    /**
+     * The depth searched unless told otherwise
+     */
+    private static final int DEFAULT_DEPTH = 7;
+
+    /**
+     * The table size used unless told otherwise, in megabytes
+     */
+    private static final int DEFAULT_TABLE_MB = 64;
+
+    /**
+     * Entry point for the search benchmark
+     *
+     * @param args see the class description
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int tableMegabytes = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_TABLE_MB;
+
+        var threadCounts = new ArrayList<Integer>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(maxThreads);
+
+        var table = new TranspositionTable(tableMegabytes);
+        //Warm up so the single-threaded run is not timed while still being compiled
+        timeToDepth(1, depth, table);
+
+        long singleThreadTime = 0;
+        System.out.printf("Depth %d, %d MB table%n", depth, tableMegabytes);
+        for (int threads : threadCounts) {
+            var result = timeToDepth(threads, depth, table);
+            if (threads == 1) {
+                singleThreadTime = result[0];
+            }
+            System.out.printf("%3d threads %9d ms %12d nodes %12d nodes/sec %6.2fx%n", threads,
+                    result[0] / 1_000_000, result[1], result[1] * 1_000_000_000L / Math.max(result[0], 1),
+                    (double) singleThreadTime / Math.max(result[0], 1));
+        }
+    }
+
+    /**
+     * Searches every standard position to a depth
+     *
+     * @param threads how many threads to search with
+     * @param depth   the depth to search to
+     * @param table   the table to search with, which is cleared before each position
+     * @return the total time taken in nanoseconds, and the total nodes searched
+     */
+    public static long[] timeToDepth(int threads, int depth, TranspositionTable table) {
+        long time = 0;
+        long nodes = 0;
+        try (var search = new ParallelSearch(threads, table, PieceSquareEvaluator::new)) {
+            for (var fen : fens()) {
+                table.clear();
+                var game = Fen.parse(fen, CGame.BoardType.BITBOARD);
+                long start = System.nanoTime();
+                nodes += search.search(game, SearchLimits.depth(depth)).nodes();
+                time += System.nanoTime() - start;
+            }
+        }
+        return new long[]{time, nodes};
+    }
+
+    /**
+     * @return the positions to search
+     */
+    private static List<String> fens() {
+        return Perft.POSITIONS.stream().map(Perft.TestPosition::fen).toList();
+    }
+}
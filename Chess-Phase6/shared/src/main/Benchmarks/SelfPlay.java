@@ -0,0 +1,334 @@
+package Benchmarks;
+
+import Engine.Evaluator;
+import Engine.MaterialEvaluator;
+import Engine.PieceSquareEvaluator;
+import Engine.Search;
+import Engine.SearchLimits;
+import Engine.TranspositionTable;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chessGameImpl.BitBoard;
+import chessGameImpl.CGame;
+import chessGameImpl.Move;
+import chessGameImpl.MoveList;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Plays two engine configurations against each other to find out whether a change made the engine stronger or
+ * weaker, stopping as soon as a {@link Sprt} can tell. Games are played in pairs from the same random opening with
+ * the colors swapped, spread across a thread per core. Node limits give the same games on any machine, so a change
+ * that only makes the search faster shows up as more nodes per second at the same strength; time limits let the
+ * faster side search deeper and so show what the speed is worth.
+ * <p>
+ * Usage:
+ * <pre>
+ *   SelfPlay engineA engineB [maxGames] [threads] [elo0] [elo1]
+ * </pre>
+ * An engine is written evaluator:limit=value, for example pst:nodes=20000, material:time=50 or pst:depth=4.
+ * The evaluators are "pst" and "material". The test is whether A is at least elo1 stronger than B rather than at
+ * most elo0, which defaults to the non-regression test of [-5, 0], with 5% error rates.
+ */
+public class SelfPlay {
+    /**
+     * How many random plies each opening starts with
+     */
+    public static final int OPENING_PLIES = 8;
+
+    /**
+     * Games reaching this many plies are drawn
+     */
+    public static final int MAX_PLIES = 400;
+
+    /**
+     * How many games are played unless told otherwise
+     */
+    private static final int DEFAULT_MAX_GAMES = 2000;
+
+    /**
+     * The size of each engine's transposition table, in megabytes
+     */
+    private static final int TABLE_MB = 16;
+
+    /**
+     * One side of a match
+     *
+     * @param name       what to call the engine in the report
+     * @param evaluators makes the evaluator for each thread's search
+     * @param limits     how far the engine may search per move
+     */
+    public record EngineConfig(String name, Supplier<Evaluator> evaluators, SearchLimits limits) {
+        /**
+         * Reads an engine written evaluator:limit=value, as described in the class description
+         *
+         * @param text the engine
+         * @return the engine's configuration
+         * @throws IllegalArgumentException if the text is not an engine
+         */
+        public static EngineConfig parse(String text) {
+            var parts = text.split("[:=]");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Expected evaluator:limit=value, got " + text);
+            }
+            Supplier<Evaluator> evaluators = switch (parts[0]) {
+                case "pst" -> PieceSquareEvaluator::new;
+                case "material" -> MaterialEvaluator::new;
+                default -> throw new IllegalArgumentException("Unknown evaluator " + parts[0]);
+            };
+            long value = Long.parseLong(parts[2]);
+            var limits = switch (parts[1]) {
+                case "nodes" -> SearchLimits.nodes(value);
+                case "time" -> SearchLimits.time(value);
+                case "depth" -> SearchLimits.depth((int) value);
+                default -> throw new IllegalArgumentException("Unknown limit " + parts[1]);
+            };
+            return new EngineConfig(text, evaluators, limits);
+        }
+    }
+
+    /**
+     * Both engines' searches on one thread
+     */
+    private final ThreadLocal<Search[]> searches;
+
+    /**
+     * The two engines, A first
+     */
+    private final EngineConfig[] engines;
+
+    /**
+     * Positions each engine has searched
+     */
+    private final LongAdder[] nodes = {new LongAdder(), new LongAdder()};
+
+    /**
+     * Nanoseconds each engine has spent searching
+     */
+    private final LongAdder[] nanos = {new LongAdder(), new LongAdder()};
+
+    /**
+     * Constructor for a SelfPlay match
+     *
+     * @param engineA the engine being tested
+     * @param engineB the engine it is tested against
+     */
+    public SelfPlay(EngineConfig engineA, EngineConfig engineB) {
+        engines = new EngineConfig[]{engineA, engineB};
+        searches = ThreadLocal.withInitial(() -> new Search[]{
+                new Search(engineA.evaluators().get(), new TranspositionTable(TABLE_MB)),
+                new Search(engineB.evaluators().get(), new TranspositionTable(TABLE_MB))});
+    }
+
+    /**
+     * Entry point for the self-play match
+     *
+     * @param args see the class description
+     * @throws InterruptedException if interrupted while waiting for games
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: SelfPlay engineA engineB [maxGames] [threads] [elo0] [elo1]");
+            System.exit(1);
+        }
+        var match = new SelfPlay(EngineConfig.parse(args[0]), EngineConfig.parse(args[1]));
+        int maxGames = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_GAMES;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        double elo0 = args.length > 4 ? Double.parseDouble(args[4]) : -5;
+        double elo1 = args.length > 5 ? Double.parseDouble(args[5]) : 0;
+
+        var sprt = new Sprt(elo0, elo1, 0.05, 0.05);
+        var decision = match.run(sprt, maxGames, threads, true);
+        System.out.printf("%s after %d games: %s%n", switch (decision) {
+            case ACCEPT_H1 -> "H1 accepted, A is at least " + elo1 + " Elo stronger";
+            case ACCEPT_H0 -> "H0 accepted, A is at most " + elo0 + " Elo stronger";
+            case CONTINUE -> "No decision";
+        }, sprt.getGames(), match.summary(sprt));
+    }
+
+    /**
+     * Plays games until the test decides or the game limit is reached
+     *
+     * @param sprt     the test to record the games in
+     * @param maxGames the most games to play, rounded up to a whole number of pairs
+     * @param threads  how many games to play at once
+     * @param verbose  whether to print the standings after each pair
+     * @return the test's decision
+     * @throws InterruptedException if interrupted while waiting for games
+     */
+    public Sprt.Decision run(Sprt sprt, int maxGames, int threads, boolean verbose) throws InterruptedException {
+        var pool = Executors.newFixedThreadPool(threads, runnable -> {
+            var thread = new Thread(runnable, "self-play");
+            thread.setDaemon(true);
+            return thread;
+        });
+        var finished = new AtomicBoolean();
+        try {
+            var pairs = new ExecutorCompletionService<double[]>(pool);
+            int pairCount = (maxGames + 1) / 2;
+            for (int i = 0; i < pairCount; i++) {
+                long seed = i;
+                pairs.submit(() -> finished.get() ? null : playPair(seed));
+            }
+            for (int i = 0; i < pairCount; i++) {
+                double[] scores = pairs.take().get();
+                if (scores == null) {
+                    continue;
+                }
+                sprt.addResult(scores[0]);
+                sprt.addResult(scores[1]);
+                if (verbose) {
+                    System.out.println(summary(sprt));
+                }
+                if (sprt.decision() != Sprt.Decision.CONTINUE) {
+                    finished.set(true);
+                    break;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Game failed", e.getCause());
+        } finally {
+            finished.set(true);
+            pool.shutdownNow();
+        }
+        return sprt.decision();
+    }
+
+    /**
+     * Plays both colors of one random opening
+     *
+     * @param seed picks the opening
+     * @return engine A's score in each game
+     */
+    public double[] playPair(long seed) {
+        var opening = randomOpening(seed);
+        return new double[]{playGame(opening, true), playGame(opening, false)};
+    }
+
+    /**
+     * Plays one game to the end
+     *
+     * @param opening  the moves to start from
+     * @param aIsWhite whether engine A plays white
+     * @return engine A's score: 1 for a win, 0.5 for a draw, 0 for a loss
+     */
+    public double playGame(int[] opening, boolean aIsWhite) {
+        var game = new CGame(CGame.BoardType.BITBOARD);
+        for (int move : opening) {
+            game.doMove(move);
+        }
+        var sides = searches.get();
+        for (var search : sides) {
+            search.getTable().clear();
+        }
+
+        var repetitions = new HashMap<Long, Integer>();
+        var moves = new MoveList();
+        int quietPlies = 0;
+        for (int ply = opening.length; ply < MAX_PLIES; ply++) {
+            var board = BitBoard.asBitBoard(game.getBoard());
+            boolean whiteToMove = game.getTeamTurn() == ChessGame.TeamColor.WHITE;
+            moves.clear();
+            game.legalMoves(moves);
+            if (moves.isEmpty()) {
+                if (!game.isInCheck(game.getTeamTurn())) {
+                    return 0.5;
+                }
+                //The side to move is mated
+                return whiteToMove == aIsWhite ? 0 : 1;
+            }
+            if (repetitions.merge(game.getPositionKey(), 1, Integer::sum) >= 3 || quietPlies >= 100
+                    || isInsufficientMaterial(board)) {
+                return 0.5;
+            }
+
+            int side = whiteToMove == aIsWhite ? 0 : 1;
+            long start = System.nanoTime();
+            var info = sides[side].search(game, engines[side].limits());
+            nanos[side].add(System.nanoTime() - start);
+            nodes[side].add(info.nodes());
+
+            int move = info.bestMove();
+            boolean pawnMove = board.pieceIndexAt(Move.from(move)) % 6 == ChessPiece.PieceType.PAWN.ordinal();
+            quietPlies = Move.isCapture(move) || pawnMove ? 0 : quietPlies + 1;
+            game.doMove(move);
+        }
+        return 0.5;
+    }
+
+    /**
+     * @param sprt the match's test
+     * @return the standings, Elo estimate, test progress and each engine's speed
+     */
+    public String summary(Sprt sprt) {
+        return String.format("+%d =%d -%d  Elo %.1f +/- %.1f  LLR %.2f [%.2f, %.2f]  %s %d nps, %s %d nps",
+                sprt.getWins(), sprt.getDraws(), sprt.getLosses(), sprt.elo(), sprt.eloError(), sprt.llr(),
+                sprt.getLowerBound(), sprt.getUpperBound(), engines[0].name(), getNodesPerSecond(0),
+                engines[1].name(), getNodesPerSecond(1));
+    }
+
+    /**
+     * @param side 0 for engine A, 1 for engine B
+     * @return the engine's search speed over the whole match, in positions per second
+     */
+    public long getNodesPerSecond(int side) {
+        return nodes[side].sum() * 1_000_000_000L / Math.max(nanos[side].sum(), 1);
+    }
+
+    /**
+     * Picks random legal moves from the starting position, trying again if the game ends within the opening
+     *
+     * @param seed picks the moves
+     * @return the opening's moves
+     */
+    static int[] randomOpening(long seed) {
+        var random = new Random(seed);
+        var moves = new MoveList();
+        while (true) {
+            var game = new CGame(CGame.BoardType.BITBOARD);
+            var opening = new int[OPENING_PLIES];
+            int ply = 0;
+            for (; ply < OPENING_PLIES; ply++) {
+                moves.clear();
+                game.legalMoves(moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                opening[ply] = moves.get(random.nextInt(moves.size())) & Move.MOVE_MASK;
+                game.doMove(opening[ply]);
+            }
+            moves.clear();
+            game.legalMoves(moves);
+            if (ply == OPENING_PLIES && !moves.isEmpty()) {
+                return opening;
+            }
+        }
+    }
+
+    /**
+     * @param board a position
+     * @return true if neither side has enough pieces left to mate: bare kings, or a single bishop or knight
+     */
+    private static boolean isInsufficientMaterial(BitBoard board) {
+        long pieces = 0;
+        for (var color : ChessGame.TeamColor.values()) {
+            if (color == ChessGame.TeamColor.FINISHED) {
+                continue;
+            }
+            if ((board.getPieces(color, ChessPiece.PieceType.PAWN) | board.getPieces(color, ChessPiece.PieceType.ROOK)
+                    | board.getPieces(color, ChessPiece.PieceType.QUEEN)) != 0) {
+                return false;
+            }
+            pieces |= board.getPieces(color, ChessPiece.PieceType.BISHOP)
+                    | board.getPieces(color, ChessPiece.PieceType.KNIGHT);
+        }
+        return Long.bitCount(pieces) <= 1;
+    }
+}
@@ -0,0 +1,204 @@
+package Benchmarks;
+
+/**
+ * A sequential probability ratio test on match results, for deciding as early as possible whether one engine is
+ * stronger than another. It weighs two hypotheses about the Elo difference, elo0 and elo1, and after each game works
+ * out the log-likelihood ratio between them. Once the ratio passes one of the bounds set by the error rates, the
+ * hypothesis on that side is accepted and the match can stop.
+ * <p>
+ * The likelihoods use the normal approximation over the game scores (win 1, draw 1/2, loss 0), which handles draws
+ * without a separate draw model.
+ */
+public class Sprt {
+    /**
+     * What the test has concluded so far
+     */
+    public enum Decision {
+        /**
+         * Not enough games yet
+         */
+        CONTINUE,
+        /**
+         * The Elo difference is at most elo0
+         */
+        ACCEPT_H0,
+        /**
+         * The Elo difference is at least elo1
+         */
+        ACCEPT_H1
+    }
+
+    /**
+     * The expected score under the first hypothesis
+     */
+    private final double score0;
+
+    /**
+     * The expected score under the second hypothesis
+     */
+    private final double score1;
+
+    /**
+     * Below this log-likelihood ratio the first hypothesis is accepted
+     */
+    private final double lowerBound;
+
+    /**
+     * Above this log-likelihood ratio the second hypothesis is accepted
+     */
+    private final double upperBound;
+
+    /**
+     * Games won
+     */
+    private int wins;
+
+    /**
+     * Games drawn
+     */
+    private int draws;
+
+    /**
+     * Games lost
+     */
+    private int losses;
+
+    /**
+     * Constructor for a Sprt
+     *
+     * @param elo0  the Elo difference of the first hypothesis
+     * @param elo1  the Elo difference of the second hypothesis, above elo0
+     * @param alpha the chance of accepting the second hypothesis when the first is true
+     * @param beta  the chance of accepting the first hypothesis when the second is true
+     * @throws IllegalArgumentException if elo1 is not above elo0
+     */
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0) {
+            throw new IllegalArgumentException("elo1 must be above elo0");
+        }
+        score0 = expectedScore(elo0);
+        score1 = expectedScore(elo1);
+        lowerBound = Math.log(beta / (1 - alpha));
+        upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Records a game
+     *
+     * @param score the first engine's score: 1 for a win, 0.5 for a draw, 0 for a loss
+     */
+    public synchronized void addResult(double score) {
+        if (score > 0.5) {
+            wins++;
+        } else if (score < 0.5) {
+            losses++;
+        } else {
+            draws++;
+        }
+    }
+
+    /**
+     * @return the log-likelihood ratio of the second hypothesis over the first, given the games so far
+     */
+    public synchronized double llr() {
+        int games = getGames();
+        double variance = variance();
+        if (games == 0 || variance == 0) {
+            return 0;
+        }
+        return (score1 - score0) * (2 * meanScore() - score0 - score1) * games / (2 * variance);
+    }
+
+    /**
+     * @return what the test has concluded from the games so far
+     */
+    public synchronized Decision decision() {
+        double llr = llr();
+        if (llr >= upperBound) {
+            return Decision.ACCEPT_H1;
+        } else if (llr <= lowerBound) {
+            return Decision.ACCEPT_H0;
+        }
+        return Decision.CONTINUE;
+    }
+
+    /**
+     * @return the Elo difference the games so far point to
+     */
+    public synchronized double elo() {
+        return elo(meanScore());
+    }
+
+    /**
+     * @return the half-width of the 95% confidence interval around {@link #elo()}
+     */
+    public synchronized double eloError() {
+        int games = getGames();
+        if (games == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double margin = 1.96 * Math.sqrt(variance() / games);
+        return (elo(meanScore() + margin) - elo(meanScore() - margin)) / 2;
+    }
+
+    public synchronized int getWins() {
+        return wins;
+    }
+
+    public synchronized int getDraws() {
+        return draws;
+    }
+
+    public synchronized int getLosses() {
+        return losses;
+    }
+
+    public synchronized int getGames() {
+        return wins + draws + losses;
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * @return the first engine's average score per game
+     */
+    private double meanScore() {
+        int games = getGames();
+        return games == 0 ? 0.5 : (wins + draws / 2.0) / games;
+    }
+
+    /**
+     * @return the variance of the first engine's score per game
+     */
+    private double variance() {
+        int games = getGames();
+        if (games == 0) {
+            return 0;
+        }
+        double mean = meanScore();
+        return (wins * (1 - mean) * (1 - mean) + draws * (0.5 - mean) * (0.5 - mean) + losses * mean * mean) / games;
+    }
+
+    /**
+     * @param elo an Elo difference
+     * @return the score the stronger side is expected to make per game
+     */
+    private static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /**
+     * @param score an average score per game
+     * @return the Elo difference it stands for, clamped so sweeps do not give infinities
+     */
+    private static double elo(double score) {
+        double clamped = Math.min(Math.max(score, 0.001), 0.999);
+        return -400 * Math.log10(1 / clamped - 1);
+    }
+}
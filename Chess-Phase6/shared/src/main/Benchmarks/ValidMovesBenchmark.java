@@ -0,0 +1,187 @@
+package Benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chessGameImpl.CGame;
+import chessGameImpl.CMove;
+import chessGameImpl.CPosition;
+import chessGameImpl.LegalMoveCache;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+
+/**
+ * Measures how many bytes a validMoves call allocates and how long it takes.
+ * Each position is run through the old approach of copying the board and building a throwaway CGame for every
+ * candidate move, and twice through CGame.validMoves, which answers from {@link LegalMoveCache#SHARED}. The cold
+ * run empties the cache before each position, untimed, so the position's first call generates every legal move
+ * with make/unmake and the other pieces read them back, as when a client asks about each piece of a new position.
+ * The warm run leaves the cache full, so every call is a hit.
+ * Run it with no arguments; it prints one line per board implementation and approach.
+ */
+public class ValidMovesBenchmark {
+
+    /**
+     * Opening lines played from the starting position to get a spread of positions
+     */
+    private static final String[][] LINES = {
+            {},
+            {"e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "f8c5"},
+            {"d2d4", "d7d5", "c2c4", "e7e6", "b1c3", "g8f6", "c1g5", "f8e7"},
+            {"e2e4", "c7c5", "g1f3", "d7d6", "d2d4", "c5d4", "f3d4", "g8f6", "b1c3", "a7a6"},
+    };
+
+    /**
+     * The ways of getting valid moves that are measured
+     */
+    private enum Approach {
+        /**
+         * Copying the board for every candidate move
+         */
+        COPY,
+        /**
+         * CGame.validMoves with the legal move cache emptied before each position
+         */
+        COLD_CACHE,
+        /**
+         * CGame.validMoves with the legal move cache already holding every position
+         */
+        WARM_CACHE
+    }
+
+    /**
+     * How many passes over the positions to time
+     */
+    private static final int ITERATIONS = 2000;
+
+    /**
+     * Entry point for the benchmark
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        for (var boardType : CGame.BoardType.values()) {
+            var games = new ArrayList<CGame>();
+            for (var line : LINES) {
+                games.add(play(boardType, line));
+            }
+
+            //Warm up every approach before measuring
+            for (var approach : Approach.values()) {
+                run(games, approach, ITERATIONS / 4);
+            }
+
+            report(boardType + " copy per candidate", games, Approach.COPY);
+            report(boardType + " validMoves, cold cache", games, Approach.COLD_CACHE);
+            report(boardType + " validMoves, warm cache", games, Approach.WARM_CACHE);
+        }
+    }
+
+    /**
+     * Times one approach and prints bytes and nanoseconds per validMoves call
+     *
+     * @param label    the name to print
+     * @param games    the positions to run
+     * @param approach how to get the valid moves
+     */
+    private static void report(String label, Collection<CGame> games, Approach approach) {
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        long bytesBefore = threadBean.getThreadAllocatedBytes(threadId);
+        var result = run(games, approach, ITERATIONS);
+        long bytes = threadBean.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        System.out.printf("%-36s %10d bytes/call %10d ns/call%n", label, bytes / result[0], result[1] / result[0]);
+    }
+
+    /**
+     * Calls validMoves on every piece of the side to move in every position
+     *
+     * @param games      the positions to run
+     * @param approach   how to get the valid moves
+     * @param iterations how many passes to make
+     * @return how many validMoves calls were made, then how many nanoseconds they took
+     */
+    private static long[] run(Collection<CGame> games, Approach approach, int iterations) {
+        long calls = 0;
+        long elapsed = 0;
+        long moves = 0;
+        for (int n = 0; n < iterations; n++) {
+            for (var game : games) {
+                //Emptying the cache does not allocate, and is left out of the time
+                if (approach == Approach.COLD_CACHE) {
+                    LegalMoveCache.SHARED.clear();
+                }
+                long start = System.nanoTime();
+                for (int i = 1; i <= 8; i++) {
+                    for (int j = 1; j <= 8; j++) {
+                        var position = CPosition.of(i, j);
+                        var piece = game.getBoard().getPiece(position);
+                        if (piece == null || piece.getTeamColor() != game.getTeamTurn()) {
+                            continue;
+                        }
+                        var valid = approach == Approach.COPY ? legacyValidMoves(game, position)
+                                : game.validMoves(position);
+                        moves += valid.size();
+                        calls++;
+                    }
+                }
+                elapsed += System.nanoTime() - start;
+            }
+        }
+        if (moves < 0) {
+            System.out.println(moves);
+        }
+        return new long[]{calls, elapsed};
+    }
+
+    /**
+     * The validMoves algorithm CGame used before make/unmake: every candidate move is tried on a copy of the board
+     * inside a freshly constructed CGame.
+     *
+     * @param game     the game to look at
+     * @param position the piece to get valid moves for
+     * @return the valid moves for the piece
+     */
+    private static Collection<ChessMove> legacyValidMoves(CGame game, ChessPosition position) {
+        ChessBoard board = game.getBoard();
+        ChessPiece piece = board.getPiece(position);
+        Collection<ChessMove> moves = piece.pieceMoves(board, position);
+
+        HashSet<ChessMove> invalidMoves = new HashSet<>();
+        for (ChessMove move : moves) {
+            ChessBoard tempBoard = board.copy();
+            tempBoard.replacePiece(move.getStartPosition(), move.getEndPosition(), move.getPromotionPiece());
+            ChessGame tempGame = new CGame();
+            tempGame.setBoard(tempBoard);
+            if (tempGame.isInCheck(piece.getTeamColor())) {
+                invalidMoves.add(move);
+            }
+        }
+        moves.removeAll(invalidMoves);
+        return moves;
+    }
+
+    /**
+     * Plays a line of moves from the starting position
+     *
+     * @param boardType the board implementation to use
+     * @param line      moves written as start and end squares, like e2e4
+     * @return the game after the moves
+     */
+    private static CGame play(CGame.BoardType boardType, String[] line) {
+        var game = new CGame(boardType);
+        for (var move : line) {
+            var start = CPosition.of(move.charAt(1) - '0', move.charAt(0) - 'a' + 1);
+            var end = CPosition.of(move.charAt(3) - '0', move.charAt(2) - 'a' + 1);
+            game.doMove(CMove.of(start, end, null));
+        }
+        return game;
+    }
+}
@@ -0,0 +1,254 @@
+package Engine;
+
+import chessGameImpl.CGame;
+import chessGameImpl.Move;
+import chessGameImpl.San;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds an {@link OpeningBook} from games in PGN files. Every move played in the first plies of a game is counted
+ * for the position it was played in, and the counts become the moves' weights.
+ * <p>
+ * This ruleset has no castling or en passant, so a game is only read up to its first castling move or en passant
+ * capture, or any other move that cannot be read.
+ * <p>
+ * Usage:
+ * <pre>
+ *   BookBuilder pgnFolder outputFile [maxPly] [minCount]
+ * </pre>
+ * Moves played fewer than minCount times are left out of the book.
+ */
+public class BookBuilder {
+    /**
+     * How many plies of each game are read unless told otherwise
+     */
+    public static final int DEFAULT_MAX_PLY = 24;
+
+    /**
+     * The highest weight a move can have, since weights are stored as unsigned shorts
+     */
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    /**
+     * How many plies of each game are read
+     */
+    private final int maxPly;
+
+    /**
+     * How many times each move has been played, by position key
+     */
+    private final Map<Long, Map<Integer, Integer>> counts = new HashMap<>();
+
+    /**
+     * How many games have been read
+     */
+    private int games;
+
+    /**
+     * Constructor for a BookBuilder
+     *
+     * @param maxPly how many plies of each game to read
+     */
+    public BookBuilder(int maxPly) {
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Entry point for the book builder
+     *
+     * @param args see the class description
+     * @throws IOException if a file cannot be read or the book cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BookBuilder pgnFolder outputFile [maxPly] [minCount]");
+            System.exit(1);
+        }
+        int maxPly = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_PLY;
+        int minCount = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+        var bookBuilder = new BookBuilder(maxPly);
+        for (var file : pgnFiles(Path.of(args[0]))) {
+            bookBuilder.addPgn(Files.readString(file));
+        }
+        int entries = bookBuilder.write(Path.of(args[1]), minCount);
+        System.out.printf("Read %d games into %d positions, wrote %d moves to %s%n", bookBuilder.getGames(),
+                bookBuilder.getPositions(), entries, args[1]);
+    }
+
+    /**
+     * Reads every game in the text of a PGN file
+     *
+     * @param pgn the file's text
+     */
+    public void addPgn(String pgn) {
+        var moveText = new StringBuilder();
+        for (var line : pgn.split("\\R")) {
+            var trimmed = line.trim();
+            if (trimmed.startsWith("[")) {
+                //A tag after move text starts the next game
+                if (!moveText.isEmpty()) {
+                    addGame(moveText.toString());
+                    moveText.setLength(0);
+                }
+            } else if (!trimmed.startsWith("%")) {
+                moveText.append(line).append('\n');
+            }
+        }
+        if (!moveText.isEmpty()) {
+            addGame(moveText.toString());
+        }
+    }
+
+    /**
+     * Reads the moves of one game, counting each one until maxPly or a move that cannot be read
+     *
+     * @param moveText the game's move text, without tags
+     */
+    public void addGame(String moveText) {
+        var tokens = tokens(moveText);
+        if (tokens.isEmpty()) {
+            return;
+        }
+        games++;
+        var game = new CGame(CGame.BoardType.BITBOARD);
+        for (int ply = 0; ply < maxPly && ply < tokens.size(); ply++) {
+            int move = San.parse(game, tokens.get(ply));
+            if (move == Move.NONE) {
+                return;
+            }
+            counts.computeIfAbsent(game.getPositionKey(), key -> new HashMap<>()).merge(move, 1, Integer::sum);
+            game.doMove(move);
+        }
+    }
+
+    /**
+     * Writes the book
+     *
+     * @param path     the file to write
+     * @param minCount how many times a move must have been played to be included
+     * @return how many moves were written
+     * @throws IOException if the file cannot be written
+     */
+    public int write(Path path, int minCount) throws IOException {
+        var keys = new ArrayList<>(counts.keySet());
+        keys.sort(Long::compare);
+
+        var entries = new ArrayList<long[]>();
+        for (long key : keys) {
+            var moves = new ArrayList<>(counts.get(key).entrySet());
+            moves.sort((a, b) -> b.getValue() - a.getValue());
+            for (var move : moves) {
+                if (move.getValue() >= minCount) {
+                    entries.add(new long[]{key, move.getKey(), Math.min(move.getValue(), MAX_WEIGHT)});
+                }
+            }
+        }
+
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.write(OpeningBook.MAGIC);
+            out.writeInt(OpeningBook.VERSION);
+            out.writeInt(entries.size());
+            for (var entry : entries) {
+                out.writeLong(entry[0]);
+                out.writeShort((int) entry[1]);
+                out.writeShort((int) entry[2]);
+                out.writeInt(0);
+            }
+        }
+        return entries.size();
+    }
+
+    /**
+     * @return how many games have been read
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * @return how many different positions moves have been counted for
+     */
+    public int getPositions() {
+        return counts.size();
+    }
+
+    /**
+     * Splits move text into SAN moves, dropping move numbers, results, comments, variations and annotation glyphs
+     *
+     * @param moveText a game's move text
+     * @return the moves in the order they were played
+     */
+    private static List<String> tokens(String moveText) {
+        var tokens = new ArrayList<String>();
+        var token = new StringBuilder();
+        int variationDepth = 0;
+        boolean inComment = false;
+        boolean inLineComment = false;
+        for (char c : (moveText + " ").toCharArray()) {
+            if (inComment) {
+                inComment = c != '}';
+                continue;
+            }
+            if (inLineComment) {
+                inLineComment = c != '\n';
+                continue;
+            }
+            if (c == '{' || c == ';' || c == '(' || c == ')' || Character.isWhitespace(c)) {
+                if (variationDepth == 0) {
+                    addToken(tokens, token.toString());
+                }
+                token.setLength(0);
+                switch (c) {
+                    case '{' -> inComment = true;
+                    case ';' -> inLineComment = true;
+                    case '(' -> variationDepth++;
+                    case ')' -> variationDepth = Math.max(variationDepth - 1, 0);
+                    default -> {
+                    }
+                }
+                continue;
+            }
+            token.append(c);
+        }
+        return tokens;
+    }
+
+    /**
+     * Adds a token to the move list if it is a move
+     *
+     * @param tokens the moves so far
+     * @param token  the token, which may have a move number stuck to its front, as in "1.e4"
+     */
+    private static void addToken(List<String> tokens, String token) {
+        var move = token.replaceFirst("^\\d+\\.+", "");
+        if (move.isEmpty() || move.startsWith("$") || move.equals("*") || move.equals("1-0") || move.equals("0-1")
+                || move.equals("1/2-1/2")) {
+            return;
+        }
+        tokens.add(move);
+    }
+
+    /**
+     * Finds the PGN files in a folder
+     *
+     * @param folder the folder, searched along with its subfolders
+     * @return every file ending in .pgn, in name order
+     * @throws IOException if the folder cannot be read
+     */
+    private static List<Path> pgnFiles(Path folder) throws IOException {
+        try (var paths = Files.walk(folder)) {
+            return paths.filter(path -> path.toString().toLowerCase().endsWith(".pgn") && Files.isRegularFile(path))
+                    .sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package Engine;
+
+import chess.ChessPiece;
+
+import java.util.Arrays;
+
+/**
+ * The endgames the tablebases cover, each a lone king against a king and a few pieces. Tables always have the pieces
+ * on the white side; positions where black has them are probed with the board flipped.
+ * <p>
+ * A table holds one entry for every placement of the pieces with either side to move. Positions that are mirror images
+ * of each other have the same result, so only one of them is stored: the board is flipped until the white king is in
+ * the a1-d1-d4 triangle, or with pawns, which cannot be flipped top to bottom, on the a-d files.
+ */
+public enum Endgame {
+    KQK(ChessPiece.PieceType.QUEEN),
+    KRK(ChessPiece.PieceType.ROOK),
+    KPK(ChessPiece.PieceType.PAWN),
+    KBNK(ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT);
+
+    /**
+     * How many white king squares are stored when there are no pawns. A constant, since the enum values are built
+     * before the other static fields.
+     */
+    private static final int TRIANGLE_SIZE = 10;
+
+    /**
+     * How many white king squares are stored when there are pawns
+     */
+    private static final int HALF_SIZE = 32;
+
+    /**
+     * The white king squares stored when there are no pawns, by slot
+     */
+    private static final int[] TRIANGLE_SQUARES = new int[TRIANGLE_SIZE];
+
+    /**
+     * The slot of each white king square when there are no pawns, or -1 if the square is not stored
+     */
+    private static final int[] TRIANGLE_SLOTS = new int[64];
+
+    /**
+     * The white king squares stored when there are pawns, by slot
+     */
+    private static final int[] HALF_SQUARES = new int[HALF_SIZE];
+
+    /**
+     * The slot of each white king square when there are pawns, or -1 if the square is not stored
+     */
+    private static final int[] HALF_SLOTS = new int[64];
+
+    static {
+        Arrays.fill(TRIANGLE_SLOTS, -1);
+        Arrays.fill(HALF_SLOTS, -1);
+        int triangle = 0;
+        int half = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            int file = sq % 8;
+            int rank = sq / 8;
+            if (file < 4) {
+                HALF_SLOTS[sq] = half;
+                HALF_SQUARES[half++] = sq;
+                if (rank <= file) {
+                    TRIANGLE_SLOTS[sq] = triangle;
+                    TRIANGLE_SQUARES[triangle++] = sq;
+                }
+            }
+        }
+    }
+
+    /**
+     * The white pieces besides the king, in piece type order
+     */
+    private final ChessPiece.PieceType[] pieces;
+
+    /**
+     * Whether any of the pieces is a pawn
+     */
+    private final boolean hasPawns;
+
+    /**
+     * How many entries the table holds
+     */
+    private final int size;
+
+    /**
+     * Constructor for an Endgame
+     *
+     * @param pieces the white pieces besides the king, in piece type order
+     */
+    Endgame(ChessPiece.PieceType... pieces) {
+        this.pieces = pieces;
+        hasPawns = Arrays.asList(pieces).contains(ChessPiece.PieceType.PAWN);
+        int entries = 2 * (hasPawns ? HALF_SIZE : TRIANGLE_SIZE) * 64;
+        for (int i = 0; i < pieces.length; i++) {
+            entries *= 64;
+        }
+        size = entries;
+    }
+
+    /**
+     * Finds the endgame with a set of white pieces
+     *
+     * @param types the white pieces besides the king, in any order
+     * @return the endgame, or null if there is no table for those pieces
+     */
+    public static Endgame of(ChessPiece.PieceType... types) {
+        var sorted = types.clone();
+        Arrays.sort(sorted);
+        for (var endgame : values()) {
+            if (Arrays.equals(endgame.pieces, sorted)) {
+                return endgame;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the white pieces besides the king, in piece type order
+     */
+    public ChessPiece.PieceType[] getPieces() {
+        return pieces.clone();
+    }
+
+    /**
+     * @return how many entries the table holds
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds a position's entry in the table
+     *
+     * @param whiteToMove whether white is to move
+     * @param squares     the white king's square, the black king's square, then the square of each piece in
+     *                    {@link #getPieces()} order
+     * @return the entry's index
+     */
+    public int index(boolean whiteToMove, int... squares) {
+        int whiteKing = squares[0];
+        boolean flipFile = whiteKing % 8 > 3;
+        boolean flipRank = !hasPawns && whiteKing / 8 > 3;
+        int king = flip(whiteKing, flipFile, flipRank, false);
+        boolean flipDiagonal = !hasPawns && king / 8 > king % 8;
+
+        int index = whiteToMove ? 0 : 1;
+        if (hasPawns) {
+            index = index * HALF_SIZE + HALF_SLOTS[king];
+        } else {
+            index = index * TRIANGLE_SIZE + TRIANGLE_SLOTS[flip(king, false, false, flipDiagonal)];
+        }
+        for (int i = 1; i < squares.length; i++) {
+            index = index * 64 + flip(squares[i], flipFile, flipRank, flipDiagonal);
+        }
+        return index;
+    }
+
+    /**
+     * Finds the position stored in an entry of the table
+     *
+     * @param index   the entry's index
+     * @param squares filled with the white king's square, the black king's square, then the square of each piece in
+     *                {@link #getPieces()} order
+     * @return whether white is to move
+     */
+    public boolean position(int index, int[] squares) {
+        for (int i = pieces.length + 1; i > 0; i--) {
+            squares[i] = index % 64;
+            index /= 64;
+        }
+        int slots = hasPawns ? HALF_SIZE : TRIANGLE_SIZE;
+        squares[0] = hasPawns ? HALF_SQUARES[index % slots] : TRIANGLE_SQUARES[index % slots];
+        return index / slots == 0;
+    }
+
+    /**
+     * Mirrors a square
+     *
+     * @param sq           the square
+     * @param flipFile     whether to swap the a and h files
+     * @param flipRank     whether to swap the first and eighth ranks
+     * @param flipDiagonal whether to mirror in the a1-h8 diagonal, after the other flips
+     * @return the mirrored square
+     */
+    private static int flip(int sq, boolean flipFile, boolean flipRank, boolean flipDiagonal) {
+        if (flipFile) {
+            sq ^= 7;
+        }
+        if (flipRank) {
+            sq ^= 56;
+        }
+        if (flipDiagonal) {
+            sq = (sq % 8) * 8 + sq / 8;
+        }
+        return sq;
+    }
+}
@@ -0,0 +1,27 @@
+package Engine;
+
+import chess.ChessGame;
+import chessGameImpl.BitBoard;
+
+/**
+ * Scores a position statically, without searching, for the search to compare leaves with
+ */
+public interface Evaluator {
+    /**
+     * Scores a position
+     *
+     * @param board      the position to score
+     * @param sideToMove the team whose turn it is
+     * @return the score in centipawns from the point of view of the side to move, so positive is good for them
+     */
+    int evaluate(BitBoard board, ChessGame.TeamColor sideToMove);
+
+    /**
+     * Called with the board a search is about to make and take back its moves on, for evaluators that keep running
+     * state on a board's pieces. Does nothing unless overridden.
+     *
+     * @param board the board the following positions will be scored on
+     */
+    default void attach(BitBoard board) {
+    }
+}
@@ -0,0 +1,30 @@
+package Engine;
+
+import chess.ChessGame;
+import chessGameImpl.BitBoard;
+
+/**
+ * Scores a position by counting material, using the usual centipawn piece values
+ */
+public class MaterialEvaluator implements Evaluator {
+    /**
+     * Piece values in centipawns, in piece type ordinal order. The king is never captured, so it is worth nothing.
+     */
+    public static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+
+    /**
+     * Scores a position by the difference in material
+     *
+     * @param board      the position to score
+     * @param sideToMove the team whose turn it is
+     * @return the side to move's material minus the other team's, in centipawns
+     */
+    @Override
+    public int evaluate(BitBoard board, ChessGame.TeamColor sideToMove) {
+        int score = 0;
+        for (int type = 0; type < 6; type++) {
+            score += PIECE_VALUES[type] * (Long.bitCount(board.getPieces(type)) - Long.bitCount(board.getPieces(type + 6)));
+        }
+        return sideToMove == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+}
@@ -0,0 +1,108 @@
+package Engine;
+
+import chess.ChessGame;
+import chessGameImpl.BitBoard;
+
+/**
+ * Scores positions with a {@link NnueNetwork}. Once attached to a board, the evaluator listens for pieces being added
+ * and removed and updates both sides' accumulators by a weight row each time, so making or taking back a move costs
+ * a few row additions and scoring a position costs only the output layer. Scoring a board it is not attached to
+ * attaches to it first, which builds the accumulators from scratch.
+ * <p>
+ * An evaluator holds the running state of one board, so each search thread needs its own. The network can be shared.
+ */
+public class NnueEvaluator implements Evaluator, BitBoard.PieceListener {
+    /**
+     * The network's weights
+     */
+    private final NnueNetwork network;
+
+    /**
+     * White's accumulator, kept in step with the attached board
+     */
+    private final int[] whiteAccumulator;
+
+    /**
+     * Black's accumulator, kept in step with the attached board
+     */
+    private final int[] blackAccumulator;
+
+    /**
+     * The board the accumulators follow, or null
+     */
+    private BitBoard board;
+
+    /**
+     * Constructor for a NnueEvaluator
+     *
+     * @param network the network to score with, which may be shared with other evaluators
+     */
+    public NnueEvaluator(NnueNetwork network) {
+        this.network = network;
+        whiteAccumulator = new int[network.getHidden()];
+        blackAccumulator = new int[network.getHidden()];
+    }
+
+    /**
+     * Scores a position with the network
+     *
+     * @param board      the position to score
+     * @param sideToMove the team whose turn it is
+     * @return the score in centipawns from the point of view of the side to move
+     */
+    @Override
+    public int evaluate(BitBoard board, ChessGame.TeamColor sideToMove) {
+        if (board != this.board) {
+            attach(board);
+        }
+        return sideToMove == ChessGame.TeamColor.WHITE
+                ? network.output(whiteAccumulator, blackAccumulator)
+                : network.output(blackAccumulator, whiteAccumulator);
+    }
+
+    /**
+     * Builds the accumulators from the board's pieces and follows the board from now on, leaving any board
+     * followed before
+     *
+     * @param board the board to follow
+     */
+    @Override
+    public void attach(BitBoard board) {
+        if (this.board != null && this.board != board) {
+            this.board.setPieceListener(null);
+        }
+        this.board = board;
+        network.reset(whiteAccumulator);
+        network.reset(blackAccumulator);
+        for (int index = 0; index < 12; index++) {
+            for (long bits = board.getPieces(index); bits != 0; bits &= bits - 1) {
+                pieceAdded(index, Long.numberOfTrailingZeros(bits));
+            }
+        }
+        board.setPieceListener(this);
+    }
+
+    /**
+     * Adds the piece's feature to both accumulators
+     *
+     * @param index the piece index put on the board
+     * @param sq    the square it was put on
+     */
+    @Override
+    public void pieceAdded(int index, int sq) {
+        network.add(whiteAccumulator, NnueNetwork.feature(true, index, sq));
+        network.add(blackAccumulator, NnueNetwork.feature(false, index, sq));
+    }
+
+    /**
+     * Takes the piece's feature out of both accumulators
+     *
+     * @param index the piece index taken off the board
+     * @param sq    the square it was taken from
+     */
+    @Override
+    public void pieceRemoved(int index, int sq) {
+        network.subtract(whiteAccumulator, NnueNetwork.feature(true, index, sq));
+        network.subtract(blackAccumulator, NnueNetwork.feature(false, index, sq));
+    }
+}
@@ -0,0 +1,329 @@
+package Engine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * The weights of a small quantized neural network that scores positions, in the style of NNUE. The input is one
+ * feature per piece and square, seen from each side in turn: the side's own pieces come first and black sees the
+ * board flipped, so both sides use the same weights. The first layer turns the features into a hidden vector per
+ * side, called its accumulator. Since a move only changes a few features, the accumulators are kept up to date by
+ * adding and subtracting weight rows, see {@link NnueEvaluator}. The output layer clips both accumulators to
+ * [0, {@link #QA}] and takes one dot product over them, the side to move's first.
+ * <p>
+ * Weights are 16-bit integers: the first layer is scaled by {@link #QA} and the output layer by {@link #QB}, and the
+ * output is turned into centipawns by {@link #SCALE}. In memory they are widened to ints, one array per feature row,
+ * and the loops over them are kept free of branches and library calls. That is the shape the JIT compiles to SIMD
+ * instructions; with 16-bit lanes or a clamp written with Math.min and Math.max it falls back to one value at a time.
+ * <p>
+ * The file is read through a memory mapping. All numbers are big-endian.
+ * <pre>
+ *   header, 16 bytes:  8 bytes "CS240NN1", int version, int hidden size H
+ *   body:              short[768 * H] feature weights, feature by feature, short[H] feature biases,
+ *                      short[2 * H] output weights, int output bias
+ * </pre>
+ */
+public class NnueNetwork {
+    /**
+     * The first 8 bytes of every network file
+     */
+    static final byte[] MAGIC = "CS240NN1".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The file format version this class reads and writes
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The size of the file header in bytes
+     */
+    static final int HEADER_BYTES = 16;
+
+    /**
+     * How many input features there are: 12 pieces on 64 squares
+     */
+    public static final int FEATURES = 12 * 64;
+
+    /**
+     * The first layer's quantization scale, and the top of the clipped range
+     */
+    public static final int QA = 255;
+
+    /**
+     * The output layer's quantization scale
+     */
+    public static final int QB = 64;
+
+    /**
+     * Turns the network's output into centipawns
+     */
+    public static final int SCALE = 400;
+
+    /**
+     * The hidden size used when making a network without a size
+     */
+    public static final int DEFAULT_HIDDEN = 256;
+
+    /**
+     * The size of each side's accumulator
+     */
+    private final int hidden;
+
+    /**
+     * The first layer's weights, one row of {@link #hidden} per feature
+     */
+    private final int[][] featureRows;
+
+    /**
+     * The first layer's biases, which an empty board's accumulators start from
+     */
+    private final int[] featureBiases;
+
+    /**
+     * The output layer's weights for the side to move's accumulator
+     */
+    private final int[] ourWeights;
+
+    /**
+     * The output layer's weights for the other side's accumulator
+     */
+    private final int[] theirWeights;
+
+    /**
+     * The output layer's bias
+     */
+    private final int outputBias;
+
+    /**
+     * Constructor for a NnueNetwork
+     *
+     * @param hidden         the size of each side's accumulator
+     * @param featureWeights the first layer's weights, one row per feature
+     * @param featureBiases  the first layer's biases
+     * @param outputWeights  the output layer's weights
+     * @param outputBias     the output layer's bias
+     * @throws IllegalArgumentException if the arrays do not fit the hidden size
+     */
+    public NnueNetwork(int hidden, short[] featureWeights, short[] featureBiases, short[] outputWeights,
+                       int outputBias) {
+        if (hidden < 1 || featureWeights.length != FEATURES * hidden || featureBiases.length != hidden
+                || outputWeights.length != 2 * hidden) {
+            throw new IllegalArgumentException("Network weights do not match hidden size " + hidden);
+        }
+        this.hidden = hidden;
+        featureRows = new int[FEATURES][hidden];
+        for (int feature = 0; feature < FEATURES; feature++) {
+            for (int i = 0; i < hidden; i++) {
+                featureRows[feature][i] = featureWeights[feature * hidden + i];
+            }
+        }
+        this.featureBiases = widen(featureBiases, 0, hidden);
+        ourWeights = widen(outputWeights, 0, hidden);
+        theirWeights = widen(outputWeights, hidden, hidden);
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * Maps a network file into memory and reads its weights
+     *
+     * @param path the network file
+     * @return the network
+     * @throws IOException if the file cannot be read or is not a network
+     */
+    public static NnueNetwork open(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Not a network: " + path);
+            }
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (buffer.get(i) != MAGIC[i]) {
+                    throw new IOException("Not a network: " + path);
+                }
+            }
+            if (buffer.getInt(8) != VERSION) {
+                throw new IOException("Unsupported network version " + buffer.getInt(8) + ": " + path);
+            }
+            int hidden = buffer.getInt(12);
+            if (hidden < 1 || channel.size() != fileSize(hidden)) {
+                throw new IOException("Network is truncated: " + path);
+            }
+
+            //Copied out in bulk, since the update loops run fastest over plain arrays
+            var shorts = buffer.position(HEADER_BYTES).slice().asShortBuffer();
+            var featureWeights = new short[FEATURES * hidden];
+            var featureBiases = new short[hidden];
+            var outputWeights = new short[2 * hidden];
+            shorts.get(featureWeights).get(featureBiases).get(outputWeights);
+            int outputBias = buffer.getInt((int) channel.size() - Integer.BYTES);
+            return new NnueNetwork(hidden, featureWeights, featureBiases, outputWeights, outputBias);
+        }
+    }
+
+    /**
+     * Makes a network with small random weights, which scores positions arbitrarily but costs the same to run as a
+     * trained one of its size. Used for benchmarks and tests.
+     *
+     * @param hidden the size of each side's accumulator
+     * @param seed   picks the weights
+     * @return the network
+     */
+    public static NnueNetwork random(int hidden, long seed) {
+        var random = new Random(seed);
+        var featureWeights = new short[FEATURES * hidden];
+        for (int i = 0; i < featureWeights.length; i++) {
+            featureWeights[i] = (short) (random.nextInt(65) - 32);
+        }
+        var featureBiases = new short[hidden];
+        for (int i = 0; i < hidden; i++) {
+            featureBiases[i] = (short) random.nextInt(QA / 2);
+        }
+        var outputWeights = new short[2 * hidden];
+        for (int i = 0; i < outputWeights.length; i++) {
+            outputWeights[i] = (short) (random.nextInt(129) - 64);
+        }
+        return new NnueNetwork(hidden, featureWeights, featureBiases, outputWeights, 0);
+    }
+
+    /**
+     * Writes the network to a file in the format described in the class description
+     *
+     * @param path where to write it
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(hidden);
+            for (int[] row : featureRows) {
+                for (int weight : row) {
+                    out.writeShort(weight);
+                }
+            }
+            for (int[] weights : new int[][]{featureBiases, ourWeights, theirWeights}) {
+                for (int weight : weights) {
+                    out.writeShort(weight);
+                }
+            }
+            out.writeInt(outputBias);
+        }
+    }
+
+    /**
+     * @return the size of each side's accumulator
+     */
+    public int getHidden() {
+        return hidden;
+    }
+
+    /**
+     * Finds the feature a piece makes for one side
+     *
+     * @param white whether the feature is seen from white's side
+     * @param index the piece index, as given by {@link chessGameImpl.BitBoard#pieceIndex}
+     * @param sq    the square the piece is on
+     * @return the feature number
+     */
+    public static int feature(boolean white, int index, int sq) {
+        if (white) {
+            return index * 64 + sq;
+        }
+        //Black sees its own pieces first and the board upside down
+        return (index < 6 ? index + 6 : index - 6) * 64 + (sq ^ 56);
+    }
+
+    /**
+     * Starts an accumulator for an empty board
+     *
+     * @param accumulator the accumulator to reset
+     */
+    public void reset(int[] accumulator) {
+        System.arraycopy(featureBiases, 0, accumulator, 0, hidden);
+    }
+
+    /**
+     * Adds a feature's weight row to an accumulator
+     *
+     * @param accumulator the accumulator to update
+     * @param feature     the feature turned on
+     */
+    public void add(int[] accumulator, int feature) {
+        var row = featureRows[feature];
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] += row[i];
+        }
+    }
+
+    /**
+     * Subtracts a feature's weight row from an accumulator
+     *
+     * @param accumulator the accumulator to update
+     * @param feature     the feature turned off
+     */
+    public void subtract(int[] accumulator, int feature) {
+        var row = featureRows[feature];
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] -= row[i];
+        }
+    }
+
+    /**
+     * Runs the output layer
+     *
+     * @param us   the side to move's accumulator
+     * @param them the other side's accumulator
+     * @return the score in centipawns for the side to move
+     */
+    public int output(int[] us, int[] them) {
+        long sum = (long) dot(us, ourWeights) + dot(them, theirWeights) + outputBias;
+        return (int) (sum * SCALE / (QA * QB));
+    }
+
+    /**
+     * @param accumulator an accumulator
+     * @param weights     the output weights for it
+     * @return the dot product of the accumulator, clipped to [0, {@link #QA}], with the weights
+     */
+    private static int dot(int[] accumulator, int[] weights) {
+        int sum = 0;
+        for (int i = 0; i < accumulator.length; i++) {
+            //Clipped with shifts and masks: the sign bit of v clears v if it is negative, and likewise for QA - v
+            int v = accumulator[i];
+            v &= ~(v >> 31);
+            int headroom = QA - v;
+            v = QA - (headroom & ~(headroom >> 31));
+            sum += v * weights[i];
+        }
+        return sum;
+    }
+
+    /**
+     * @param values some 16-bit weights
+     * @param start  the first to take
+     * @param length how many to take
+     * @return those weights as ints
+     */
+    private static int[] widen(short[] values, int start, int length) {
+        var widened = new int[length];
+        for (int i = 0; i < length; i++) {
+            widened[i] = values[start + i];
+        }
+        return widened;
+    }
+
+    /**
+     * @param hidden a hidden size
+     * @return the size in bytes of a network file with that hidden size
+     */
+    private static long fileSize(int hidden) {
+        return HEADER_BYTES + (FEATURES * (long) hidden + hidden + 2L * hidden) * Short.BYTES + Integer.BYTES;
+    }
+}
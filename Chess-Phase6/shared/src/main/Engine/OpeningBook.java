@@ -0,0 +1,193 @@
+package Engine;
+
+import chessGameImpl.CGame;
+import chessGameImpl.Move;
+import chessGameImpl.MoveList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * An opening book read straight from a memory-mapped file, so it takes no heap however large it is and opening it
+ * costs the same for any size. Books are written by {@link BookBuilder}.
+ * <p>
+ * The file is a header followed by fixed-size entries sorted by position key, so a position's moves are found with a
+ * binary search. All numbers are big-endian.
+ * <pre>
+ *   header, 16 bytes:  8 bytes "CS240BK1", int version, int entry count
+ *   entry, 16 bytes:   long position key from {@link CGame#getPositionKey()}, short packed move,
+ *                      unsigned short weight, int reserved
+ * </pre>
+ * Entries for the same position are sorted by weight, highest first.
+ */
+public class OpeningBook {
+    /**
+     * The bytes every book file starts with
+     */
+    static final byte[] MAGIC = "CS240BK1".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The file format version this class reads and writes
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Size of the header in bytes
+     */
+    static final int HEADER_BYTES = 16;
+
+    /**
+     * Size of each entry in bytes
+     */
+    static final int ENTRY_BYTES = 16;
+
+    /**
+     * A move the book knows for a position
+     *
+     * @param move   the packed move
+     * @param weight how often the move was played, relative to the other moves for the position
+     */
+    public record BookMove(int move, int weight) {
+    }
+
+    /**
+     * The mapped file. Absolute reads never change its position, so it can be shared by any number of threads.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * How many entries the book holds
+     */
+    private final int size;
+
+    /**
+     * Constructor for an OpeningBook over a mapped file
+     *
+     * @param buffer the file's contents
+     * @param size   how many entries it holds
+     */
+    private OpeningBook(ByteBuffer buffer, int size) {
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    /**
+     * Maps a book file into memory
+     *
+     * @param path the book file
+     * @return the book
+     * @throws IOException if the file cannot be read or is not a book
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Not an opening book: " + path);
+            }
+            //The mapping stays valid after the channel is closed
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (buffer.get(i) != MAGIC[i]) {
+                    throw new IOException("Not an opening book: " + path);
+                }
+            }
+            if (buffer.getInt(8) != VERSION) {
+                throw new IOException("Unsupported opening book version " + buffer.getInt(8) + ": " + path);
+            }
+            int size = buffer.getInt(12);
+            if (size < 0 || channel.size() != HEADER_BYTES + (long) size * ENTRY_BYTES) {
+                throw new IOException("Opening book is truncated: " + path);
+            }
+            return new OpeningBook(buffer, size);
+        }
+    }
+
+    /**
+     * Looks up the moves for a position
+     *
+     * @param key the position's key, from {@link CGame#getPositionKey()}
+     * @return the moves, highest weight first, or an empty list if the position is not in the book
+     */
+    public List<BookMove> lookup(long key) {
+        var moves = new ArrayList<BookMove>();
+        for (int i = firstEntry(key); i < size && keyAt(i) == key; i++) {
+            int offset = HEADER_BYTES + i * ENTRY_BYTES;
+            moves.add(new BookMove(buffer.getShort(offset + 8) & 0xFFFF, buffer.getShort(offset + 10) & 0xFFFF));
+        }
+        return moves;
+    }
+
+    /**
+     * Picks a book move for a game's current position at random, weighted by how often each move was played.
+     * Moves that are not legal in the game, as can happen if two positions share a key, are never picked.
+     *
+     * @param game   the game
+     * @param random the source of randomness
+     * @return the packed move, or {@link Move#NONE} if the book has no move for the position
+     */
+    public int pickMove(CGame game, RandomGenerator random) {
+        var legalMoves = new MoveList();
+        game.legalMoves(legalMoves);
+        var candidates = new ArrayList<BookMove>();
+        long totalWeight = 0;
+        for (var bookMove : lookup(game.getPositionKey())) {
+            if (bookMove.weight() > 0 && legalMoves.contains(bookMove.move())) {
+                candidates.add(bookMove);
+                totalWeight += bookMove.weight();
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Move.NONE;
+        }
+
+        long pick = random.nextLong(totalWeight);
+        for (var candidate : candidates) {
+            pick -= candidate.weight();
+            if (pick < 0) {
+                return candidate.move();
+            }
+        }
+        return candidates.get(0).move();
+    }
+
+    /**
+     * @return how many entries the book holds
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Binary searches for the first entry with a key no lower than the one given
+     *
+     * @param key the key to look for
+     * @return the entry's index, or the entry count if every key is lower
+     */
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keyAt(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param index an entry index
+     * @return the entry's position key
+     */
+    private long keyAt(int index) {
+        return buffer.getLong(HEADER_BYTES + index * ENTRY_BYTES);
+    }
+}
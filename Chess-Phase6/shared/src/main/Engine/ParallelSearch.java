@@ -0,0 +1,181 @@
+package Engine;
+
+import chessGameImpl.CGame;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A multi-threaded search using Lazy SMP. Every thread runs its own {@link Search} on its own copy of the position,
+ * and they share nothing but one {@link TranspositionTable}. The threads speed each other up through the table: what
+ * one thread finds, the others can cut off on or try first. Half the helper threads search one ply ahead of the main
+ * thread, so they fill the table with deeper results and wander into different parts of the tree.
+ * <p>
+ * The main search runs on the calling thread and decides when to stop. Its result and progress are what is reported,
+ * with the node counts of every thread added together.
+ */
+public class ParallelSearch implements AutoCloseable {
+    /**
+     * One search per thread, the first being the main search
+     */
+    private final Search[] searches;
+
+    /**
+     * Runs the helper searches
+     */
+    private final ExecutorService helpers;
+
+    /**
+     * The table every search shares
+     */
+    private final TranspositionTable table;
+
+    /**
+     * Constructor for a ParallelSearch that scores positions by material and piece placement, with its own
+     * transposition table
+     *
+     * @param threads how many threads to search with, including the calling thread
+     */
+    public ParallelSearch(int threads) {
+        this(threads, new TranspositionTable(Search.DEFAULT_TABLE_MB), PieceSquareEvaluator::new);
+    }
+
+    /**
+     * Constructor for a ParallelSearch
+     *
+     * @param threads    how many threads to search with, including the calling thread
+     * @param table      the table the threads share
+     * @param evaluators makes an evaluator for each thread, since evaluators may keep state while searching
+     * @throws IllegalArgumentException if threads is less than 1
+     */
+    public ParallelSearch(int threads, TranspositionTable table, Supplier<Evaluator> evaluators) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one search thread");
+        }
+        this.table = table;
+        searches = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(evaluators.get(), table);
+        }
+        helpers = Executors.newFixedThreadPool(Math.max(threads - 1, 1), runnable -> {
+            var thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Searches a position without reporting progress
+     *
+     * @param game   the position to search, which is not changed
+     * @param limits how deep and how long to search
+     * @return the result of the main search's deepest finished iteration
+     */
+    public SearchInfo search(CGame game, SearchLimits limits) {
+        return search(game, limits, info -> {
+        });
+    }
+
+    /**
+     * Searches a position on every thread until the main search reaches a limit or {@link #stop()} is called.
+     * Only one search may run at a time.
+     *
+     * @param game     the position to search, which is not changed
+     * @param limits   how deep and how long to search
+     * @param listener called with the result of each of the main search's finished iterations
+     * @return the result of the main search's deepest finished iteration
+     */
+    public SearchInfo search(CGame game, SearchLimits limits, Consumer<SearchInfo> listener) {
+        table.newSearch();
+        for (var search : searches) {
+            search.clearStop();
+        }
+
+        //The helpers have no time limit of their own, since they are stopped when the main search finishes
+        var helperLimits = SearchLimits.depth(limits.depth());
+        var running = new ArrayList<Future<?>>();
+        for (int i = 1; i < searches.length; i++) {
+            var helper = searches[i];
+            var helperGame = game.copy();
+            int depthOffset = i % 2;
+            running.add(helpers.submit(() -> helper.run(helperGame, helperLimits, info -> {
+            }, depthOffset)));
+        }
+
+        SearchInfo result;
+        try {
+            result = searches[0].run(game, limits, info -> listener.accept(withTotalNodes(info)), 0);
+        } finally {
+            for (int i = 1; i < searches.length; i++) {
+                searches[i].stop();
+            }
+            for (var future : running) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Helper search failed", e.getCause());
+                }
+            }
+        }
+        //Counted once the helpers have stopped, so the total is final
+        return withTotalNodes(result);
+    }
+
+    /**
+     * Ends the current search as soon as possible
+     */
+    public void stop() {
+        for (var search : searches) {
+            search.stop();
+        }
+    }
+
+    /**
+     * @return how many positions every thread has visited in the current or last search
+     */
+    public long getNodes() {
+        long nodes = 0;
+        for (var search : searches) {
+            nodes += search.getNodes();
+        }
+        return nodes;
+    }
+
+    /**
+     * @return the table the threads share
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * @return how many threads the search uses, including the calling thread
+     */
+    public int getThreads() {
+        return searches.length;
+    }
+
+    /**
+     * @param info a result from the main search
+     * @return the same result with the nodes of every thread counted
+     */
+    private SearchInfo withTotalNodes(SearchInfo info) {
+        return new SearchInfo(info.depth(), info.score(), info.pv(), getNodes(), info.millis());
+    }
+
+    /**
+     * Stops the helper threads. The ParallelSearch cannot be used afterwards.
+     */
+    @Override
+    public void close() {
+        stop();
+        helpers.shutdownNow();
+    }
+}
@@ -0,0 +1,24 @@
+package Engine;
+
+import chess.ChessGame;
+import chessGameImpl.BitBoard;
+
+/**
+ * Scores a position by material and piece placement, blended between middlegame and endgame values by how much
+ * material is left. The board keeps the totals up to date as pieces move, so scoring a position costs the same
+ * however many pieces are on it. See {@link chessGameImpl.PieceSquareTables}.
+ */
+public class PieceSquareEvaluator implements Evaluator {
+    /**
+     * Scores a position by the board's running material and piece-square totals
+     *
+     * @param board      the position to score
+     * @param sideToMove the team whose turn it is
+     * @return the score in centipawns from the point of view of the side to move
+     */
+    @Override
+    public int evaluate(BitBoard board, ChessGame.TeamColor sideToMove) {
+        int score = board.getEvaluation();
+        return sideToMove == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+}
@@ -0,0 +1,740 @@
+package Engine;
+
+import chessGameImpl.BitBoard;
+import chessGameImpl.CGame;
+import chessGameImpl.Move;
+import chessGameImpl.MoveGenerator;
+import chessGameImpl.MoveList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A single-threaded alpha-beta search for finding good moves and scoring positions.
+ * <p>
+ * The search deepens one ply at a time, so there is always a finished answer to fall back on when time runs out.
+ * Each iteration is a negamax alpha-beta search that extends checks and ends in a quiescence search of captures and
+ * promotions, so leaves are not scored in the middle of an exchange. Moves are tried in order of how likely they are
+ * to cause a cutoff: the previous iteration's principal variation first, then captures by most valuable victim and
+ * least valuable attacker, then killer moves that caused cutoffs at the same ply, then quiet moves by their history
+ * of causing cutoffs.
+ * <p>
+ * Results are kept in a {@link TranspositionTable}, so a position reached again by another move order, in a later
+ * iteration or in a later search, can reuse its score or at least try its best move first.
+ * <p>
+ * All the search's working space is allocated when the Search is made, so searching allocates nothing per position.
+ * A Search is used by one thread at a time, but {@link #stop()} and {@link #getNodes()} may be called from any thread.
+ */
+public class Search {
+    /**
+     * The score for mating on the current move. A mate found n plies from the root scores MATE - n for the winner
+     * and -(MATE - n) for the loser, so quicker mates score higher.
+     */
+    public static final int MATE = 30000;
+
+    /**
+     * The deepest ply the search can reach, counting check extensions and quiescence
+     */
+    public static final int MAX_PLY = 64;
+
+    /**
+     * Bigger than any score
+     */
+    private static final int INFINITY = 32000;
+
+    /**
+     * The search checks its time and stop flag each time this many more positions have been visited, plus one
+     */
+    private static final int CHECK_MASK = 2047;
+
+    /**
+     * How valuable each piece type is as a capture victim, and how cheap as an attacker, in piece type ordinal order
+     */
+    private static final int[] MVV_LVA_RANKS = {6, 5, 3, 2, 4, 1};
+
+    /**
+     * Order score for the previous iteration's principal variation move, or else the transposition table's best move
+     */
+    private static final int PV_SCORE = 3_000_000;
+
+    /**
+     * Order score added to captures and promotions, above every quiet move
+     */
+    private static final int CAPTURE_SCORE = 2_000_000;
+
+    /**
+     * Order scores for the first and second killer moves, above every history score
+     */
+    private static final int[] KILLER_SCORES = {1_900_000, 1_800_000};
+
+    /**
+     * History scores are halved when one passes this, so they stay below the killer scores
+     */
+    private static final int HISTORY_LIMIT = 1_000_000;
+
+    /**
+     * The transposition table size used when none is given, in megabytes
+     */
+    public static final int DEFAULT_TABLE_MB = 16;
+
+    /**
+     * Scores positions at the leaves
+     */
+    private final Evaluator evaluator;
+
+    /**
+     * Results of earlier searches of positions
+     */
+    private final TranspositionTable table;
+
+    /**
+     * A move list for each ply
+     */
+    private final MoveList[] moveLists = new MoveList[MAX_PLY];
+
+    /**
+     * Order scores for each ply's moves, parallel to its move list
+     */
+    private final int[][] orderScores = new int[MAX_PLY][256];
+
+    /**
+     * Triangular principal variation table. Row ply holds the best line found from that ply.
+     */
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+
+    /**
+     * How far each row of the principal variation table reaches
+     */
+    private final int[] pvLength = new int[MAX_PLY];
+
+    /**
+     * The principal variation of the last finished iteration
+     */
+    private final int[] previousPv = new int[MAX_PLY];
+
+    /**
+     * How many moves the previous principal variation holds
+     */
+    private int previousPvLength;
+
+    /**
+     * True while the search is still walking down the previous principal variation
+     */
+    private boolean followPv;
+
+    /**
+     * Root moves left out of the search, so each line of {@link #searchLines} starts with a different move
+     */
+    private final MoveList excludedRootMoves = new MoveList();
+
+    /**
+     * Two quiet moves per ply that most recently caused a cutoff there
+     */
+    private final int[][] killers = new int[MAX_PLY][2];
+
+    /**
+     * How much each quiet move, by start and end square, has caused cutoffs, weighted by depth
+     */
+    private final int[][] history = new int[64][64];
+
+    /**
+     * The game being searched, a private copy backed by a BitBoard
+     */
+    private CGame game;
+
+    /**
+     * The searched game's board
+     */
+    private BitBoard board;
+
+    /**
+     * Positions visited in the current search
+     */
+    private long nodes;
+
+    /**
+     * When the search must stop, from System.nanoTime, or Long.MAX_VALUE for no time limit
+     */
+    private long deadline;
+
+    /**
+     * How many positions the search may visit, or Long.MAX_VALUE for no node limit
+     */
+    private long nodeLimit;
+
+    /**
+     * Set by {@link #stop()} to end the search from another thread
+     */
+    private volatile boolean stopRequested;
+
+    /**
+     * Set once the search has run out of time or been stopped, so every node returns straight away
+     */
+    private boolean stopped;
+
+    /**
+     * Constructor for a Search that scores positions by material and piece placement, with its own transposition
+     * table
+     */
+    public Search() {
+        this(new PieceSquareEvaluator(), new TranspositionTable(DEFAULT_TABLE_MB));
+    }
+
+    /**
+     * Constructor for a Search
+     *
+     * @param evaluator how to score positions at the leaves
+     * @param table     where to keep results, which may be shared with other searches
+     */
+    public Search(Evaluator evaluator, TranspositionTable table) {
+        this.evaluator = evaluator;
+        this.table = table;
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            moveLists[ply] = new MoveList();
+        }
+    }
+
+    /**
+     * Searches a position without reporting progress
+     *
+     * @param game   the position to search, which is not changed
+     * @param limits how deep and how long to search
+     * @return the result of the deepest finished iteration
+     */
+    public SearchInfo search(CGame game, SearchLimits limits) {
+        return search(game, limits, info -> {
+        });
+    }
+
+    /**
+     * Searches a position, deepening one ply at a time until a limit is reached, a forced mate is found or
+     * {@link #stop()} is called
+     *
+     * @param game     the position to search, which is not changed
+     * @param limits   how deep and how long to search
+     * @param listener called with the result of each finished iteration
+     * @return the result of the deepest finished iteration. If the side to move has no legal moves, this has depth 0
+     * and an empty principal variation.
+     */
+    public SearchInfo search(CGame game, SearchLimits limits, Consumer<SearchInfo> listener) {
+        clearStop();
+        table.newSearch();
+        return run(game, limits, listener, 0);
+    }
+
+    /**
+     * Clears any earlier request to stop, before a search is started
+     */
+    void clearStop() {
+        stopRequested = false;
+    }
+
+    /**
+     * Runs a search without clearing the stop flag or starting a new transposition table generation, so that
+     * {@link ParallelSearch} can run several searches as one
+     *
+     * @param game        the position to search, which is not changed
+     * @param limits      how deep and how long to search
+     * @param listener    called with the result of each finished iteration
+     * @param depthOffset how many plies deeper than the iteration number each iteration searches, so helper
+     *                    searches can work ahead of the main one
+     * @return the result of the deepest finished iteration
+     */
+    SearchInfo run(CGame game, SearchLimits limits, Consumer<SearchInfo> listener, int depthOffset) {
+        long start = System.nanoTime();
+        var rootMoves = prepare(game, limits, start);
+        if (rootMoves.isEmpty()) {
+            int score = this.game.isInCheck(this.game.getTeamTurn()) ? -MATE : 0;
+            return new SearchInfo(0, score, new int[0], 0, elapsedMillis(start));
+        }
+        //Until an iteration finishes, any legal move is better than none
+        var result = new SearchInfo(0, 0, new int[]{rootMoves.get(0)}, 0, 0);
+
+        for (int iteration = 1; iteration <= limits.depth(); iteration++) {
+            int depth = Math.min(iteration + depthOffset, limits.depth());
+            followPv = true;
+            int score = negamax(depth, 0, -INFINITY, INFINITY);
+            if (stopped) {
+                break;
+            }
+
+            previousPvLength = pvLength[0];
+            System.arraycopy(pvTable[0], 0, previousPv, 0, previousPvLength);
+            result = new SearchInfo(depth, score, Arrays.copyOf(previousPv, previousPvLength), nodes,
+                    elapsedMillis(start));
+            listener.accept(result);
+
+            //A mate found within the full-width depth cannot be improved on
+            if (result.isMate() && MATE - Math.abs(score) <= depth) {
+                break;
+            }
+            //The next iteration would take several times as long as this one, so do not start it late
+            if (deadline != Long.MAX_VALUE && System.nanoTime() > start + (deadline - start) / 2) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Searches a position for its best few moves, each with its own line. Each iteration searches for the lines in
+     * turn, leaving out the first moves of the lines it has already found, so every line starts with a different
+     * move. The lines share the limits, so finding n lines costs about n times as much as finding one.
+     *
+     * @param game     the position to search, which is not changed
+     * @param limits   how deep and how long to search, for all the lines together
+     * @param lines    how many lines to find. There are fewer if the position has fewer legal moves.
+     * @param listener called with the lines of each finished iteration, best first
+     * @return the lines of the deepest finished iteration, best first. The list is empty if the side to move has no
+     * legal moves or the first iteration did not finish.
+     */
+    public List<SearchInfo> searchLines(CGame game, SearchLimits limits, int lines,
+                                        Consumer<List<SearchInfo>> listener) {
+        clearStop();
+        table.newSearch();
+        long start = System.nanoTime();
+        var rootMoves = prepare(game, limits, start);
+        lines = Math.min(lines, rootMoves.size());
+        if (lines <= 0) {
+            return List.of();
+        }
+        var linePvs = new int[lines][0];
+        List<SearchInfo> result = List.of();
+
+        for (int depth = 1; depth <= limits.depth(); depth++) {
+            var found = new ArrayList<SearchInfo>(lines);
+            excludedRootMoves.clear();
+            for (int line = 0; line < lines && !stopped; line++) {
+                //Each line follows its own line from the last iteration
+                previousPvLength = linePvs[line].length;
+                System.arraycopy(linePvs[line], 0, previousPv, 0, previousPvLength);
+                followPv = true;
+                int score = negamax(depth, 0, -INFINITY, INFINITY);
+                if (!stopped) {
+                    var pv = Arrays.copyOf(pvTable[0], pvLength[0]);
+                    found.add(new SearchInfo(depth, score, pv, nodes, elapsedMillis(start)));
+                    excludedRootMoves.add(pv[0]);
+                }
+            }
+            excludedRootMoves.clear();
+            if (stopped) {
+                break;
+            }
+
+            found.sort(Comparator.comparingInt(SearchInfo::score).reversed());
+            result = List.copyOf(found);
+            for (int line = 0; line < lines; line++) {
+                linePvs[line] = result.get(line).pv();
+            }
+            listener.accept(result);
+
+            //The next iteration would take several times as long as this one, so do not start it late
+            if (deadline != Long.MAX_VALUE && System.nanoTime() > start + (deadline - start) / 2) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sets up a search: sets its limits, clears what it learned in the last search, copies the position and finds
+     * the root moves
+     *
+     * @param game   the position to search, which is not changed
+     * @param limits how deep and how long to search
+     * @param start  when the search started, from System.nanoTime
+     * @return the legal moves at the root
+     */
+    private MoveList prepare(CGame game, SearchLimits limits, long start) {
+        deadline = limits.timeMillis() > 0 ? start + limits.timeMillis() * 1_000_000 : Long.MAX_VALUE;
+        nodeLimit = limits.nodes() > 0 ? limits.nodes() : Long.MAX_VALUE;
+        stopped = false;
+        nodes = 0;
+        previousPvLength = 0;
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, Move.NONE);
+        }
+        for (int[] fromHistory : history) {
+            Arrays.fill(fromHistory, 0);
+        }
+
+        this.game = game.copy();
+        if (!(this.game.getBoard() instanceof BitBoard)) {
+            this.game.setBoard(BitBoard.from(this.game.getBoard()));
+        }
+        board = (BitBoard) this.game.getBoard();
+        evaluator.attach(board);
+
+        var rootMoves = moveLists[0];
+        rootMoves.clear();
+        MoveGenerator.addLegalMoves(board, this.game.getTeamTurn(), rootMoves);
+        return rootMoves;
+    }
+
+    /**
+     * @return the transposition table this search keeps its results in
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Ends the current search as soon as possible. The search returns the result of its last finished iteration.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * @return how many positions the current or last search has visited. Read from another thread, this may lag a
+     * little behind.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Negamax alpha-beta search
+     *
+     * @param depth how many more plies to search before quiescence
+     * @param ply   how many plies from the root this position is
+     * @param alpha the score the side to move is already sure of
+     * @param beta  the score the other side is already sure of, so anything at least this good is a cutoff
+     * @return the position's score for the side to move, or 0 if the search was stopped
+     */
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if ((++nodes & CHECK_MASK) == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return 0;
+        }
+        var side = game.getTeamTurn();
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(board, side);
+        }
+
+        boolean inCheck = game.isInCheck(side);
+        if (inCheck) {
+            //Look one ply further when in check, so forced lines are not cut off early
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiescence(ply, alpha, beta);
+        }
+
+        long key = game.getPositionKey();
+        long entry = table.probe(key);
+        int tableMove = Move.NONE;
+        if (entry != 0) {
+            tableMove = TranspositionTable.move(entry);
+            //The root is always searched, so there is a principal variation to report
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        var moves = moveLists[ply];
+        moves.clear();
+        MoveGenerator.addLegalMoves(board, side, moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -(MATE - ply) : 0;
+        }
+        if (ply == 0 && !excludedRootMoves.isEmpty()) {
+            for (int i = moves.size() - 1; i >= 0; i--) {
+                if (excludedRootMoves.contains(moves.get(i))) {
+                    moves.removeAt(i);
+                }
+            }
+        }
+
+        int pvMove = Move.NONE;
+        if (followPv) {
+            if (ply < previousPvLength) {
+                pvMove = previousPv[ply];
+            } else {
+                followPv = false;
+            }
+        }
+        scoreMoves(moves, ply, pvMove != Move.NONE ? pvMove : tableMove);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickMove(moves, ply, i);
+            if ((move & Move.MOVE_MASK) != pvMove) {
+                followPv = false;
+            }
+            game.doMove(move);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            game.undoMove();
+            followPv = false;
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                bestMove = move & Move.MOVE_MASK;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (score >= beta) {
+                        if (!isTactical(move)) {
+                            storeCutoff(move, ply, depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        //With root moves left out, the root's score is not the position's score
+        if (ply == 0 && !excludedRootMoves.isEmpty()) {
+            return best;
+        }
+        //When every move failed low, none of them is known to be best
+        table.store(key, bound == TranspositionTable.UPPER ? Move.NONE : bestMove, scoreToTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Searches only captures and promotions until the position is quiet, so a leaf is not scored halfway through an
+     * exchange. The side to move may also stand pat on the static score instead of making any of them.
+     *
+     * @param ply   how many plies from the root this position is
+     * @param alpha the score the side to move is already sure of
+     * @param beta  the score the other side is already sure of
+     * @return the position's score for the side to move, or 0 if the search was stopped
+     */
+    private int quiescence(int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if ((++nodes & CHECK_MASK) == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return 0;
+        }
+        var side = game.getTeamTurn();
+        int standPat = evaluator.evaluate(board, side);
+        if (ply >= MAX_PLY - 1 || standPat >= beta) {
+            return standPat;
+        }
+        alpha = Math.max(alpha, standPat);
+
+        var moves = moveLists[ply];
+        moves.clear();
+        MoveGenerator.addLegalMoves(board, side, moves);
+        for (int i = moves.size() - 1; i >= 0; i--) {
+            if (!isTactical(moves.get(i))) {
+                moves.removeAt(i);
+            }
+        }
+        scoreMoves(moves, ply, Move.NONE);
+
+        int best = standPat;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickMove(moves, ply, i);
+            game.doMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gives each move at a ply an order score, higher meaning it is tried sooner
+     *
+     * @param moves  the moves to score
+     * @param ply    the ply the moves are made at
+     * @param pvMove the previous principal variation's move at this ply, or {@link Move#NONE}
+     */
+    private void scoreMoves(MoveList moves, int ply, int pvMove) {
+        int[] scores = orderScores[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int bare = move & Move.MOVE_MASK;
+            if (bare == pvMove) {
+                scores[i] = PV_SCORE;
+            } else if (isTactical(move)) {
+                scores[i] = CAPTURE_SCORE + captureOrder(move);
+            } else if (bare == killers[ply][0]) {
+                scores[i] = KILLER_SCORES[0];
+            } else if (bare == killers[ply][1]) {
+                scores[i] = KILLER_SCORES[1];
+            } else {
+                scores[i] = history[Move.from(move)][Move.to(move)];
+            }
+        }
+    }
+
+    /**
+     * Orders captures by most valuable victim, then least valuable attacker. A promotion counts as capturing the
+     * piece it promotes to, on top of anything it really captures.
+     *
+     * @param move a capture or promotion
+     * @return the move's order within the captures and promotions
+     */
+    private int captureOrder(int move) {
+        int attacker = board.pieceIndexAt(Move.from(move)) % 6;
+        int order = -MVV_LVA_RANKS[attacker];
+        if (Move.isCapture(move)) {
+            order += MVV_LVA_RANKS[board.pieceIndexAt(Move.to(move)) % 6] * 8;
+        }
+        var promotion = Move.promotion(move);
+        if (promotion != null) {
+            order += MVV_LVA_RANKS[promotion.ordinal()] * 8;
+        }
+        return order;
+    }
+
+    /**
+     * Moves the best scored of the untried moves into place, so moves are tried best first without sorting the
+     * whole list when a cutoff comes early
+     *
+     * @param moves the moves at this ply
+     * @param ply   the ply
+     * @param index how many moves have been tried already
+     * @return the move to try next
+     */
+    private int pickMove(MoveList moves, int ply, int index) {
+        int[] scores = orderScores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves.get(best);
+        moves.set(best, moves.get(index));
+        moves.set(index, move);
+        int score = scores[best];
+        scores[best] = scores[index];
+        scores[index] = score;
+        return move;
+    }
+
+    /**
+     * Records a quiet move that caused a cutoff, as a killer for its ply and in the history table
+     *
+     * @param move  the move
+     * @param ply   the ply it was made at
+     * @param depth the depth it was searched to, since deeper cutoffs save more work
+     */
+    private void storeCutoff(int move, int ply, int depth) {
+        int bare = move & Move.MOVE_MASK;
+        if (killers[ply][0] != bare) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = bare;
+        }
+
+        int[] fromHistory = history[Move.from(move)];
+        fromHistory[Move.to(move)] += depth * depth;
+        if (fromHistory[Move.to(move)] > HISTORY_LIMIT) {
+            for (int[] row : history) {
+                for (int to = 0; to < 64; to++) {
+                    row[to] /= 2;
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes a move the best line from its ply, followed by the best line found from the position after it
+     *
+     * @param ply  the ply the move is made at
+     * @param move the move
+     */
+    private void updatePv(int ply, int move) {
+        pvTable[ply][ply] = move & Move.MOVE_MASK;
+        int length = pvLength[ply + 1];
+        System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1, length - ply - 1);
+        pvLength[ply] = Math.max(length, ply + 1);
+    }
+
+    /**
+     * Mate scores count plies from the root, but a table entry can be reached at any ply, so they are stored counting
+     * plies from the entry's own position instead
+     *
+     * @param score a score counting mates from the root
+     * @param ply   the ply of the position being stored
+     * @return the score counting mates from the position
+     */
+    private static int scoreToTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -(MATE - MAX_PLY)) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Undoes {@link #scoreToTable} for a position reached at a given ply
+     *
+     * @param score a score from the table, counting mates from its position
+     * @param ply   the ply the position was reached at
+     * @return the score counting mates from the root
+     */
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -(MATE - MAX_PLY)) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * @param move a packed move
+     * @return True if the move captures or promotes, and so can change the material balance
+     */
+    private static boolean isTactical(int move) {
+        return Move.isCapture(move) || Move.promotion(move) != null;
+    }
+
+    /**
+     * Stops the search if it has run out of time or nodes or been asked to stop
+     */
+    private void checkLimits() {
+        if (stopRequested || nodes >= nodeLimit || System.nanoTime() > deadline) {
+            stopped = true;
+        }
+    }
+
+    /**
+     * @param start when the search started, from System.nanoTime
+     * @return how many milliseconds the search has run
+     */
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
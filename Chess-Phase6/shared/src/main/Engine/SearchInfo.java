@@ -0,0 +1,63 @@
+package Engine;
+
+import chessGameImpl.Move;
+
+/**
+ * What a search found by the end of one iteration
+ *
+ * @param depth  the depth of the iteration, in plies
+ * @param score  the score in centipawns for the side to move, or a mate score as described in {@link Search#MATE}
+ * @param pv     the principal variation, the line of packed moves the search expects both teams to play
+ * @param nodes  how many positions the search had visited
+ * @param millis how long the search had run
+ */
+public record SearchInfo(int depth, int score, int[] pv, long nodes, long millis) {
+    /**
+     * @return the first move of the principal variation, or {@link Move#NONE} if there is no legal move
+     */
+    public int bestMove() {
+        return pv.length > 0 ? pv[0] : Move.NONE;
+    }
+
+    /**
+     * @return True if the score is a forced mate for either team
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    /**
+     * @return the number of moves until mate, negative if the side to move is the one mated, or 0 if no mate
+     */
+    public int mateIn() {
+        if (!isMate()) {
+            return 0;
+        }
+        int plies = Search.MATE - Math.abs(score);
+        return score > 0 ? (plies + 1) / 2 : -(plies + 1) / 2;
+    }
+
+    /**
+     * @return the search speed in positions per second
+     */
+    public long nodesPerSecond() {
+        return nodes * 1000 / Math.max(millis, 1);
+    }
+
+    /**
+     * @return the info written like a UCI info line, like "depth 5 score cp 34 nodes 1200 nps 60000 time 20 pv e2e4"
+     */
+    @Override
+    public String toString() {
+        var info = new StringBuilder("depth ").append(depth);
+        info.append(isMate() ? " score mate " + mateIn() : " score cp " + score);
+        info.append(" nodes ").append(nodes).append(" nps ").append(nodesPerSecond()).append(" time ").append(millis);
+        if (pv.length > 0) {
+            info.append(" pv");
+            for (int move : pv) {
+                info.append(' ').append(Move.toString(move));
+            }
+        }
+        return info.toString();
+    }
+}
@@ -0,0 +1,58 @@
+package Engine;
+
+/**
+ * How far a search may go. A search stops at whichever limit it reaches first.
+ *
+ * @param depth      the deepest iteration to search, in plies
+ * @param timeMillis how long the search may run, or 0 for no time limit
+ * @param nodes      how many positions the search may visit, or 0 for no node limit. Unlike time, a node limit gives
+ *                   the same result on any machine and under any load.
+ */
+public record SearchLimits(int depth, long timeMillis, long nodes) {
+    /**
+     * Constructor for SearchLimits, clamping the depth to what the search can reach
+     *
+     * @param depth      the deepest iteration to search, in plies
+     * @param timeMillis how long the search may run, or 0 for no time limit
+     * @param nodes      how many positions the search may visit, or 0 for no node limit
+     */
+    public SearchLimits {
+        depth = Math.max(1, Math.min(depth, Search.MAX_PLY - 1));
+        timeMillis = Math.max(0, timeMillis);
+        nodes = Math.max(0, nodes);
+    }
+
+    /**
+     * Constructor for SearchLimits without a node limit
+     *
+     * @param depth      the deepest iteration to search, in plies
+     * @param timeMillis how long the search may run, or 0 for no time limit
+     */
+    public SearchLimits(int depth, long timeMillis) {
+        this(depth, timeMillis, 0);
+    }
+
+    /**
+     * @param depth the depth to search to
+     * @return limits that search to a fixed depth however long it takes
+     */
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0);
+    }
+
+    /**
+     * @param timeMillis how long the search may run
+     * @return limits that search as deep as the time allows
+     */
+    public static SearchLimits time(long timeMillis) {
+        return new SearchLimits(Search.MAX_PLY - 1, timeMillis);
+    }
+
+    /**
+     * @param nodes how many positions the search may visit
+     * @return limits that search as deep as the node count allows
+     */
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(Search.MAX_PLY - 1, 0, nodes);
+    }
+}
@@ -0,0 +1,267 @@
+package Engine;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chessGameImpl.BitBoard;
+import chessGameImpl.CGame;
+import chessGameImpl.Move;
+import chessGameImpl.MoveList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Exact results for the endgames in {@link Endgame}, read from table files written by {@link TablebaseGenerator}.
+ * The files are memory-mapped, so a probe is a few array reads and takes no heap.
+ * <p>
+ * A table file is a 16 byte header, the 8 bytes "CS240TB1", an int version and an int entry count, followed by one
+ * byte per entry. A byte of 0 is a draw, and any other byte is one more than the number of plies until mate: an odd
+ * count means the side to move mates, an even count means it gets mated.
+ */
+public class Tablebase {
+    /**
+     * The bytes every table file starts with
+     */
+    static final byte[] MAGIC = "CS240TB1".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The file format version this class reads and writes
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Size of the header in bytes
+     */
+    static final int HEADER_BYTES = 16;
+
+    /**
+     * The entry for a drawn position
+     */
+    static final byte DRAW = 0;
+
+    /**
+     * The result of a position with best play
+     */
+    public enum Outcome {
+        WIN,
+        DRAW,
+        LOSS
+    }
+
+    /**
+     * A position's result for the side to move
+     *
+     * @param outcome whether the side to move wins, draws or loses
+     * @param plies   how many plies until mate with best play, or 0 for a draw
+     */
+    public record Result(Outcome outcome, int plies) {
+    }
+
+    /**
+     * The result of a position where neither side can mate
+     */
+    private static final Result DRAWN = new Result(Outcome.DRAW, 0);
+
+    /**
+     * The mapped table of each endgame that has a file
+     */
+    private final Map<Endgame, ByteBuffer> tables;
+
+    /**
+     * Constructor for a Tablebase over mapped files
+     *
+     * @param tables the mapped table of each endgame that has a file
+     */
+    private Tablebase(Map<Endgame, ByteBuffer> tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * Maps every table file in a folder into memory. Endgames without a file are not covered.
+     *
+     * @param folder the folder holding files named like "KQK.tb"
+     * @return the tablebase
+     * @throws IOException if a file cannot be read or is not a table for its endgame
+     */
+    public static Tablebase open(Path folder) throws IOException {
+        var tables = new EnumMap<Endgame, ByteBuffer>(Endgame.class);
+        for (var endgame : Endgame.values()) {
+            var path = path(folder, endgame);
+            if (Files.exists(path)) {
+                tables.put(endgame, map(path, endgame));
+            }
+        }
+        return new Tablebase(tables);
+    }
+
+    /**
+     * @param folder  a folder of table files
+     * @param endgame an endgame
+     * @return where the endgame's table file is in the folder
+     */
+    public static Path path(Path folder, Endgame endgame) {
+        return folder.resolve(endgame.name() + ".tb");
+    }
+
+    /**
+     * @param endgame an endgame
+     * @return whether its table is loaded
+     */
+    public boolean covers(Endgame endgame) {
+        return tables.containsKey(endgame);
+    }
+
+    /**
+     * Looks up the result of a game's current position
+     *
+     * @param game the game
+     * @return the result for the side to move, or null if the position is not covered
+     */
+    public Result probe(CGame game) {
+        return probe(BitBoard.asBitBoard(game.getBoard()), game.getTeamTurn());
+    }
+
+    /**
+     * Looks up the result of a position. Positions where neither side has enough pieces to mate are always covered.
+     *
+     * @param board      the position
+     * @param sideToMove whose turn it is
+     * @return the result for the side to move, or null if the position is not covered
+     */
+    public Result probe(BitBoard board, ChessGame.TeamColor sideToMove) {
+        var white = ChessGame.TeamColor.WHITE;
+        var black = ChessGame.TeamColor.BLACK;
+        long whiteKing = board.getPieces(white, ChessPiece.PieceType.KING);
+        long blackKing = board.getPieces(black, ChessPiece.PieceType.KING);
+        long whitePieces = board.getTeam(white) & ~whiteKing;
+        long blackPieces = board.getTeam(black) & ~blackKing;
+        if (Long.bitCount(whiteKing) != 1 || Long.bitCount(blackKing) != 1
+                || (whitePieces != 0 && blackPieces != 0)) {
+            return null;
+        }
+
+        var strongSide = blackPieces == 0 ? white : black;
+        long pieces = whitePieces | blackPieces;
+        if (pieces == 0 || (Long.bitCount(pieces) == 1 && (pieces & (board.getPieces(strongSide,
+                ChessPiece.PieceType.BISHOP) | board.getPieces(strongSide, ChessPiece.PieceType.KNIGHT))) != 0)) {
+            return DRAWN;
+        }
+
+        var types = new ChessPiece.PieceType[Long.bitCount(pieces)];
+        int count = 0;
+        for (long mask = pieces; mask != 0; mask &= mask - 1) {
+            types[count++] = BitBoard.piece(board.pieceIndexAt(Long.numberOfTrailingZeros(mask))).getPieceType();
+        }
+        var endgame = Endgame.of(types);
+        if (endgame == null || !tables.containsKey(endgame)) {
+            return null;
+        }
+
+        //Tables have the pieces on the white side, so black's pieces are probed with the board turned around
+        var squares = new int[types.length + 2];
+        squares[0] = Long.numberOfTrailingZeros(strongSide == white ? whiteKing : blackKing);
+        squares[1] = Long.numberOfTrailingZeros(strongSide == white ? blackKing : whiteKing);
+        var endgamePieces = endgame.getPieces();
+        for (int i = 0; i < endgamePieces.length; i++) {
+            squares[i + 2] = Long.numberOfTrailingZeros(board.getPieces(strongSide, endgamePieces[i]));
+        }
+        if (strongSide == black) {
+            for (int i = 0; i < squares.length; i++) {
+                squares[i] ^= 56;
+            }
+        }
+        int index = endgame.index(sideToMove == strongSide, squares);
+        return decode(tables.get(endgame).get(HEADER_BYTES + index));
+    }
+
+    /**
+     * Finds the best move in a game's current position: the fastest mate when winning, a move that keeps the draw when
+     * drawing, and the slowest loss when losing
+     *
+     * @param game the game, which is left as it was
+     * @return the packed move, or {@link Move#NONE} if the position is not covered or there are no moves
+     */
+    public int bestMove(CGame game) {
+        var result = probe(game);
+        if (result == null) {
+            return Move.NONE;
+        }
+        var moves = new MoveList();
+        game.legalMoves(moves);
+        int bestMove = Move.NONE;
+        int bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            game.doMove(move);
+            var childResult = probe(game);
+            game.undoMove();
+            if (childResult == null) {
+                continue;
+            }
+            //The child's result is for the other side, so its loss is our win
+            int rank = switch (childResult.outcome()) {
+                case LOSS -> 1000 - childResult.plies();
+                case DRAW -> 0;
+                case WIN -> -1000 + childResult.plies();
+            };
+            if (rank > bestRank) {
+                bestRank = rank;
+                bestMove = move & Move.MOVE_MASK;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * @param value a table entry
+     * @return the result it stands for
+     */
+    static Result decode(byte value) {
+        if (value == DRAW) {
+            return DRAWN;
+        }
+        int plies = (value & 0xFF) - 1;
+        return new Result(plies % 2 == 0 ? Outcome.LOSS : Outcome.WIN, plies);
+    }
+
+    /**
+     * @param plies how many plies until mate, odd if the side to move mates and even if it gets mated
+     * @return the table entry for it
+     */
+    static byte encode(int plies) {
+        return (byte) (plies + 1);
+    }
+
+    /**
+     * Maps a table file and checks it is the right size for its endgame
+     *
+     * @param path    the file
+     * @param endgame the endgame it should hold
+     * @return the file's contents
+     * @throws IOException if the file cannot be read or is not a table for the endgame
+     */
+    private static ByteBuffer map(Path path, Endgame endgame) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != HEADER_BYTES + (long) endgame.size()) {
+                throw new IOException("Not a " + endgame + " table: " + path);
+            }
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (buffer.get(i) != MAGIC[i]) {
+                    throw new IOException("Not a table file: " + path);
+                }
+            }
+            if (buffer.getInt(8) != VERSION || buffer.getInt(12) != endgame.size()) {
+                throw new IOException("Not a " + endgame + " table: " + path);
+            }
+            return buffer;
+        }
+    }
+}
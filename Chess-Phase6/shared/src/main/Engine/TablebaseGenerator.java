@@ -0,0 +1,357 @@
+package Engine;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chessGameImpl.Attacks;
+import chessGameImpl.BitBoard;
+import chessGameImpl.CPosition;
+import chessGameImpl.Move;
+import chessGameImpl.MoveGenerator;
+import chessGameImpl.MoveList;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builds the {@link Tablebase} tables by retrograde analysis. Every position in a table is first checked for mate and
+ * stalemate, then the table is solved backwards one ply at a time: a position is won in n plies if a move reaches a
+ * position lost in n - 1, and lost in n plies if every move reaches a position won in fewer. Whatever is still
+ * unsolved when nothing changes is a draw. Each ply is a pass over the table split across a ForkJoinPool; a pass only
+ * writes the entries it is solving and only reads entries solved by earlier passes, so the threads need no locking.
+ * <p>
+ * Moves that change the material, captures and promotions, lead into other tables. Those must have been built first,
+ * and any material without a table, like a king and a knight, is a draw.
+ * <p>
+ * Usage:
+ * <pre>
+ *   TablebaseGenerator outputFolder [threads]
+ * </pre>
+ */
+public class TablebaseGenerator {
+    /**
+     * Marks an entry not solved yet
+     */
+    private static final byte UNKNOWN = -1;
+
+    /**
+     * Marks an entry that is not a legal position, such as one with two pieces on a square
+     */
+    private static final byte ILLEGAL = -2;
+
+    /**
+     * How many entries a pass task handles without splitting further
+     */
+    private static final int CHUNK = 1 << 12;
+
+    /**
+     * Solves one pass over a range of a table's entries
+     */
+    private static class PassTask extends RecursiveTask<Integer> {
+        /**
+         * The endgame being built
+         */
+        private final Endgame endgame;
+
+        /**
+         * The entries being built
+         */
+        private final byte[] values;
+
+        /**
+         * The finished tables that moves can lead into
+         */
+        private final Map<Endgame, byte[]> solved;
+
+        /**
+         * The pass, which is the number of plies to mate being solved for
+         */
+        private final int plies;
+
+        /**
+         * The first entry in the range
+         */
+        private final int start;
+
+        /**
+         * One past the last entry in the range
+         */
+        private final int end;
+
+        /**
+         * Constructor for a PassTask
+         *
+         * @param endgame the endgame being built
+         * @param values  the entries being built
+         * @param solved  the finished tables that moves can lead into
+         * @param plies   the number of plies to mate being solved for
+         * @param start   the first entry in the range
+         * @param end     one past the last entry in the range
+         */
+        PassTask(Endgame endgame, byte[] values, Map<Endgame, byte[]> solved, int plies, int start, int end) {
+            this.endgame = endgame;
+            this.values = values;
+            this.solved = solved;
+            this.plies = plies;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Solves the range, splitting it in half until it is small
+         *
+         * @return how many entries were solved
+         */
+        @Override
+        protected Integer compute() {
+            if (end - start > CHUNK) {
+                int middle = (start + end) >>> 1;
+                var left = new PassTask(endgame, values, solved, plies, start, middle);
+                left.fork();
+                int right = new PassTask(endgame, values, solved, plies, middle, end).compute();
+                return right + left.join();
+            }
+
+            int changed = 0;
+            var squares = new int[endgame.getPieces().length + 2];
+            var moves = new MoveList();
+            for (int index = start; index < end; index++) {
+                if (values[index] != UNKNOWN) {
+                    continue;
+                }
+                boolean whiteToMove = endgame.position(index, squares);
+                var board = board(squares);
+                if (board == null) {
+                    values[index] = ILLEGAL;
+                    continue;
+                }
+                var sideToMove = whiteToMove ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                var otherSide = whiteToMove ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+                int otherKing = squares[whiteToMove ? 1 : 0];
+                if (Attacks.isAttacked(board, otherKing, sideToMove)) {
+                    values[index] = ILLEGAL;
+                    continue;
+                }
+
+                moves.clear();
+                MoveGenerator.addLegalMoves(board, sideToMove, moves);
+                byte value = UNKNOWN;
+                if (plies == 0) {
+                    if (moves.isEmpty()) {
+                        int king = squares[whiteToMove ? 0 : 1];
+                        value = Attacks.isAttacked(board, king, otherSide) ? Tablebase.encode(0) : Tablebase.DRAW;
+                    }
+                } else if (plies % 2 == 1) {
+                    //Won if some move leaves the other side mated in one ply fewer
+                    for (int i = 0; i < moves.size() && value == UNKNOWN; i++) {
+                        if (childValue(squares, whiteToMove, moves.get(i)) == Tablebase.encode(plies - 1)) {
+                            value = Tablebase.encode(plies);
+                        }
+                    }
+                } else {
+                    //Lost if every move leaves the other side mating sooner
+                    value = Tablebase.encode(plies);
+                    for (int i = 0; i < moves.size(); i++) {
+                        int child = childValue(squares, whiteToMove, moves.get(i)) & 0xFF;
+                        if (child == (UNKNOWN & 0xFF) || child == Tablebase.DRAW || child % 2 == 1 || child > plies) {
+                            value = UNKNOWN;
+                            break;
+                        }
+                    }
+                }
+                if (value != UNKNOWN) {
+                    values[index] = value;
+                    changed++;
+                }
+            }
+            return changed;
+        }
+
+        /**
+         * Looks up the entry for the position a move leads to
+         *
+         * @param squares     the position, as stored in the table
+         * @param whiteToMove whether white is to move
+         * @param move        a legal move in the position
+         * @return the entry, which may be UNKNOWN if it is not solved yet
+         */
+        private byte childValue(int[] squares, boolean whiteToMove, int move) {
+            int to = Move.to(move);
+            var promotion = Move.promotion(move);
+            var childSquares = squares.clone();
+            int moved = 0;
+            while (squares[moved] != Move.from(move)) {
+                moved++;
+            }
+            childSquares[moved] = to;
+            if (!Move.isCapture(move) && promotion == null) {
+                return values[endgame.index(!whiteToMove, childSquares)];
+            }
+
+            //Captures and promotions change the material, so they lead into another table
+            var pieces = endgame.getPieces();
+            if (promotion != null) {
+                pieces[moved - 2] = promotion;
+            }
+            var childPieces = new ChessPiece.PieceType[pieces.length];
+            var pieceSquares = new int[pieces.length];
+            int count = 0;
+            for (int i = 0; i < pieces.length; i++) {
+                if (i + 2 != moved && squares[i + 2] == to) {
+                    continue;
+                }
+                childPieces[count] = pieces[i];
+                pieceSquares[count++] = childSquares[i + 2];
+            }
+            var childEndgame = Endgame.of(Arrays.copyOf(childPieces, count));
+            if (childEndgame == null || !solved.containsKey(childEndgame)) {
+                return Tablebase.DRAW;
+            }
+
+            //The other table may list the pieces in a different order
+            var order = childEndgame.getPieces();
+            var orderedSquares = new int[order.length + 2];
+            orderedSquares[0] = childSquares[0];
+            orderedSquares[1] = childSquares[1];
+            for (int i = 0; i < order.length; i++) {
+                for (int j = 0; j < count; j++) {
+                    if (childPieces[j] == order[i]) {
+                        orderedSquares[i + 2] = pieceSquares[j];
+                    }
+                }
+            }
+            return solved.get(childEndgame)[childEndgame.index(!whiteToMove, orderedSquares)];
+        }
+
+        /**
+         * Sets up a position on a board
+         *
+         * @param squares the position, as stored in the table
+         * @return the board, or null if two pieces share a square or a pawn is on the first or last rank
+         */
+        private BitBoard board(int[] squares) {
+            var board = new BitBoard();
+            var pieces = endgame.getPieces();
+            long occupied = 0;
+            for (int i = 0; i < squares.length; i++) {
+                int sq = squares[i];
+                var type = i < 2 ? ChessPiece.PieceType.KING : pieces[i - 2];
+                if ((occupied & 1L << sq) != 0 || (type == ChessPiece.PieceType.PAWN && (sq < 8 || sq >= 56))) {
+                    return null;
+                }
+                occupied |= 1L << sq;
+                var color = i == 1 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+                board.addPiece(CPosition.of(sq), BitBoard.piece(BitBoard.pieceIndex(color, type)));
+            }
+            return board;
+        }
+    }
+
+    /**
+     * Utility class, not instantiated
+     */
+    private TablebaseGenerator() {
+    }
+
+    /**
+     * Entry point for the tablebase generator, which builds every endgame's table in turn
+     *
+     * @param args see the class description
+     * @throws IOException if a table cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: TablebaseGenerator outputFolder [threads]");
+            System.exit(1);
+        }
+        var folder = Path.of(args[0]);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Files.createDirectories(folder);
+
+        var pool = new ForkJoinPool(threads);
+        try {
+            var solved = new EnumMap<Endgame, byte[]>(Endgame.class);
+            for (var endgame : Endgame.values()) {
+                long start = System.nanoTime();
+                var values = generate(endgame, solved, pool);
+                solved.put(endgame, values);
+                write(endgame, values, folder);
+                System.out.printf("%-5s %10d entries, longest mate %3d plies, %7d ms%n", endgame, values.length,
+                        longestMate(values), (System.nanoTime() - start) / 1_000_000);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Builds the table for an endgame
+     *
+     * @param endgame the endgame to build
+     * @param solved  the finished tables of the endgames its captures and promotions lead into
+     * @param pool    the pool to run the passes on
+     * @return one entry per position, in the format described in {@link Tablebase}
+     */
+    public static byte[] generate(Endgame endgame, Map<Endgame, byte[]> solved, ForkJoinPool pool) {
+        var values = new byte[endgame.size()];
+        Arrays.fill(values, UNKNOWN);
+        int longestChildMate = 0;
+        for (var table : solved.values()) {
+            longestChildMate = Math.max(longestChildMate, longestMate(table));
+        }
+
+        //A move into another table can finish a mate as late as that table's longest one
+        int lastChanged = -1;
+        for (int plies = 0; ; plies++) {
+            int changed = pool.invoke(new PassTask(endgame, values, solved, plies, 0, values.length));
+            if (changed == 0 && lastChanged == 0 && plies > longestChildMate + 1) {
+                break;
+            }
+            lastChanged = changed;
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == UNKNOWN || values[i] == ILLEGAL) {
+                values[i] = Tablebase.DRAW;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Writes a table file
+     *
+     * @param endgame the table's endgame
+     * @param values  the table's entries
+     * @param folder  the folder to write it to, named by {@link Tablebase#path(Path, Endgame)}
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Endgame endgame, byte[] values, Path folder) throws IOException {
+        var path = Tablebase.path(folder, endgame);
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.write(Tablebase.MAGIC);
+            out.writeInt(Tablebase.VERSION);
+            out.writeInt(values.length);
+            out.write(values);
+        }
+    }
+
+    /**
+     * @param values a finished table's entries
+     * @return the most plies to mate in the table
+     */
+    private static int longestMate(byte[] values) {
+        int longest = 0;
+        for (byte value : values) {
+            longest = Math.max(longest, (value & 0xFF) - 1);
+        }
+        return longest;
+    }
+}
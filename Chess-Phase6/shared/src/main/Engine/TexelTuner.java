@@ -0,0 +1,452 @@
+package Engine;
+
+import chessGameImpl.BitBoard;
+import chessGameImpl.CGame;
+import chessGameImpl.Fen;
+import chessGameImpl.PieceSquareTables;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Tunes the material and piece-square weights of {@link PieceSquareTables} against a set of positions labeled with
+ * the results of the games they came from, the method known as Texel tuning. The error of a set of weights is the
+ * mean squared difference between each game's result and the result the evaluation predicts, which is the
+ * evaluation passed through a sigmoid. The tuner first finds the sigmoid's scale that best fits the starting
+ * weights, then lowers the error by gradient descent and writes the result as a weights file.
+ * <p>
+ * The evaluation is linear in the weights, so each position is stored as just its pieces, as table entries with a
+ * sign for the side, and its phase, all in flat primitive arrays. Every pass over the positions is split across a
+ * ForkJoinPool, with each task adding up the error and gradient of its own range.
+ * <p>
+ * Each line of the position file is a FEN followed by the game's result, written as 1-0, 0-1 or 1/2-1/2, or as a
+ * white score like [1.0], [0.5] or [0.0]. Only the pieces are read. The evaluation is used without a search, so the
+ * positions should be quiet ones, with no captures pending.
+ * <p>
+ * Usage:
+ * <pre>
+ *   TexelTuner positionFile outputFile [epochs] [threads]
+ * </pre>
+ */
+public class TexelTuner {
+    /**
+     * How many positions a task handles without splitting further
+     */
+    private static final int CHUNK = 1 << 13;
+
+    /**
+     * How many passes of gradient descent are made unless told otherwise
+     */
+    private static final int DEFAULT_EPOCHS = 500;
+
+    /**
+     * How far a weight may move in one step early on, in centipawns
+     */
+    private static final double LEARNING_RATE = 1.0;
+
+    /**
+     * How much of the previous steps' average gradient carries over to the next step
+     */
+    private static final double BETA1 = 0.9;
+
+    /**
+     * How much of the previous steps' average squared gradient carries over to the next step
+     */
+    private static final double BETA2 = 0.999;
+
+    /**
+     * The largest weight written out, so the packed scores of a whole board cannot overflow
+     */
+    private static final int WEIGHT_LIMIT = 2000;
+
+    /**
+     * The pieces of every position, as table entries numbered from 1, negated for black pieces
+     */
+    private short[] pieces = new short[1 << 16];
+
+    /**
+     * Where each position's pieces start in {@link #pieces}, with one more entry marking the end of the last
+     */
+    private int[] starts = new int[1 << 12];
+
+    /**
+     * The phase of each position
+     */
+    private byte[] phases = new byte[1 << 12];
+
+    /**
+     * The result of each position's game, from white's point of view
+     */
+    private float[] results = new float[1 << 12];
+
+    /**
+     * How many positions are loaded
+     */
+    private int count;
+
+    /**
+     * The pool the passes run on
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Adds up the error, and optionally its gradient, over a range of positions
+     */
+    private class ErrorTask extends RecursiveTask<double[]> {
+        /**
+         * The weights being scored
+         */
+        private final double[] weights;
+
+        /**
+         * The sigmoid's scale
+         */
+        private final double scale;
+
+        /**
+         * Whether to work out the gradient as well as the error
+         */
+        private final boolean gradient;
+
+        /**
+         * The first position in the range
+         */
+        private final int start;
+
+        /**
+         * One past the last position in the range
+         */
+        private final int end;
+
+        /**
+         * Constructor for an ErrorTask
+         *
+         * @param weights  the weights being scored
+         * @param scale    the sigmoid's scale
+         * @param gradient whether to work out the gradient as well as the error
+         * @param start    the first position in the range
+         * @param end      one past the last position in the range
+         */
+        ErrorTask(double[] weights, double scale, boolean gradient, int start, int end) {
+            this.weights = weights;
+            this.scale = scale;
+            this.gradient = gradient;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Scores the range, splitting it in half until it is small
+         *
+         * @return the summed gradient of each weight, followed by the summed squared error
+         */
+        @Override
+        protected double[] compute() {
+            if (end - start > CHUNK) {
+                int middle = (start + end) >>> 1;
+                var left = new ErrorTask(weights, scale, gradient, start, middle);
+                left.fork();
+                var sums = new ErrorTask(weights, scale, gradient, middle, end).compute();
+                var leftSums = left.join();
+                for (int i = 0; i < sums.length; i++) {
+                    sums[i] += leftSums[i];
+                }
+                return sums;
+            }
+
+            var sums = new double[gradient ? PieceSquareTables.WEIGHT_COUNT + 1 : 1];
+            for (int position = start; position < end; position++) {
+                int phase = Math.min(phases[position], PieceSquareTables.MAX_PHASE);
+                double middlegameShare = (double) phase / PieceSquareTables.MAX_PHASE;
+                double predicted = sigmoid(evaluate(weights, position), scale);
+                double miss = results[position] - predicted;
+                sums[sums.length - 1] += miss * miss;
+                if (!gradient) {
+                    continue;
+                }
+
+                //How the squared error changes with the evaluation, before the sign and phase of each piece
+                double slope = -2 * miss * predicted * (1 - predicted) * scale * Math.log(10) / 400;
+                for (int i = starts[position]; i < starts[position + 1]; i++) {
+                    int piece = pieces[i];
+                    int entry = Math.abs(piece) - 1;
+                    int type = entry / 64;
+                    double signed = piece > 0 ? slope : -slope;
+                    double middlegame = signed * middlegameShare;
+                    double endgame = signed - middlegame;
+                    sums[PieceSquareTables.MIDDLEGAME_MATERIAL + type] += middlegame;
+                    sums[PieceSquareTables.ENDGAME_MATERIAL + type] += endgame;
+                    sums[PieceSquareTables.MIDDLEGAME_SQUARES + entry] += middlegame;
+                    sums[PieceSquareTables.ENDGAME_SQUARES + entry] += endgame;
+                }
+            }
+            return sums;
+        }
+    }
+
+    /**
+     * Called after each epoch of tuning
+     */
+    public interface Progress {
+        /**
+         * @param epoch how many epochs have finished
+         * @param error the error before the epoch's step
+         */
+        void epochFinished(int epoch, double error);
+    }
+
+    /**
+     * Constructor for a TexelTuner with no positions
+     *
+     * @param pool the pool to run the passes on
+     */
+    public TexelTuner(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Entry point for the tuner
+     *
+     * @param args see the class description
+     * @throws IOException if the positions cannot be read or the weights cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TexelTuner positionFile outputFile [epochs] [threads]");
+            System.exit(1);
+        }
+        int epochs = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_EPOCHS;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        var pool = new ForkJoinPool(threads);
+        try {
+            var tuner = new TexelTuner(pool);
+            long start = System.nanoTime();
+            try (var reader = Files.newBufferedReader(Path.of(args[0]))) {
+                tuner.addPositions(reader);
+            }
+            System.out.printf("Loaded %d positions in %d ms%n", tuner.size(), (System.nanoTime() - start) / 1_000_000);
+
+            var initial = toDoubles(PieceSquareTables.getWeights());
+            double scale = tuner.fitScale(initial);
+            System.out.printf("Scale %.4f, starting error %.6f%n", scale, tuner.error(initial, scale));
+
+            long tuneStart = System.nanoTime();
+            var tuned = tuner.tune(initial, scale, epochs, (epoch, error) -> {
+                if (epoch % 25 == 0 || epoch == epochs) {
+                    System.out.printf("Epoch %4d  error %.6f  %6d ms%n", epoch, error,
+                            (System.nanoTime() - tuneStart) / 1_000_000);
+                }
+            });
+            var rounded = round(tuned);
+            PieceSquareTables.writeWeights(Path.of(args[1]), rounded, String.format(
+                    "Tuned on %d positions over %d epochs, error %.6f", tuner.size(), epochs,
+                    tuner.error(toDoubles(rounded), scale)));
+            System.out.println("Wrote " + args[1]);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Reads labeled positions, skipping lines without a result
+     *
+     * @param reader the positions, one per line as described in the class description
+     * @return how many positions were added
+     * @throws IOException if the positions cannot be read
+     */
+    public int addPositions(BufferedReader reader) throws IOException {
+        int added = 0;
+        for (var line = reader.readLine(); line != null; line = reader.readLine()) {
+            double result = parseResult(line);
+            var fields = line.trim().split("\\s+");
+            if (Double.isNaN(result) || fields[0].isEmpty()) {
+                continue;
+            }
+            try {
+                addPosition(Fen.parse(fields[0], CGame.BoardType.BITBOARD), result);
+                added++;
+            } catch (IllegalArgumentException e) {
+                //Lines that are not positions are skipped like lines without a result
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Adds a labeled position
+     *
+     * @param game   the position
+     * @param result the result of its game from white's point of view: 1, 0.5 or 0
+     */
+    public void addPosition(CGame game, double result) {
+        var board = BitBoard.asBitBoard(game.getBoard());
+        if (count + 2 > starts.length) {
+            starts = Arrays.copyOf(starts, starts.length * 2);
+            phases = Arrays.copyOf(phases, phases.length * 2);
+            results = Arrays.copyOf(results, results.length * 2);
+        }
+        int next = starts[count];
+        int phase = 0;
+        for (int index = 0; index < 12; index++) {
+            for (long bits = board.getPieces(index); bits != 0; bits &= bits - 1) {
+                int sq = Long.numberOfTrailingZeros(bits);
+                if (next == pieces.length) {
+                    pieces = Arrays.copyOf(pieces, pieces.length * 2);
+                }
+                //The tables are drawn with the eighth row first, so white pieces read them flipped
+                boolean white = index < 6;
+                int entry = (index % 6) * 64 + (white ? sq ^ 56 : sq) + 1;
+                pieces[next++] = (short) (white ? entry : -entry);
+                phase += PieceSquareTables.phase(index);
+            }
+        }
+        phases[count] = (byte) phase;
+        results[count] = (float) result;
+        starts[++count] = next;
+    }
+
+    /**
+     * @return how many positions are loaded
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @param weights a weights array, as described in {@link PieceSquareTables}
+     * @param scale   the sigmoid's scale
+     * @return the mean squared error of the weights over the loaded positions
+     */
+    public double error(double[] weights, double scale) {
+        if (count == 0) {
+            return 0;
+        }
+        var sums = pool.invoke(new ErrorTask(weights, scale, false, 0, count));
+        return sums[0] / count;
+    }
+
+    /**
+     * Finds the sigmoid scale that best fits a set of weights, by narrowing a range around the lowest error
+     *
+     * @param weights a weights array
+     * @return the scale with the lowest error
+     */
+    public double fitScale(double[] weights) {
+        double low = 0.1;
+        double high = 4;
+        for (int i = 0; i < 40; i++) {
+            double lowThird = low + (high - low) / 3;
+            double highThird = high - (high - low) / 3;
+            if (error(weights, lowThird) < error(weights, highThird)) {
+                high = highThird;
+            } else {
+                low = lowThird;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    /**
+     * Lowers the error by gradient descent with Adam, which scales each weight's step by its own gradient history so
+     * rarely seen squares still move
+     *
+     * @param initial  the weights to start from, which are not changed
+     * @param scale    the sigmoid's scale
+     * @param epochs   how many passes to make
+     * @param progress called after each pass
+     * @return the tuned weights
+     */
+    public double[] tune(double[] initial, double scale, int epochs, Progress progress) {
+        var weights = initial.clone();
+        var averages = new double[weights.length];
+        var squares = new double[weights.length];
+        for (int epoch = 1; epoch <= epochs && count > 0; epoch++) {
+            var sums = pool.invoke(new ErrorTask(weights, scale, true, 0, count));
+            double correction1 = 1 - Math.pow(BETA1, epoch);
+            double correction2 = 1 - Math.pow(BETA2, epoch);
+            for (int i = 0; i < weights.length; i++) {
+                double gradient = sums[i] / count;
+                averages[i] = BETA1 * averages[i] + (1 - BETA1) * gradient;
+                squares[i] = BETA2 * squares[i] + (1 - BETA2) * gradient * gradient;
+                weights[i] -= LEARNING_RATE * (averages[i] / correction1) / (Math.sqrt(squares[i] / correction2) + 1e-8);
+            }
+            progress.epochFinished(epoch, sums[weights.length] / count);
+        }
+        return weights;
+    }
+
+    /**
+     * @param weights a weights array
+     * @return the weights rounded to whole centipawns and kept within {@link #WEIGHT_LIMIT}
+     */
+    public static int[] round(double[] weights) {
+        var rounded = new int[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            rounded[i] = (int) Math.max(-WEIGHT_LIMIT, Math.min(WEIGHT_LIMIT, Math.round(weights[i])));
+        }
+        return rounded;
+    }
+
+    /**
+     * @param weights a weights array
+     * @return the same weights as doubles, for tuning
+     */
+    public static double[] toDoubles(int[] weights) {
+        return Arrays.stream(weights).asDoubleStream().toArray();
+    }
+
+    /**
+     * Scores a loaded position the way {@link PieceSquareTables#taper} does, without rounding
+     *
+     * @param weights  a weights array
+     * @param position which loaded position
+     * @return the score in centipawns from white's point of view
+     */
+    private double evaluate(double[] weights, int position) {
+        double middlegame = 0;
+        double endgame = 0;
+        for (int i = starts[position]; i < starts[position + 1]; i++) {
+            int piece = pieces[i];
+            int entry = Math.abs(piece) - 1;
+            int type = entry / 64;
+            double middlegameValue = weights[PieceSquareTables.MIDDLEGAME_MATERIAL + type]
+                    + weights[PieceSquareTables.MIDDLEGAME_SQUARES + entry];
+            double endgameValue = weights[PieceSquareTables.ENDGAME_MATERIAL + type]
+                    + weights[PieceSquareTables.ENDGAME_SQUARES + entry];
+            middlegame += piece > 0 ? middlegameValue : -middlegameValue;
+            endgame += piece > 0 ? endgameValue : -endgameValue;
+        }
+        int phase = Math.min(phases[position], PieceSquareTables.MAX_PHASE);
+        return (middlegame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+    }
+
+    /**
+     * @param score a score in centipawns
+     * @param scale how sharply the score turns into a result
+     * @return the expected result for that score, from 0 to 1
+     */
+    private static double sigmoid(double score, double scale) {
+        return 1 / (1 + Math.pow(10, -scale * score / 400));
+    }
+
+    /**
+     * @param line a line of a position file
+     * @return the result it gives from white's point of view, or NaN if it has none
+     */
+    static double parseResult(String line) {
+        if (line.contains("1/2-1/2") || line.contains("[0.5]")) {
+            return 0.5;
+        } else if (line.contains("1-0") || line.contains("[1.0]") || line.contains("[1]")) {
+            return 1;
+        } else if (line.contains("0-1") || line.contains("[0.0]") || line.contains("[0]")) {
+            return 0;
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,238 @@
+package Engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size hash table of search results, shared safely by any number of search threads without locks.
+ * <p>
+ * Each entry is two longs in one flat array, so the table costs no objects and no garbage however full it gets.
+ * The second long packs the entry's data:
+ * <pre>
+ *   bits  0-15  best move, packed by {@link chessGameImpl.Move} without flags
+ *   bits 16-31  score, as a signed 16-bit number
+ *   bits 32-39  depth searched
+ *   bits 40-41  bound type, one of {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+ *   bits 42-49  generation, the search it was stored by
+ * </pre>
+ * The first long holds the position's key XORed with the data. Two threads writing the same slot at once can leave
+ * the key word from one write with the data word of the other, so a reader only trusts an entry when XORing its two
+ * words gives back the key it is looking for. A torn or mixed entry fails that check and reads as a miss.
+ */
+public class TranspositionTable {
+    /**
+     * The score is exact
+     */
+    public static final int EXACT = 1;
+
+    /**
+     * The score is a lower bound, because the search failed high
+     */
+    public static final int LOWER = 2;
+
+    /**
+     * The score is an upper bound, because the search failed low
+     */
+    public static final int UPPER = 3;
+
+    /**
+     * Each entry takes two longs
+     */
+    private static final int ENTRY_BYTES = 16;
+
+    /**
+     * How many entries to look at when estimating how full the table is
+     */
+    private static final int SAMPLE_SIZE = 1000;
+
+    /**
+     * The entries, each a key word followed by a data word
+     */
+    private final long[] table;
+
+    /**
+     * Mask that turns a key into an entry index
+     */
+    private final int mask;
+
+    /**
+     * The current search's generation, so entries left over from earlier searches can be replaced first
+     */
+    private volatile int generation;
+
+    /**
+     * How many lookups there have been
+     */
+    private final LongAdder probes = new LongAdder();
+
+    /**
+     * How many lookups found their position
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Constructor for a TranspositionTable
+     *
+     * @param megabytes how much memory the table may use. The entry count is rounded down to a power of two.
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes <= 0) {
+            throw new IllegalArgumentException("Table size must be at least 1 MB");
+        }
+        long entries = Long.highestOneBit((long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+        //A Java array holds fewer than 2^31 longs
+        entries = Math.min(entries, 1L << 29);
+        table = new long[(int) entries * 2];
+        mask = (int) entries - 1;
+    }
+
+    /**
+     * Looks up a position
+     *
+     * @param key the position's key
+     * @return the entry's data word, to be read with the static getters, or 0 if the position is not in the table
+     */
+    public long probe(long key) {
+        probes.increment();
+        int index = ((int) key & mask) << 1;
+        long data = table[index + 1];
+        if ((table[index] ^ data) != key || data == 0) {
+            return 0;
+        }
+        hits.increment();
+        return data;
+    }
+
+    /**
+     * Stores a search result. An entry for another position is only replaced if it was stored by an earlier search,
+     * or searched no deeper than this result.
+     *
+     * @param key   the position's key
+     * @param move  the best move found, or {@link chessGameImpl.Move#NONE}
+     * @param score the score, which must fit in 16 bits
+     * @param depth the depth searched
+     * @param bound which kind of bound the score is
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = ((int) key & mask) << 1;
+        long oldData = table[index + 1];
+        boolean samePosition = (table[index] ^ oldData) == key;
+        if (!samePosition && oldData != 0 && generation(oldData) == (generation & 0xFF) && depth(oldData) > depth) {
+            return;
+        }
+        //Keep the old best move rather than forgetting it, if this search did not find one
+        if (move == 0 && samePosition) {
+            move = move(oldData);
+        }
+
+        long data = (move & 0xFFFFL)
+                | (score & 0xFFFFL) << 16
+                | (long) (depth & 0xFF) << 32
+                | (long) bound << 40
+                | (long) (generation & 0xFF) << 42;
+        table[index] = key ^ data;
+        table[index + 1] = data;
+    }
+
+    /**
+     * Starts a new search, so the entries of earlier searches become the first to be replaced
+     */
+    public void newSearch() {
+        generation++;
+    }
+
+    /**
+     * Empties the table and resets its counters
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        probes.reset();
+        hits.reset();
+    }
+
+    /**
+     * @param data an entry's data word
+     * @return the entry's best move, or {@link chessGameImpl.Move#NONE}
+     */
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    /**
+     * @param data an entry's data word
+     * @return the entry's score
+     */
+    public static int score(long data) {
+        return (short) (data >>> 16);
+    }
+
+    /**
+     * @param data an entry's data word
+     * @return the depth the entry was searched to
+     */
+    public static int depth(long data) {
+        return (int) (data >>> 32 & 0xFF);
+    }
+
+    /**
+     * @param data an entry's data word
+     * @return the entry's bound type
+     */
+    public static int bound(long data) {
+        return (int) (data >>> 40 & 3);
+    }
+
+    /**
+     * @param data an entry's data word
+     * @return the generation of the search that stored the entry
+     */
+    private static int generation(long data) {
+        return (int) (data >>> 42 & 0xFF);
+    }
+
+    /**
+     * @return how many entries the table holds
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Estimates how full the table is from a sample of entries at its start
+     *
+     * @return the fraction of entries in use, from 0 to 1
+     */
+    public double fillRate() {
+        int sample = Math.min(SAMPLE_SIZE, capacity());
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            if (table[i * 2 + 1] != 0) {
+                used++;
+            }
+        }
+        return (double) used / sample;
+    }
+
+    /**
+     * @return how many lookups there have been
+     */
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    /**
+     * @return how many lookups found their position
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the fraction of lookups that found their position, from 0 to 1
+     */
+    public double hitRate() {
+        long probeCount = getProbes();
+        return probeCount == 0 ? 0 : (double) getHits() / probeCount;
+    }
+}
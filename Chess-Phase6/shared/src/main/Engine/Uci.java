@@ -0,0 +1,499 @@
+package Engine;
+
+import Benchmarks.Perft;
+import chess.ChessGame;
+import chessGameImpl.CGame;
+import chessGameImpl.Fen;
+import chessGameImpl.Move;
+import chessGameImpl.MoveList;
+import chessGameImpl.PieceSquareTables;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Speaks the UCI protocol over stdin and stdout, so the engine can be run from standard chess GUIs, match runners
+ * and debugging tools. Commands are read on the calling thread and searches run on a thread of their own, which
+ * keeps "stop" and "isready" answered while the engine is thinking. Commands that need the engine to themselves, like
+ * go, setoption and ucinewgame, stop the running search first, so it gives its best move before they run.
+ * <p>
+ * Supported commands are uci, isready, ucinewgame, setoption (Hash and Threads), position, go (depth, movetime,
+ * nodes, wtime/btime/winc/binc/movestogo, infinite and perft), stop and quit, plus "perft depth" as a shortcut for
+ * "go perft depth". The transposition table is only allocated once the GUI first asks for it with isready or go, so
+ * the engine answers "uci" straight away. Castling and en passant are not part of this ruleset, so moves using them
+ * are rejected like any other illegal move.
+ */
+public class Uci {
+    /**
+     * The name the engine gives itself
+     */
+    public static final String NAME = "CS240 Chess";
+
+    /**
+     * The most memory the Hash option allows, in megabytes
+     */
+    private static final int MAX_HASH_MB = 1024;
+
+    /**
+     * How many moves are assumed to be left when the GUI does not say
+     */
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    /**
+     * Time kept back each move for the GUI and the operating system, in milliseconds
+     */
+    private static final long MOVE_OVERHEAD = 30;
+
+    /**
+     * Where engine output goes
+     */
+    private final PrintStream out;
+
+    /**
+     * Runs the searches, so the command loop never blocks on one
+     */
+    private final ExecutorService searchThread = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "uci-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The position set by the last position command
+     */
+    private CGame game = new CGame(CGame.BoardType.BITBOARD);
+
+    /**
+     * The search, created the first time it is needed
+     */
+    private ParallelSearch search;
+
+    /**
+     * The Hash option, in megabytes
+     */
+    private int hashMb = Search.DEFAULT_TABLE_MB;
+
+    /**
+     * The Threads option
+     */
+    private int threads = 1;
+
+    /**
+     * The running search or perft, or null if there has not been one
+     */
+    private Future<?> running;
+
+    /**
+     * Released by stop. An infinite search that finishes early waits for it before giving its best move, and a search
+     * checks it after each iteration in case the stop came before the search had started.
+     */
+    private volatile CountDownLatch stopSignal = new CountDownLatch(0);
+
+    /**
+     * Constructor for a Uci
+     *
+     * @param out where to write engine output
+     */
+    public Uci(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Entry point for the UCI engine
+     *
+     * @param args optionally a weights file from {@link TexelTuner} to evaluate with
+     * @throws IOException if stdin cannot be read, or the weights file cannot be loaded
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0) {
+            PieceSquareTables.load(Path.of(args[0]));
+        }
+        new Uci(System.out).run(new BufferedReader(new InputStreamReader(System.in)));
+    }
+
+    /**
+     * Handles commands until quit or the end of the input
+     *
+     * @param in where commands come from, one per line
+     * @throws IOException if the input cannot be read
+     */
+    public void run(BufferedReader in) throws IOException {
+        try {
+            var line = in.readLine();
+            while (line != null && handle(line)) {
+                line = in.readLine();
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Handles one command. Unknown commands are reported and otherwise ignored.
+     *
+     * @param line the command
+     * @return false once the engine should quit
+     */
+    public boolean handle(String line) {
+        var tokens = line.trim().split("\\s+");
+        switch (tokens[0]) {
+            case "" -> {
+            }
+            case "uci" -> {
+                send("id name " + NAME);
+                send("id author CS240");
+                send("option name Hash type spin default " + Search.DEFAULT_TABLE_MB + " min 1 max " + MAX_HASH_MB);
+                send("option name Threads type spin default 1 min 1 max "
+                        + Runtime.getRuntime().availableProcessors());
+                send("uciok");
+            }
+            case "isready" -> {
+                engine();
+                send("readyok");
+            }
+            case "ucinewgame" -> {
+                stopSearch();
+                engine().getTable().clear();
+                game = new CGame(CGame.BoardType.BITBOARD);
+            }
+            case "setoption" -> setOption(tokens);
+            case "position" -> position(tokens);
+            case "go" -> go(tokens);
+            case "perft" -> startPerft(tokens, 1);
+            case "stop" -> stop();
+            case "quit" -> {
+                stop();
+                return false;
+            }
+            default -> send("info string Unknown command: " + line.trim());
+        }
+        return true;
+    }
+
+    /**
+     * Waits for the running search to give its best move, for callers that need it done
+     */
+    public void waitForSearch() {
+        if (running == null) {
+            return;
+        }
+        try {
+            running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            send("info string Search failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops any search and the search thread. The Uci cannot be used afterwards.
+     */
+    public void close() {
+        stop();
+        searchThread.shutdownNow();
+        if (search != null) {
+            search.close();
+        }
+    }
+
+    /**
+     * Handles "setoption name X value Y"
+     *
+     * @param tokens the command, split on spaces
+     */
+    private void setOption(String[] tokens) {
+        int name = indexOf(tokens, "name");
+        int value = indexOf(tokens, "value");
+        if (name < 0 || value < 0 || value + 1 >= tokens.length) {
+            send("info string Expected setoption name <id> value <x>");
+            return;
+        }
+        var option = String.join(" ", Arrays.copyOfRange(tokens, name + 1, value));
+        try {
+            int number = Integer.parseInt(tokens[value + 1]);
+            stopSearch();
+            if (option.equalsIgnoreCase("Hash")) {
+                hashMb = Math.max(1, Math.min(number, MAX_HASH_MB));
+            } else if (option.equalsIgnoreCase("Threads")) {
+                threads = Math.max(1, Math.min(number, Runtime.getRuntime().availableProcessors()));
+            } else {
+                send("info string Unknown option: " + option);
+                return;
+            }
+        } catch (NumberFormatException e) {
+            send("info string Expected a number for " + option);
+            return;
+        }
+        //Built again with the new settings when next needed
+        if (search != null) {
+            search.close();
+            search = null;
+        }
+    }
+
+    /**
+     * Handles "position [startpos | fen FEN] [moves m1 m2 ...]"
+     *
+     * @param tokens the command, split on spaces
+     */
+    private void position(String[] tokens) {
+        int moves = indexOf(tokens, "moves");
+        int end = moves < 0 ? tokens.length : moves;
+        CGame position;
+        try {
+            if (tokens.length > 1 && tokens[1].equals("fen")) {
+                position = Fen.parse(String.join(" ", Arrays.copyOfRange(tokens, 2, end)), CGame.BoardType.BITBOARD);
+            } else {
+                position = new CGame(CGame.BoardType.BITBOARD);
+            }
+        } catch (IllegalArgumentException e) {
+            send("info string Bad position: " + e.getMessage());
+            return;
+        }
+
+        var legal = new MoveList();
+        for (int i = end + 1; i < tokens.length; i++) {
+            int move = findMove(position, tokens[i], legal);
+            if (move == Move.NONE) {
+                send("info string Illegal move: " + tokens[i]);
+                return;
+            }
+            position.doMove(move);
+        }
+        game = position;
+    }
+
+    /**
+     * Handles "go" by starting a search, or a perft if asked for one
+     *
+     * @param tokens the command, split on spaces
+     */
+    private void go(String[] tokens) {
+        if (tokens.length > 1 && tokens[1].equals("perft")) {
+            startPerft(tokens, 2);
+            return;
+        }
+        stopSearch();
+
+        int depth = Search.MAX_PLY - 1;
+        long moveTime = 0;
+        long nodes = 0;
+        long remaining = -1;
+        long increment = 0;
+        int movesToGo = DEFAULT_MOVES_TO_GO;
+        boolean infinite = false;
+        boolean white = game.getTeamTurn() == ChessGame.TeamColor.WHITE;
+        try {
+            for (int i = 1; i < tokens.length; i++) {
+                switch (tokens[i]) {
+                    case "depth" -> depth = Integer.parseInt(tokens[++i]);
+                    case "movetime" -> moveTime = Long.parseLong(tokens[++i]);
+                    case "nodes" -> nodes = Long.parseLong(tokens[++i]);
+                    case "wtime", "btime" -> {
+                        long time = Long.parseLong(tokens[++i]);
+                        if (tokens[i - 1].equals(white ? "wtime" : "btime")) {
+                            remaining = time;
+                        }
+                    }
+                    case "winc", "binc" -> {
+                        long time = Long.parseLong(tokens[++i]);
+                        if (tokens[i - 1].equals(white ? "winc" : "binc")) {
+                            increment = time;
+                        }
+                    }
+                    case "movestogo" -> movesToGo = Math.max(1, Integer.parseInt(tokens[++i]));
+                    case "infinite" -> infinite = true;
+                    default -> {
+                        //Options like ponder and searchmoves are not supported and are ignored
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            send("info string Bad go command");
+            return;
+        }
+        if (moveTime == 0 && remaining >= 0 && !infinite) {
+            moveTime = allotTime(remaining, increment, movesToGo);
+        }
+
+        var limits = new SearchLimits(depth, infinite ? 0 : moveTime, infinite ? 0 : nodes);
+        var engine = engine();
+        var position = game.copy();
+        var signal = new CountDownLatch(1);
+        stopSignal = signal;
+        boolean waitForStop = infinite;
+        long start = System.nanoTime();
+        running = searchThread.submit(() -> {
+            var result = engine.search(position, limits, info -> {
+                send(formatInfo(info, engine));
+                //A stop sent before the search started is cleared when it starts, so it is passed on again here
+                if (signal.getCount() == 0) {
+                    engine.stop();
+                }
+            });
+            if (waitForStop) {
+                try {
+                    signal.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (result.depth() == 0) {
+                //No iteration finished, so report the nodes and time spent anyway
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                send("info depth 0 nodes " + engine.getNodes() + " time " + millis);
+            }
+            int move = result.bestMove();
+            send("bestmove " + (move == Move.NONE ? "0000" : Move.toString(move)));
+        });
+    }
+
+    /**
+     * Starts a perft on the current position, printing the count under each root move and then the total
+     *
+     * @param tokens the command, split on spaces
+     * @param index  where the depth is in the command
+     */
+    private void startPerft(String[] tokens, int index) {
+        int depth;
+        try {
+            depth = Integer.parseInt(tokens[index]);
+        } catch (RuntimeException e) {
+            send("info string Expected a perft depth");
+            return;
+        }
+        stopSearch();
+        var position = game.copy();
+        running = searchThread.submit(() -> {
+            long start = System.nanoTime();
+            long total = 0;
+            if (depth > 0) {
+                for (var entry : Perft.divide(position, depth).entrySet()) {
+                    send(entry.getKey() + ": " + entry.getValue());
+                    total += entry.getValue();
+                }
+            } else {
+                total = 1;
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            send("");
+            send("Nodes searched: " + total);
+            send("info string perft " + depth + " took " + millis + " ms, "
+                    + total * 1000 / Math.max(millis, 1) + " nodes/sec");
+        });
+    }
+
+    /**
+     * Stops the running search and waits for it to give its best move
+     */
+    private void stopSearch() {
+        stop();
+        waitForSearch();
+    }
+
+    /**
+     * Stops the running search, which then gives its best move
+     */
+    private void stop() {
+        if (search != null) {
+            search.stop();
+        }
+        stopSignal.countDown();
+    }
+
+    /**
+     * @return the search, created with the current options if there is none
+     */
+    private ParallelSearch engine() {
+        if (search == null) {
+            search = new ParallelSearch(threads, new TranspositionTable(hashMb), PieceSquareEvaluator::new);
+        }
+        return search;
+    }
+
+    /**
+     * Splits the clock evenly over the moves left, plus most of the increment
+     *
+     * @param remaining the time left on the clock, in milliseconds
+     * @param increment the time added each move, in milliseconds
+     * @param movesToGo how many moves are left until the next time control
+     * @return how long to search this move, in milliseconds
+     */
+    static long allotTime(long remaining, long increment, int movesToGo) {
+        long budget = remaining / movesToGo + increment * 3 / 4;
+        long safe = Math.max(remaining - MOVE_OVERHEAD, 1);
+        return Math.max(1, Math.min(budget, safe));
+    }
+
+    /**
+     * @param info   a finished iteration
+     * @param engine the search whose table to report on
+     * @return the iteration as a UCI info line
+     */
+    private static String formatInfo(SearchInfo info, ParallelSearch engine) {
+        var line = new StringBuilder("info depth ").append(info.depth());
+        line.append(info.isMate() ? " score mate " + info.mateIn() : " score cp " + info.score());
+        line.append(" nodes ").append(info.nodes()).append(" nps ").append(info.nodesPerSecond());
+        line.append(" hashfull ").append(Math.round(engine.getTable().fillRate() * 1000));
+        line.append(" time ").append(info.millis());
+        if (info.pv().length > 0) {
+            line.append(" pv");
+            for (int move : info.pv()) {
+                line.append(' ').append(Move.toString(move));
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * @param game  the position
+     * @param text  a move written like e2e4 or a7a8q
+     * @param legal a list to generate the legal moves into
+     * @return the packed legal move, or {@link Move#NONE} if there is no such legal move
+     */
+    private static int findMove(CGame game, String text, MoveList legal) {
+        legal.clear();
+        game.legalMoves(legal);
+        for (int i = 0; i < legal.size(); i++) {
+            if (Move.toString(legal.get(i)).equals(text)) {
+                return legal.get(i);
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * @param tokens a command, split on spaces
+     * @param token  the word to find
+     * @return where the word first appears, or -1 if it does not
+     */
+    private static int indexOf(String[] tokens, String token) {
+        for (int i = 0; i < tokens.length; i++) {
+            if (tokens[i].equals(token)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes a line and flushes it straight away, since the GUI waits on each one
+     *
+     * @param line the line to write
+     */
+    private void send(String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package Models;
+
+/**
+ * The computer opponents a game can seat. A bot sits in a game under its username, which no player can register,
+ * and each level has its own budget for how long and how deep it may think per move.
+ */
+public enum Bot {
+    EASY(200, 3),
+    MEDIUM(1000, 6),
+    HARD(3000, 64);
+
+    /**
+     * The most time the bot may think per move, in milliseconds
+     */
+    private final long timeMillis;
+
+    /**
+     * The deepest the bot may search per move, in plies
+     */
+    private final int depth;
+
+    /**
+     * Constructor for a Bot
+     *
+     * @param timeMillis the most time the bot may think per move, in milliseconds
+     * @param depth      the deepest the bot may search per move, in plies
+     */
+    Bot(long timeMillis, int depth) {
+        this.timeMillis = timeMillis;
+        this.depth = depth;
+    }
+
+    /**
+     * Finds the bot a username belongs to
+     *
+     * @param username a username, which may be null
+     * @return the bot, or null if the username is not a bot's
+     */
+    public static Bot fromUsername(String username) {
+        for (var bot : values()) {
+            if (bot.getUsername().equals(username)) {
+                return bot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds a bot by its level name, ignoring case
+     *
+     * @param level a level name like "easy"
+     * @return the bot, or null if there is no such level
+     */
+    public static Bot fromLevel(String level) {
+        for (var bot : values()) {
+            if (bot.name().equalsIgnoreCase(level)) {
+                return bot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the name the bot plays under
+     */
+    public String getUsername() {
+        return "Computer (" + name().toLowerCase() + ")";
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+}
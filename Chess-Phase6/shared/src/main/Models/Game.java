@@ -171,6 +171,31 @@ public class Game {
         return Objects.hash(gameID);
     }
 
+    /**
+     * Finds the bot seated as one of the players.
+     * @param color the color to check
+     * @return the bot playing that color, or null if a person is playing it or the seat is empty
+     */
+    public Bot getBot(ChessGame.TeamColor color) {
+        if (color == ChessGame.TeamColor.WHITE) {
+            return Bot.fromUsername(whiteUsername);
+        } else if (color == ChessGame.TeamColor.BLACK) {
+            return Bot.fromUsername(blackUsername);
+        }
+        return null;
+    }
+
+    /**
+     * Finds the bot whose turn it is.
+     * @return the bot to move, or null if it is not a bot's turn or the game is over
+     */
+    public Bot getBotToMove() {
+        if (getGame() == null) {
+            return null;
+        }
+        return getBot(getGame().getTeamTurn());
+    }
+
     /**
      * Checks if the game is over.
      * @return true if the game is over, false otherwise
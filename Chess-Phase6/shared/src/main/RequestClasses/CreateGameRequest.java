@@ -13,6 +13,16 @@ public class CreateGameRequest extends Request {
      */
     private String gameName;
 
+    /**
+     * The level of the computer opponent to seat, like "easy", or null for a game between players.
+     */
+    private String botLevel;
+
+    /**
+     * The color the computer opponent plays, "WHITE" or "BLACK". Defaults to black.
+     */
+    private String botColor;
+
     /**
      * Constructs a new CreateGameRequest object with no authentication token.
      */
@@ -30,6 +40,19 @@ public class CreateGameRequest extends Request {
         this.gameName = gameName;
     }
 
+    /**
+     * Constructs a new CreateGameRequest object for a game against a computer opponent.
+     * @param authToken the authentication token to use for the request
+     * @param gameName the name of the game
+     * @param botLevel the level of the computer opponent, like "easy"
+     * @param botColor the color the computer opponent plays, "WHITE" or "BLACK"
+     */
+    public CreateGameRequest(AuthToken authToken, String gameName, String botLevel, String botColor) {
+        this(authToken, gameName);
+        this.botLevel = botLevel;
+        this.botColor = botColor;
+    }
+
     public String getGameName() {
         return gameName;
     }
@@ -37,4 +60,20 @@ public class CreateGameRequest extends Request {
     public void setGameName(String gameName) {
         this.gameName = gameName;
     }
+
+    public String getBotLevel() {
+        return botLevel;
+    }
+
+    public void setBotLevel(String botLevel) {
+        this.botLevel = botLevel;
+    }
+
+    public String getBotColor() {
+        return botColor;
+    }
+
+    public void setBotColor(String botColor) {
+        this.botColor = botColor;
+    }
 }
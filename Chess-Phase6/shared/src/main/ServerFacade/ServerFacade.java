@@ -107,6 +107,20 @@ public class ServerFacade {
         return makeRequest("POST", "/game", request, CreateGameResult.class, authToken);
     }
 
+    /**
+     * Creates a new game against a computer opponent.
+     * @param authToken The auth token of the user.
+     * @param gameName The name of the game.
+     * @param botLevel The level of the computer opponent, like "easy".
+     * @param botColor The color the computer opponent plays, "WHITE" or "BLACK".
+     * @return a CreateGameResult object containing the game ID.
+     * @throws ResponseException if there is an error
+     */
+    public CreateGameResult createGame(AuthToken authToken, String gameName, String botLevel, String botColor) throws ResponseException {
+        var request = new RequestClasses.CreateGameRequest(authToken, gameName, botLevel, botColor);
+        return makeRequest("POST", "/game", request, CreateGameResult.class, authToken);
+    }
+
     /**
      * Makes the request to the server and returns the response.
      * @param method The HTTP method to use.
@@ -0,0 +1,391 @@
+package chessGameImpl;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed attack tables shared by every move generator and check detector.
+ * Knight, king and pawn attacks are a single table lookup per square. Rook and bishop attacks use magic bitboards:
+ * the blockers on a slider's lines are masked out of the occupancy, multiplied by a per-square magic number and
+ * shifted down to an index into a table of attack sets. Every table is built once when the class loads.
+ * Squares use the BitBoard numbering, where a1 is 0 and h8 is 63.
+ */
+public final class Attacks {
+    /**
+     * Squares a knight attacks from each square
+     */
+    private static final long[] KNIGHT = new long[64];
+
+    /**
+     * Squares a king attacks from each square
+     */
+    private static final long[] KING = new long[64];
+
+    /**
+     * Squares a pawn attacks from each square, for white (0) and black (1)
+     */
+    private static final long[][] PAWN = new long[2][64];
+
+    /**
+     * Relevant blocker squares for a rook on each square (its lines without the board edge)
+     */
+    private static final long[] ROOK_MASKS = new long[64];
+
+    /**
+     * Relevant blocker squares for a bishop on each square (its diagonals without the board edge)
+     */
+    private static final long[] BISHOP_MASKS = new long[64];
+
+    /**
+     * Magic multipliers for rooks
+     */
+    private static final long[] ROOK_MAGICS = new long[64];
+
+    /**
+     * Magic multipliers for bishops
+     */
+    private static final long[] BISHOP_MAGICS = new long[64];
+
+    /**
+     * Right shift applied to the magic product for rooks, 64 minus the number of relevant blockers
+     */
+    private static final int[] ROOK_SHIFTS = new int[64];
+
+    /**
+     * Right shift applied to the magic product for bishops, 64 minus the number of relevant blockers
+     */
+    private static final int[] BISHOP_SHIFTS = new int[64];
+
+    /**
+     * Attack sets for rooks on each square, indexed by magic index
+     */
+    private static final long[][] ROOK_TABLE = new long[64][];
+
+    /**
+     * Attack sets for bishops on each square, indexed by magic index
+     */
+    private static final long[][] BISHOP_TABLE = new long[64][];
+
+    /**
+     * Row and column steps for rooks
+     */
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    /**
+     * Row and column steps for bishops
+     */
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    /**
+     * Squares strictly between two squares on a shared row, column or diagonal, or nothing if they share none
+     */
+    private static final long[][] BETWEEN = new long[64][64];
+
+    /**
+     * The whole row, column or diagonal through two squares, including both, or nothing if they share none
+     */
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        int[][] knightSteps = {{2, 1}, {2, -1}, {-2, 1}, {-2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}};
+        int[][] kingSteps = {{1, 1}, {1, 0}, {1, -1}, {0, 1}, {0, -1}, {-1, 1}, {-1, 0}, {-1, -1}};
+        for (int sq = 0; sq < 64; sq++) {
+            KNIGHT[sq] = stepAttacks(sq, knightSteps);
+            KING[sq] = stepAttacks(sq, kingSteps);
+            PAWN[0][sq] = stepAttacks(sq, new int[][]{{1, 1}, {1, -1}});
+            PAWN[1][sq] = stepAttacks(sq, new int[][]{{-1, 1}, {-1, -1}});
+        }
+
+        for (int sq = 0; sq < 64; sq++) {
+            for (int[][] directions : new int[][][]{ROOK_DIRECTIONS, BISHOP_DIRECTIONS}) {
+                for (int[] direction : directions) {
+                    long line = slidingAttacks(sq, 0, new int[][]{direction, {-direction[0], -direction[1]}}) | 1L << sq;
+                    long between = 0;
+                    int r = sq / 8 + direction[0];
+                    int c = sq % 8 + direction[1];
+                    while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                        BETWEEN[sq][r * 8 + c] = between;
+                        LINE[sq][r * 8 + c] = line;
+                        between |= 1L << (r * 8 + c);
+                        r += direction[0];
+                        c += direction[1];
+                    }
+                }
+            }
+        }
+
+        //A fixed seed keeps the magics, and so the table layout, the same on every run
+        long[] seed = {0x2545F4914F6CDD1DL};
+        for (int sq = 0; sq < 64; sq++) {
+            ROOK_MASKS[sq] = relevantMask(sq, ROOK_DIRECTIONS);
+            ROOK_SHIFTS[sq] = 64 - Long.bitCount(ROOK_MASKS[sq]);
+            ROOK_TABLE[sq] = new long[1 << Long.bitCount(ROOK_MASKS[sq])];
+            ROOK_MAGICS[sq] = findMagic(sq, ROOK_MASKS[sq], ROOK_SHIFTS[sq], ROOK_DIRECTIONS, ROOK_TABLE[sq], seed);
+
+            BISHOP_MASKS[sq] = relevantMask(sq, BISHOP_DIRECTIONS);
+            BISHOP_SHIFTS[sq] = 64 - Long.bitCount(BISHOP_MASKS[sq]);
+            BISHOP_TABLE[sq] = new long[1 << Long.bitCount(BISHOP_MASKS[sq])];
+            BISHOP_MAGICS[sq] = findMagic(sq, BISHOP_MASKS[sq], BISHOP_SHIFTS[sq], BISHOP_DIRECTIONS, BISHOP_TABLE[sq], seed);
+        }
+    }
+
+    /**
+     * Not instantiable, every table is static
+     */
+    private Attacks() {
+    }
+
+    /**
+     * @param sq the knight's square
+     * @return the squares a knight attacks
+     */
+    public static long knight(int sq) {
+        return KNIGHT[sq];
+    }
+
+    /**
+     * @param sq the king's square
+     * @return the squares a king attacks
+     */
+    public static long king(int sq) {
+        return KING[sq];
+    }
+
+    /**
+     * @param color the pawn's team
+     * @param sq    the pawn's square
+     * @return the squares a pawn attacks diagonally
+     */
+    public static long pawn(ChessGame.TeamColor color, int sq) {
+        return PAWN[color == ChessGame.TeamColor.WHITE ? 0 : 1][sq];
+    }
+
+    /**
+     * @param sq       the rook's square
+     * @param occupied every occupied square
+     * @return the squares a rook attacks, including the first blocker in each direction
+     */
+    public static long rook(int sq, long occupied) {
+        return ROOK_TABLE[sq][(int) (((occupied & ROOK_MASKS[sq]) * ROOK_MAGICS[sq]) >>> ROOK_SHIFTS[sq])];
+    }
+
+    /**
+     * @param sq       the bishop's square
+     * @param occupied every occupied square
+     * @return the squares a bishop attacks, including the first blocker in each direction
+     */
+    public static long bishop(int sq, long occupied) {
+        return BISHOP_TABLE[sq][(int) (((occupied & BISHOP_MASKS[sq]) * BISHOP_MAGICS[sq]) >>> BISHOP_SHIFTS[sq])];
+    }
+
+    /**
+     * @param sq       the queen's square
+     * @param occupied every occupied square
+     * @return the squares a queen attacks, including the first blocker in each direction
+     */
+    public static long queen(int sq, long occupied) {
+        return rook(sq, occupied) | bishop(sq, occupied);
+    }
+
+    /**
+     * @param from one square
+     * @param to   another square
+     * @return the squares strictly between them on their shared row, column or diagonal, or 0 if they share none
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * @param from one square
+     * @param to   another square
+     * @return every square on their shared row, column or diagonal, edge to edge, or 0 if they share none
+     */
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    /**
+     * Gets the squares a piece attacks
+     *
+     * @param type     the piece's type
+     * @param color    the piece's team, which only matters for pawns
+     * @param sq       the piece's square
+     * @param occupied every occupied square
+     * @return the squares the piece attacks
+     */
+    public static long attacks(ChessPiece.PieceType type, ChessGame.TeamColor color, int sq, long occupied) {
+        return switch (type) {
+            case KING -> king(sq);
+            case QUEEN -> queen(sq, occupied);
+            case BISHOP -> bishop(sq, occupied);
+            case KNIGHT -> knight(sq);
+            case ROOK -> rook(sq, occupied);
+            case PAWN -> pawn(color, sq);
+        };
+    }
+
+    /**
+     * Determines if a square is attacked by a team, by looking outward from the square with each piece's attacks
+     *
+     * @param board    the board to look at
+     * @param sq       the square that might be attacked
+     * @param attacker the team that might be attacking
+     * @return True if any piece of the attacking team attacks the square
+     */
+    public static boolean isAttacked(BitBoard board, int sq, ChessGame.TeamColor attacker) {
+        return attackersOf(board, sq, attacker, board.getOccupied()) != 0;
+    }
+
+    /**
+     * Finds every piece of a team that attacks a square
+     *
+     * @param board    the board to look at
+     * @param sq       the square that might be attacked
+     * @param attacker the team that might be attacking
+     * @param occupied the occupancy to slide through, which may differ from the board's
+     * @return the squares of the attacking pieces
+     */
+    public static long attackersOf(BitBoard board, int sq, ChessGame.TeamColor attacker, long occupied) {
+        var defender = attacker == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long queens = board.getPieces(attacker, ChessPiece.PieceType.QUEEN);
+        return (knight(sq) & board.getPieces(attacker, ChessPiece.PieceType.KNIGHT))
+                | (king(sq) & board.getPieces(attacker, ChessPiece.PieceType.KING))
+                | (pawn(defender, sq) & board.getPieces(attacker, ChessPiece.PieceType.PAWN))
+                | (bishop(sq, occupied) & (board.getPieces(attacker, ChessPiece.PieceType.BISHOP) | queens))
+                | (rook(sq, occupied) & (board.getPieces(attacker, ChessPiece.PieceType.ROOK) | queens));
+    }
+
+    /**
+     * Builds the attack set for a piece that moves by fixed steps
+     *
+     * @param sq    the piece's square
+     * @param steps the row and column steps it can make
+     * @return the squares it attacks
+     */
+    private static long stepAttacks(int sq, int[][] steps) {
+        long attacks = 0;
+        int row = sq / 8;
+        int col = sq % 8;
+        for (int[] step : steps) {
+            int r = row + step[0];
+            int c = col + step[1];
+            if (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                attacks |= 1L << (r * 8 + c);
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Walks a slider's lines square by square. Only used to fill the tables.
+     *
+     * @param sq         the slider's square
+     * @param occupied   the blockers
+     * @param directions the row and column steps it slides in
+     * @return the squares it attacks, including the first blocker in each direction
+     */
+    private static long slidingAttacks(int sq, long occupied, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int r = sq / 8 + direction[0];
+            int c = sq % 8 + direction[1];
+            while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                long bit = 1L << (r * 8 + c);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Finds the squares whose occupancy can change a slider's attacks. The last square on each line never blocks
+     * anything behind it, so it is left out.
+     *
+     * @param sq         the slider's square
+     * @param directions the row and column steps it slides in
+     * @return the relevant blocker squares
+     */
+    private static long relevantMask(int sq, int[][] directions) {
+        long mask = 0;
+        for (int[] direction : directions) {
+            int r = sq / 8 + direction[0];
+            int c = sq % 8 + direction[1];
+            while (r + direction[0] >= 0 && r + direction[0] < 8 && c + direction[1] >= 0 && c + direction[1] < 8) {
+                mask |= 1L << (r * 8 + c);
+                r += direction[0];
+                c += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Searches for a magic number that maps every blocker subset of a mask to a table slot without two subsets
+     * with different attacks landing in the same slot, and fills the table with it
+     *
+     * @param sq         the slider's square
+     * @param mask       the relevant blocker squares
+     * @param shift      64 minus the number of relevant blocker squares
+     * @param directions the row and column steps it slides in
+     * @param table      the attack table to fill
+     * @param seed       random number generator state, updated in place
+     * @return the magic number
+     */
+    private static long findMagic(int sq, long mask, int shift, int[][] directions, long[] table, long[] seed) {
+        int size = 1 << Long.bitCount(mask);
+        long[] blockers = new long[size];
+        long[] attacks = new long[size];
+
+        //Enumerate every subset of the mask
+        long subset = 0;
+        for (int i = 0; i < size; i++) {
+            blockers[i] = subset;
+            attacks[i] = slidingAttacks(sq, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+
+        while (true) {
+            //Magics with few set bits work far more often
+            long magic = nextRandom(seed) & nextRandom(seed) & nextRandom(seed);
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                continue;
+            }
+            Arrays.fill(table, 0L);
+            boolean collision = false;
+            for (int i = 0; i < size && !collision; i++) {
+                int index = (int) ((blockers[i] * magic) >>> shift);
+                if (table[index] == 0) {
+                    table[index] = attacks[i];
+                } else if (table[index] != attacks[i]) {
+                    collision = true;
+                }
+            }
+            if (!collision) {
+                return magic;
+            }
+        }
+    }
+
+    /**
+     * Xorshift random number generator
+     *
+     * @param seed the generator state, updated in place
+     * @return the next random number
+     */
+    private static long nextRandom(long[] seed) {
+        long x = seed[0];
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        seed[0] = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+}
@@ -0,0 +1,491 @@
+package chessGameImpl;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.util.Arrays;
+
+/**
+ * BitBoard class implements the ChessBoard interface using one 64-bit occupancy mask per piece type and color.
+ * Square 0 is a1 (row 1, column 1) and square 63 is h8 (row 8, column 8), so a square index is (row-1)*8 + (column-1).
+ * Aggregate masks for each team and for the whole board are kept alongside the twelve piece masks so lookups,
+ * copies and move generation are a handful of word operations.
+ */
+public class BitBoard implements chess.ChessBoard {
+    /**
+     * Told about every piece put on or taken off the board, so an evaluator can keep its own running state the way
+     * the board keeps its key and score
+     */
+    public interface PieceListener {
+        /**
+         * @param index the piece index put on the board
+         * @param sq    the square it was put on
+         */
+        void pieceAdded(int index, int sq);
+
+        /**
+         * @param index the piece index taken off the board
+         * @param sq    the square it was taken from
+         */
+        void pieceRemoved(int index, int sq);
+    }
+
+    /**
+     * One occupancy mask per piece, indexed by {@link #pieceIndex(ChessGame.TeamColor, ChessPiece.PieceType)}
+     */
+    private final long[] pieces = new long[12];
+
+    /**
+     * Every square occupied by a white piece
+     */
+    private long white;
+
+    /**
+     * Every square occupied by a black piece
+     */
+    private long black;
+
+    /**
+     * Every occupied square
+     */
+    private long occupied;
+
+    /**
+     * The Zobrist key of the pieces on the board, updated whenever a bit is set or cleared
+     */
+    private transient long key;
+
+    /**
+     * The packed material and piece-square score of the pieces on the board, see {@link PieceSquareTables}
+     */
+    private transient int score;
+
+    /**
+     * The game phase of the pieces on the board, see {@link PieceSquareTables}
+     */
+    private transient int phase;
+
+    /**
+     * Told about each piece added or removed, or null. Not copied with the board.
+     */
+    private transient PieceListener listener;
+
+    /**
+     * Constructor for the BitBoard class. Initializes an empty board.
+     */
+    public BitBoard() {
+    }
+
+    /**
+     * Creates a BitBoard holding the same pieces as any other ChessBoard
+     *
+     * @param board the board to convert
+     * @return a new BitBoard with the same position
+     */
+    public static BitBoard from(ChessBoard board) {
+        if (board instanceof BitBoard bitBoard) {
+            return bitBoard.copy();
+        }
+        var bitBoard = new BitBoard();
+        for (int sq = 0; sq < 64; sq++) {
+            var piece = board.getPiece(CPosition.of(sq));
+            if (piece != null) {
+                bitBoard.set(sq, pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+            }
+        }
+        return bitBoard;
+    }
+
+    /**
+     * Gets a BitBoard view of any ChessBoard, for code that works on occupancy masks
+     *
+     * @param board the board to look at
+     * @return the board itself if it is a BitBoard, otherwise a BitBoard copy of it
+     */
+    public static BitBoard asBitBoard(ChessBoard board) {
+        return board instanceof BitBoard bitBoard ? bitBoard : from(board);
+    }
+
+    /**
+     * @param index a piece index
+     * @return the shared instance of that piece
+     */
+    public static ChessPiece piece(int index) {
+        return CPiece.of(index);
+    }
+
+    /**
+     * @param color the color of the piece
+     * @param type  the type of the piece
+     * @return the index of the piece's occupancy mask
+     */
+    public static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return (color == ChessGame.TeamColor.WHITE ? 0 : 6) + type.ordinal();
+    }
+
+    /**
+     * @param position a position on the board
+     * @return the square index of the position
+     */
+    public static int square(ChessPosition position) {
+        return (position.getRow() - 1) * 8 + position.getColumn() - 1;
+    }
+
+    /**
+     * @param position a position, which may be off the board
+     * @return true if the position is on the board. Positions off it must not be passed to {@link #square}, which
+     * would wrap them onto another square.
+     */
+    public static boolean onBoard(ChessPosition position) {
+        return position.getRow() >= 1 && position.getRow() <= 8 && position.getColumn() >= 1 && position.getColumn() <= 8;
+    }
+
+    /**
+     * Adds a chess piece to the chessboard, replacing whatever was there
+     *
+     * @param position where to add the piece to
+     * @param piece    the piece to add
+     */
+    @Override
+    public void addPiece(ChessPosition position, ChessPiece piece) {
+        int sq = square(position);
+        clear(sq);
+        set(sq, pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+    }
+
+    /**
+     * Gets a chess piece on the chessboard
+     *
+     * @param position The position to get the piece from
+     * @return Either the piece at the position, or null if no piece is at that
+     * position or it is off the board
+     */
+    @Override
+    public ChessPiece getPiece(ChessPosition position) {
+        if (!onBoard(position)) {
+            return null;
+        }
+        int index = pieceIndexAt(square(position));
+        return index < 0 ? null : CPiece.of(index);
+    }
+
+    /**
+     * Finds which piece mask holds a square
+     *
+     * @param sq the square to look at
+     * @return the piece index on the square, or -1 if the square is empty
+     */
+    public int pieceIndexAt(int sq) {
+        long bit = 1L << sq;
+        if ((occupied & bit) == 0) {
+            return -1;
+        }
+        int first = (white & bit) != 0 ? 0 : 6;
+        for (int i = first; i < first + 6; i++) {
+            if ((pieces[i] & bit) != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sets the board to the default starting board
+     * (How the game of chess normally starts)
+     */
+    @Override
+    public void resetBoard() {
+        Arrays.fill(pieces, 0L);
+        pieces[pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK)] = 0x81L;
+        pieces[pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT)] = 0x42L;
+        pieces[pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP)] = 0x24L;
+        pieces[pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN)] = 0x08L;
+        pieces[pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING)] = 0x10L;
+        pieces[pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN)] = 0xFF00L;
+        for (var type : ChessPiece.PieceType.values()) {
+            long whiteMask = pieces[pieceIndex(ChessGame.TeamColor.WHITE, type)];
+            //Mirror the white setup onto the black side by flipping the ranks
+            pieces[pieceIndex(ChessGame.TeamColor.BLACK, type)] = Long.reverseBytes(whiteMask);
+        }
+        white = 0xFFFFL;
+        black = 0xFFFF000000000000L;
+        occupied = white | black;
+        rehash();
+    }
+
+    /**
+     * Replaces a piece on the board with another piece
+     *
+     * @param startPosition The location of the piece that is moving
+     * @param endPosition   The location of the piece that will be captured
+     * @param pieceType     The type to promote the moving piece to, or null to keep its type
+     */
+    @Override
+    public void replacePiece(ChessPosition startPosition, ChessPosition endPosition, ChessPiece.PieceType pieceType) {
+        int from = square(startPosition);
+        int to = square(endPosition);
+        int index = pieceIndexAt(from);
+        if (index < 0) {
+            return;
+        }
+        if (pieceType != null) {
+            index = (index < 6 ? 0 : 6) + pieceType.ordinal();
+        }
+        clear(from);
+        clear(to);
+        set(to, index);
+    }
+
+    /**
+     * Makes a move in place without checking if it is legal
+     *
+     * @param move the move to make
+     * @return the piece that was on the end position, or null if it was empty
+     */
+    @Override
+    public ChessPiece makeMove(ChessMove move) {
+        return makeMove(Move.encode(move));
+    }
+
+    /**
+     * Makes a packed move in place without checking if it is legal
+     *
+     * @param move the packed move to make
+     * @return the shared instance of the piece that was on the end square, or null if it was empty
+     */
+    public ChessPiece makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int index = pieceIndexAt(from);
+        int captured = pieceIndexAt(to);
+        if (captured >= 0) {
+            toggle(to, captured);
+        }
+        toggle(from, index);
+        var promotion = Move.promotion(move);
+        if (promotion != null) {
+            index = (index < 6 ? 0 : 6) + promotion.ordinal();
+        }
+        toggle(to, index);
+        return captured < 0 ? null : CPiece.of(captured);
+    }
+
+    /**
+     * Takes back a move made with makeMove, restoring the board to how it was before
+     *
+     * @param move          the move to take back
+     * @param movedPiece    the piece that made the move, as it was before any promotion
+     * @param capturedPiece the piece returned by makeMove, or null if nothing was captured
+     */
+    @Override
+    public void unmakeMove(ChessMove move, ChessPiece movedPiece, ChessPiece capturedPiece) {
+        unmakeMove(Move.encode(move), movedPiece, capturedPiece);
+    }
+
+    /**
+     * Takes back a packed move made with makeMove, restoring the board to how it was before
+     *
+     * @param move          the packed move to take back
+     * @param movedPiece    the piece that made the move, as it was before any promotion
+     * @param capturedPiece the piece returned by makeMove, or null if nothing was captured
+     */
+    public void unmakeMove(int move, ChessPiece movedPiece, ChessPiece capturedPiece) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        toggle(to, pieceIndexAt(to));
+        toggle(from, pieceIndex(movedPiece.getTeamColor(), movedPiece.getPieceType()));
+        if (capturedPiece != null) {
+            toggle(to, pieceIndex(capturedPiece.getTeamColor(), capturedPiece.getPieceType()));
+        }
+    }
+
+    /**
+     * Returns a copy of the current BitBoard object.
+     *
+     * @return a new BitBoard object that is a copy of the current board
+     */
+    @Override
+    public BitBoard copy() {
+        var copiedBoard = new BitBoard();
+        System.arraycopy(pieces, 0, copiedBoard.pieces, 0, 12);
+        copiedBoard.white = white;
+        copiedBoard.black = black;
+        copiedBoard.occupied = occupied;
+        copiedBoard.key = key;
+        copiedBoard.score = score;
+        copiedBoard.phase = phase;
+        return copiedBoard;
+    }
+
+    /**
+     * Puts a piece on an empty square
+     *
+     * @param sq    the square to fill
+     * @param index the piece index to put there
+     */
+    private void set(int sq, int index) {
+        long bit = 1L << sq;
+        pieces[index] |= bit;
+        key ^= Zobrist.piece(index, sq);
+        score += PieceSquareTables.score(index, sq);
+        phase += PieceSquareTables.phase(index);
+        if (index < 6) {
+            white |= bit;
+        } else {
+            black |= bit;
+        }
+        occupied |= bit;
+        if (listener != null) {
+            listener.pieceAdded(index, sq);
+        }
+    }
+
+    /**
+     * Flips a piece's bit on a square, adding it if absent and removing it if present
+     *
+     * @param sq    the square to flip
+     * @param index the piece index to flip
+     */
+    private void toggle(int sq, int index) {
+        long bit = 1L << sq;
+        pieces[index] ^= bit;
+        key ^= Zobrist.piece(index, sq);
+        if ((pieces[index] & bit) != 0) {
+            score += PieceSquareTables.score(index, sq);
+            phase += PieceSquareTables.phase(index);
+            if (listener != null) {
+                listener.pieceAdded(index, sq);
+            }
+        } else {
+            score -= PieceSquareTables.score(index, sq);
+            phase -= PieceSquareTables.phase(index);
+            if (listener != null) {
+                listener.pieceRemoved(index, sq);
+            }
+        }
+        if (index < 6) {
+            white ^= bit;
+        } else {
+            black ^= bit;
+        }
+        occupied ^= bit;
+    }
+
+    /**
+     * Removes whatever piece is on a square
+     *
+     * @param sq the square to empty
+     */
+    private void clear(int sq) {
+        int index = pieceIndexAt(sq);
+        if (index >= 0) {
+            toggle(sq, index);
+        }
+    }
+
+    /**
+     * Recomputes the Zobrist key and evaluation totals from the piece masks, for boards whose totals were not kept
+     * up to date, such as ones just read from JSON
+     */
+    void rehash() {
+        key = 0;
+        score = 0;
+        phase = 0;
+        for (int i = 0; i < 12; i++) {
+            for (long mask = pieces[i]; mask != 0; mask &= mask - 1) {
+                int sq = Long.numberOfTrailingZeros(mask);
+                key ^= Zobrist.piece(i, sq);
+                score += PieceSquareTables.score(i, sq);
+                phase += PieceSquareTables.phase(i);
+            }
+        }
+    }
+
+    /**
+     * Sets who is told about pieces being added and removed one at a time, as moves are made and taken back.
+     * Setting up a whole board at once, with {@link #resetBoard()} or by reading JSON, is not reported.
+     *
+     * @param listener the listener, or null for none
+     */
+    public void setPieceListener(PieceListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Gets the board's Zobrist key, kept up to date as pieces are added and moved
+     *
+     * @return a 64-bit hash of the pieces on the board
+     */
+    @Override
+    public long getZobristKey() {
+        return key;
+    }
+
+    /**
+     * Gets the board's material and piece-square score, kept up to date as pieces are added and moved
+     *
+     * @return the score in centipawns from white's point of view, blended between middlegame and endgame values
+     */
+    @Override
+    public int getEvaluation() {
+        return PieceSquareTables.taper(score, phase);
+    }
+
+    /**
+     * @param index the piece index
+     * @return the occupancy mask for that piece
+     */
+    public long getPieces(int index) {
+        return pieces[index];
+    }
+
+    /**
+     * @param color the team to get
+     * @param type  the piece type to get
+     * @return the occupancy mask for that piece
+     */
+    public long getPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieces[pieceIndex(color, type)];
+    }
+
+    /**
+     * @param color the team to get
+     * @return every square occupied by that team
+     */
+    public long getTeam(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? white : black;
+    }
+
+    /**
+     * @return every occupied square
+     */
+    public long getOccupied() {
+        return occupied;
+    }
+
+    /**
+     * Overrides the equals method to compare two BitBoard objects.
+     * @param o the object to compare to this BitBoard
+     * @return true if the objects are equal, false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BitBoard that = (BitBoard) o;
+        return Arrays.equals(pieces, that.pieces);
+    }
+
+    /**
+     * Returns the hash code value for this chess board.
+     *
+     * @return the hash code value for this chess board
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(pieces);
+    }
+}
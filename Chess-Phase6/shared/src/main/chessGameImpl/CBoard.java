@@ -2,6 +2,7 @@ package chessGameImpl;
 
 import chess.ChessBoard;
 import chess.ChessGame;
+import chess.ChessMove;
 import chess.ChessPiece;
 import chess.ChessPosition;
 import com.google.gson.*;
@@ -21,6 +22,21 @@ public class CBoard implements chess.ChessBoard {
      */
     private ArrayList<ArrayList<ChessPiece>> board = new ArrayList<>();
 
+    /**
+     * The Zobrist key of the pieces on the board, updated whenever a square changes
+     */
+    private transient long key;
+
+    /**
+     * The packed material and piece-square score of the pieces on the board, see {@link PieceSquareTables}
+     */
+    private transient int score;
+
+    /**
+     * The game phase of the pieces on the board, see {@link PieceSquareTables}
+     */
+    private transient int phase;
+
     /**
      * Constructor for the CBoard class. Initializes the board with a blank 8x8 grid of ChessPiece objects.
      */
@@ -43,18 +59,15 @@ public class CBoard implements chess.ChessBoard {
     @Override
     public void addPiece(ChessPosition position, ChessPiece piece) {
         var row = board.get(position.getRow()-1);
-        row.remove(position.getColumn()-1);
-
-        switch (piece.getPieceType()) {
-            case PAWN -> piece = new Pawn(piece.getTeamColor());
-            case ROOK -> piece = new Rook(piece.getTeamColor());
-            case KNIGHT -> piece = new Knight(piece.getTeamColor());
-            case BISHOP -> piece = new Bishop(piece.getTeamColor());
-            case QUEEN -> piece = new Queen(piece.getTeamColor());
-            case KING -> piece = new King(piece.getTeamColor());
-        }
+        int sq = BitBoard.square(position);
+        var replaced = row.remove(position.getColumn()-1);
+        key ^= Zobrist.piece(replaced, sq);
+        piece = CPiece.of(piece.getTeamColor(), piece.getPieceType());
 
         row.add(position.getColumn()-1, piece);
+        key ^= Zobrist.piece(piece, sq);
+        score += PieceSquareTables.score(piece, sq) - PieceSquareTables.score(replaced, sq);
+        phase += PieceSquareTables.phase(piece) - PieceSquareTables.phase(replaced);
     }
 
     /**
@@ -86,10 +99,13 @@ public class CBoard implements chess.ChessBoard {
      *
      * @param position The position to get the piece from
      * @return Either the piece at the position, or null if no piece is at that
-     * position
+     * position or it is off the board
      */
     @Override
     public ChessPiece getPiece(ChessPosition position) {
+        if (!BitBoard.onBoard(position)) {
+            return null;
+        }
         return board.get(position.getRow()-1).get(position.getColumn()-1);
     }
 
@@ -103,20 +119,20 @@ public class CBoard implements chess.ChessBoard {
 
         //White Row 1
         var row = new ArrayList<ChessPiece>(8);
-        row.add(new Rook(ChessGame.TeamColor.WHITE));
-        row.add(new Knight(ChessGame.TeamColor.WHITE));
-        row.add(new Bishop(ChessGame.TeamColor.WHITE));
-        row.add(new Queen(ChessGame.TeamColor.WHITE));
-        row.add(new King(ChessGame.TeamColor.WHITE));
-        row.add(new Bishop(ChessGame.TeamColor.WHITE));
-        row.add(new Knight(ChessGame.TeamColor.WHITE));
-        row.add(new Rook(ChessGame.TeamColor.WHITE));
+        row.add(CPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        row.add(CPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        row.add(CPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        row.add(CPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        row.add(CPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        row.add(CPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        row.add(CPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        row.add(CPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
         board.add(row);
 
         //White Row 2
         row = new ArrayList<>(8);
         for (int i = 0; i < 8; i++) {
-            row.add(new Pawn(ChessGame.TeamColor.WHITE));
+            row.add(CPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
         }
         board.add(row);
 
@@ -132,21 +148,23 @@ public class CBoard implements chess.ChessBoard {
         //Black Row 7
         row = new ArrayList<>(8);
         for (int i = 0; i < 8; i++) {
-            row.add(new Pawn(ChessGame.TeamColor.BLACK));
+            row.add(CPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
         }
         board.add(row);
 
         //Black Row 8
         row = new ArrayList<>(8);
-        row.add(new Rook(ChessGame.TeamColor.BLACK));
-        row.add(new Knight(ChessGame.TeamColor.BLACK));
-        row.add(new Bishop(ChessGame.TeamColor.BLACK));
-        row.add(new Queen(ChessGame.TeamColor.BLACK));
-        row.add(new King(ChessGame.TeamColor.BLACK));
-        row.add(new Bishop(ChessGame.TeamColor.BLACK));
-        row.add(new Knight(ChessGame.TeamColor.BLACK));
-        row.add(new Rook(ChessGame.TeamColor.BLACK));
+        row.add(CPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        row.add(CPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        row.add(CPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        row.add(CPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        row.add(CPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        row.add(CPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        row.add(CPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        row.add(CPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
         board.add(row);
+
+        rehash();
     }
 
     /**
@@ -161,17 +179,15 @@ public class CBoard implements chess.ChessBoard {
         if (pieceType == null) {
             piece = getPiece(startPosition);
         } else {
-            switch (pieceType) {
-                case PAWN -> piece = new Pawn(getPiece(startPosition).getTeamColor());
-                case ROOK -> piece = new Rook(getPiece(startPosition).getTeamColor());
-                case KNIGHT -> piece = new Knight(getPiece(startPosition).getTeamColor());
-                case BISHOP -> piece = new Bishop(getPiece(startPosition).getTeamColor());
-                case QUEEN -> piece = new Queen(getPiece(startPosition).getTeamColor());
-                case KING -> piece = new King(getPiece(startPosition).getTeamColor());
-                default -> throw new IllegalStateException("Unexpected value: " + pieceType);
-            }
+            piece = CPiece.of(getPiece(startPosition).getTeamColor(), pieceType);
         }
 
+        int start = BitBoard.square(startPosition);
+        int end = BitBoard.square(endPosition);
+        key ^= Zobrist.piece(getPiece(startPosition), start) ^ Zobrist.piece(getPiece(endPosition), end)
+                ^ Zobrist.piece(piece, end);
+        updateEvaluation(getPiece(startPosition), start, getPiece(endPosition), end, piece);
+
         board.get(startPosition.getRow()-1).remove(startPosition.getColumn()-1);
         board.get(startPosition.getRow()-1).add(startPosition.getColumn()-1, null);
         board.get(endPosition.getRow()-1).remove(endPosition.getColumn()-1);
@@ -179,29 +195,122 @@ public class CBoard implements chess.ChessBoard {
     }
 
     /**
-     * Returns a deep copy of the current CBoard object.
-     * 
+     * Makes a move in place without checking if it is legal.
+     * Squares are overwritten with set so no list nodes are shifted or allocated.
+     *
+     * @param move the move to make
+     * @return the piece that was on the end position, or null if it was empty
+     */
+    @Override
+    public ChessPiece makeMove(ChessMove move) {
+        var start = move.getStartPosition();
+        var end = move.getEndPosition();
+        ChessPiece piece = getPiece(start);
+        ChessPiece captured = getPiece(end);
+        if (move.getPromotionPiece() != null) {
+            piece = CPiece.of(piece.getTeamColor(), move.getPromotionPiece());
+        }
+
+        int from = BitBoard.square(start);
+        int to = BitBoard.square(end);
+        key ^= Zobrist.piece(getPiece(start), from) ^ Zobrist.piece(captured, to) ^ Zobrist.piece(piece, to);
+        updateEvaluation(getPiece(start), from, captured, to, piece);
+
+        board.get(start.getRow()-1).set(start.getColumn()-1, null);
+        board.get(end.getRow()-1).set(end.getColumn()-1, piece);
+        return captured;
+    }
+
+    /**
+     * Takes back a move made with makeMove, restoring the board to how it was before
+     *
+     * @param move          the move to take back
+     * @param movedPiece    the piece that made the move, as it was before any promotion
+     * @param capturedPiece the piece returned by makeMove, or null if nothing was captured
+     */
+    @Override
+    public void unmakeMove(ChessMove move, ChessPiece movedPiece, ChessPiece capturedPiece) {
+        var start = move.getStartPosition();
+        var end = move.getEndPosition();
+        int from = BitBoard.square(start);
+        int to = BitBoard.square(end);
+        key ^= Zobrist.piece(getPiece(end), to) ^ Zobrist.piece(capturedPiece, to) ^ Zobrist.piece(movedPiece, from);
+        //Taking a move back is the piece on the end square moving back, leaving the captured piece behind it
+        updateEvaluation(getPiece(end), to, null, from, movedPiece);
+        score += PieceSquareTables.score(capturedPiece, to);
+        phase += PieceSquareTables.phase(capturedPiece);
+
+        board.get(start.getRow()-1).set(start.getColumn()-1, movedPiece);
+        board.get(end.getRow()-1).set(end.getColumn()-1, capturedPiece);
+    }
+
+    /**
+     * Updates the evaluation totals for a piece leaving one square for another, where it may capture a piece and
+     * may change type
+     *
+     * @param moved    the piece leaving its square
+     * @param from     the square it leaves
+     * @param captured the piece on the square it moves to, or null
+     * @param to       the square it moves to
+     * @param arriving the piece that arrives, which differs from moved on a promotion
+     */
+    private void updateEvaluation(ChessPiece moved, int from, ChessPiece captured, int to, ChessPiece arriving) {
+        score += PieceSquareTables.score(arriving, to) - PieceSquareTables.score(moved, from)
+                - PieceSquareTables.score(captured, to);
+        phase += PieceSquareTables.phase(arriving) - PieceSquareTables.phase(moved) - PieceSquareTables.phase(captured);
+    }
+
+    /**
+     * Recomputes the Zobrist key and evaluation totals from the squares, for boards whose totals were not kept
+     * up to date, such as ones just read from JSON
+     */
+    private void rehash() {
+        key = Zobrist.hash(this);
+        score = PieceSquareTables.score(this);
+        phase = PieceSquareTables.phase(this);
+    }
+
+    /**
+     * Gets the board's Zobrist key, kept up to date as pieces are added and moved
+     *
+     * @return a 64-bit hash of the pieces on the board
+     */
+    @Override
+    public long getZobristKey() {
+        return key;
+    }
+
+    /**
+     * Gets the board's material and piece-square score, kept up to date as pieces are added and moved
+     *
+     * @return the score in centipawns from white's point of view, blended between middlegame and endgame values
+     */
+    @Override
+    public int getEvaluation() {
+        return PieceSquareTables.taper(score, phase);
+    }
+
+    /**
+     * Returns a copy of the current CBoard object.
+     * Pieces cannot be changed, so the copy shares them and only the rows are new.
+     *
      * @return a new CBoard object that is a copy of the current board
      */
     @Override
     public CBoard copy() {
         CBoard copiedBoard = new CBoard();
-        for(int i = 0; i < 8; i++){
-            for(int j = 0; j < 8; j++){
-                if (board.get(i).get(j) == null) {
-                    continue;
-                }
-                ChessPiece piece = board.get(i).get(j).copy();
-
-                copiedBoard.addPiece(new CPosition(i+1, j+1), piece);
-            }
+        for (int i = 0; i < 8; i++) {
+            copiedBoard.board.set(i, new ArrayList<>(board.get(i)));
         }
-
+        copiedBoard.key = key;
+        copiedBoard.score = score;
+        copiedBoard.phase = phase;
         return copiedBoard;
     }
 
     /**
      * A custom deserializer for the ChessBoard interface.
+     * Boards serialized by a BitBoard are recognized by their piece masks, everything else is read as a CBoard.
      */
     public static class ChessBoardTA implements JsonDeserializer<ChessBoard> {
 
@@ -214,10 +323,18 @@ public class CBoard implements chess.ChessBoard {
          */
         @Override
         public ChessBoard deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
+            //Keys and evaluation totals are not serialized, so they are rebuilt from the pieces
+            if (jsonElement.isJsonObject() && jsonElement.getAsJsonObject().has("pieces")) {
+                var bitBoard = new Gson().fromJson(jsonElement, BitBoard.class);
+                bitBoard.rehash();
+                return bitBoard;
+            }
             var gson = new GsonBuilder()
                     .registerTypeAdapter(ChessPiece.class, new CPiece.ChessPieceTA())
                     .create();
-            return gson.fromJson(jsonElement, CBoard.class);
+            var board = gson.fromJson(jsonElement, CBoard.class);
+            board.rehash();
+            return board;
         }
     }
 }
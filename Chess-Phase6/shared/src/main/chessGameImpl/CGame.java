@@ -5,7 +5,6 @@ import com.google.gson.*;
 
 import java.lang.reflect.Type;
 import java.util.Collection;
-import java.util.HashSet;
 
 /**
  * CGame class implements the ChessGame interface and represents a game of chess.
@@ -13,23 +12,123 @@ import java.util.HashSet;
  * to get valid moves for a piece, make a move, and check for check, checkmate, and stalemate.
  */
 public class CGame implements chess.ChessGame{
+    /**
+     * The ChessBoard implementations a CGame can be backed by
+     */
+    public enum BoardType {
+        /**
+         * {@link CBoard}, the nested ArrayList board
+         */
+        ARRAY,
+        /**
+         * {@link BitBoard}, the 64-bit occupancy mask board
+         */
+        BITBOARD
+    }
+
+    /**
+     * The board implementation used when none is asked for
+     */
+    public static final BoardType DEFAULT_BOARD_TYPE = BoardType.BITBOARD;
+
     /**
      * The current turn's team color
      */
     private TeamColor teamColor = TeamColor.WHITE;
 
+    /**
+     * Whose turn it was when the game finished, or null if it has not finished
+     */
+    private TeamColor finishedTurn;
+
     /**
      * The stores a ChessBoard object that represents the current state of the game
      */
-    private ChessBoard board = new CBoard();
+    private ChessBoard board;
+
+    /**
+     * Row and column steps a knight can make
+     */
+    private static final int[][] KNIGHT_OFFSETS = {{2, 1}, {2, -1}, {-2, 1}, {-2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}};
+
+    /**
+     * Row and column steps a king can make
+     */
+    private static final int[][] KING_OFFSETS = {{1, 1}, {1, 0}, {1, -1}, {0, 1}, {0, -1}, {-1, 1}, {-1, 0}, {-1, -1}};
+
+    /**
+     * Directions bishops and queens slide in
+     */
+    private static final int[][] DIAGONALS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    /**
+     * Directions rooks and queens slide in
+     */
+    private static final int[][] STRAIGHTS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    /**
+     * Records of the moves made in place on the board, so they can be taken back
+     */
+    private final transient UndoStack undoStack = new UndoStack();
+
+    /**
+     * Scratch list reused by validMoves and the other single-position queries, so they do not allocate per move
+     */
+    private final transient MoveList moveList = new MoveList();
 
     /**
      * Constructor for CGame class. Initializes the board to its default starting position.
      */
     public CGame() {
+        this(DEFAULT_BOARD_TYPE);
+    }
+
+    /**
+     * Constructor for CGame class backed by a specific board implementation.
+     * Initializes the board to its default starting position.
+     *
+     * @param boardType which ChessBoard implementation to use
+     */
+    public CGame(BoardType boardType) {
+        board = newBoard(boardType);
         board.resetBoard();
     }
 
+    /**
+     * Creates an independent copy of this game with the same position and turn but no moves to undo.
+     * A copy shares no mutable state with the original, so each can be used from a different thread.
+     *
+     * @return the copy
+     */
+    public CGame copy() {
+        var copiedGame = new CGame(board.copy());
+        copiedGame.teamColor = teamColor;
+        copiedGame.finishedTurn = finishedTurn;
+        return copiedGame;
+    }
+
+    /**
+     * Constructor for a CGame around an existing board
+     *
+     * @param board the board to play on
+     */
+    private CGame(ChessBoard board) {
+        this.board = board;
+    }
+
+    /**
+     * Creates an empty board of the given implementation
+     *
+     * @param boardType which ChessBoard implementation to use
+     * @return a new, empty ChessBoard
+     */
+    public static ChessBoard newBoard(BoardType boardType) {
+        return switch (boardType) {
+            case ARRAY -> new CBoard();
+            case BITBOARD -> new BitBoard();
+        };
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -45,52 +144,141 @@ public class CGame implements chess.ChessGame{
      */
     @Override
     public void setTeamTurn(TeamColor team) {
+        //Finishing the game replaces the turn, so it is kept for anyone who looks at the final position
+        if (team == TeamColor.FINISHED && teamColor != TeamColor.FINISHED) {
+            finishedTurn = teamColor;
+        }
         teamColor = team;
     }
 
+    /**
+     * @return whose turn it was when the game finished, or null if it has not finished or finished before this was
+     * kept
+     */
+    public TeamColor getFinishedTurn() {
+        return finishedTurn;
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      *
      * @param startPosition the piece to get valid moves for
      * @return Set of valid moves for requested piece, or null if no piece at
-     * startPosition
+     * startPosition or it is off the board
      */
     @Override
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
+        if (!BitBoard.onBoard(startPosition)) {
+            return null;
+        }
         ChessPiece piece = board.getPiece(startPosition);
         if (piece == null) {
             return null;
         }
-        var type = piece.getPieceType();
-        Collection<ChessMove> moves;
-        switch (type) {
-            case PAWN -> moves = new Pawn(piece.getTeamColor()).pieceMoves(board, startPosition);
-            case ROOK -> moves = new Rook(piece.getTeamColor()).pieceMoves(board, startPosition);
-            case KNIGHT -> moves = new Knight(piece.getTeamColor()).pieceMoves(board, startPosition);
-            case BISHOP -> moves = new Bishop(piece.getTeamColor()).pieceMoves(board, startPosition);
-            case QUEEN -> moves = new Queen(piece.getTeamColor()).pieceMoves(board, startPosition);
-            case KING -> moves = new King(piece.getTeamColor()).pieceMoves(board, startPosition);
-            default -> moves = null;
+        short[] legalMoves = cachedLegalMoves(piece.getTeamColor());
+        int sq = BitBoard.square(startPosition);
+        moveList.clear();
+        for (short move : legalMoves) {
+            if (Move.from(move) == sq) {
+                moveList.add(move & 0xFFFF);
+            }
         }
+        return moveList.asChessMoves();
+    }
+
+    /**
+     * Fills a list with every legal move of the team whose turn it is, packed by {@link Move}
+     *
+     * @param moves the list to fill, which is cleared first
+     */
+    public void legalMoves(MoveList moves) {
+        moves.clear();
+        MoveGenerator.addLegalMoves(BitBoard.asBitBoard(board), teamColor, moves);
+    }
 
-        var gameTeamColor = this.teamColor;
-        this.teamColor = piece.getTeamColor();
-
-        HashSet<ChessMove> invalidMoves = new HashSet<>();
-        for(ChessMove move : moves){
-            ChessBoard tempBoard = board.copy();
-            tempBoard.replacePiece(move.getStartPosition(), move.getEndPosition(), move.getPromotionPiece());
-            ChessGame tempGame = new CGame();
-            tempGame.setBoard(tempBoard);
-            if(tempGame.isInCheck(teamColor)){
-                invalidMoves.add(move);
+    /**
+     * Determines if a move is valid for the piece on its start position, whichever team's turn it is
+     *
+     * @param move the move to check
+     * @return True if there is a piece on the start position and the move is one of its valid moves
+     */
+    @Override
+    public boolean isValidMove(ChessMove move) {
+        //Squares are packed into 6 bits, so a position off the board would alias one on it
+        if (!BitBoard.onBoard(move.getStartPosition()) || !BitBoard.onBoard(move.getEndPosition())) {
+            return false;
+        }
+        ChessPiece piece = board.getPiece(move.getStartPosition());
+        if (piece == null) {
+            return false;
+        }
+        int packed = Move.encode(move);
+        for (short legalMove : cachedLegalMoves(piece.getTeamColor())) {
+            if ((legalMove & Move.MOVE_MASK) == packed) {
+                return true;
             }
         }
+        return false;
+    }
 
-        moves.removeAll(invalidMoves);
+    /**
+     * Gets every legal move of a team in the current position from the shared {@link LegalMoveCache}, working them
+     * out and caching them if they are not there. Which team's turn it is does not matter, since legal moves depend
+     * only on the pieces and the team moving them.
+     *
+     * @param teamColor the team whose moves to get
+     * @return the packed moves as shorts, which must not be changed
+     */
+    private short[] cachedLegalMoves(TeamColor teamColor) {
+        long key = legalMoveKey(teamColor);
+        short[] legalMoves = LegalMoveCache.SHARED.get(key);
+        if (legalMoves == null) {
+            legalMoves = cacheLegalMoves(key, teamColor);
+        }
+        return legalMoves;
+    }
 
-        this.teamColor = gameTeamColor;
-        return moves;
+    /**
+     * Works out every legal move of a team in the current position and puts them in the shared
+     * {@link LegalMoveCache}
+     *
+     * @param key       the position's key in the cache, from {@link #legalMoveKey}
+     * @param teamColor the team whose moves to work out
+     * @return the packed moves as shorts, which must not be changed
+     */
+    private short[] cacheLegalMoves(long key, TeamColor teamColor) {
+        moveList.clear();
+        MoveGenerator.addLegalMoves(BitBoard.asBitBoard(board), teamColor, moveList);
+        return LegalMoveCache.SHARED.put(key, moveList);
+    }
+
+    /**
+     * @param teamColor the team moving
+     * @return the key the team's legal moves in the current position are cached under
+     */
+    private long legalMoveKey(TeamColor teamColor) {
+        long key = board.getZobristKey();
+        return teamColor == TeamColor.BLACK ? key ^ Zobrist.BLACK_TO_MOVE : key;
+    }
+
+    /**
+     * Tries a team's moves in place until one does not leave its king in check
+     *
+     * @param teamColor the team moving
+     * @return True if the team has at least one legal move
+     */
+    private boolean hasLegalMove(TeamColor teamColor) {
+        moveList.clear();
+        MoveGenerator.addMoves(BitBoard.asBitBoard(board), teamColor, moveList);
+        for (int i = 0; i < moveList.size(); i++) {
+            pushMove(moveList.get(i));
+            boolean leavesCheck = isInCheck(teamColor);
+            popMove();
+            if (!leavesCheck) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -108,13 +296,77 @@ public class CGame implements chess.ChessGame{
         if (piece.getTeamColor() != teamColor) {
             throw new InvalidMoveException("Wrong turn");
         }
-        if (!validMoves(move.getStartPosition()).contains(move)) {
+        if (!isValidMove(move)) {
             throw new InvalidMoveException("Invalid move");
         }
-        board.replacePiece(move.getStartPosition(), move.getEndPosition(), move.getPromotionPiece());
+        doMove(Move.encode(move));
+    }
+
+    /**
+     * Makes a move in place without checking that it is valid, then passes the turn to the other team.
+     * The move is recorded so it can be taken back with undoMove.
+     *
+     * @param move chess move to preform
+     */
+    public void doMove(ChessMove move) {
+        doMove(Move.encode(move));
+    }
+
+    /**
+     * Makes a packed move in place without checking that it is valid, then passes the turn to the other team.
+     * The move is recorded so it can be taken back with undoMove.
+     *
+     * @param move the packed move to preform
+     */
+    public void doMove(int move) {
+        pushMove(move);
         teamColor = teamColor == TeamColor.BLACK ? TeamColor.WHITE : TeamColor.BLACK;
     }
 
+    /**
+     * Takes back the last move made with doMove or makeMove, including whose turn it was
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void undoMove() {
+        var turn = undoStack.peekTurn();
+        popMove();
+        teamColor = turn;
+    }
+
+    /**
+     * Makes a packed move in place on the board and records how to take it back. Does not change whose turn it is.
+     * A BitBoard takes packed moves and hands out shared pieces, so this allocates nothing on one.
+     *
+     * @param move the packed move to make
+     */
+    private void pushMove(int move) {
+        ChessPiece moved;
+        ChessPiece captured;
+        if (board instanceof BitBoard bitBoard) {
+            moved = BitBoard.piece(bitBoard.pieceIndexAt(Move.from(move)));
+            captured = bitBoard.makeMove(move);
+        } else {
+            var chessMove = Move.toChessMove(move);
+            moved = board.getPiece(chessMove.getStartPosition());
+            captured = board.makeMove(chessMove);
+        }
+        undoStack.push(move, moved, captured, teamColor);
+    }
+
+    /**
+     * Takes back the move on top of the undo stack. Does not change whose turn it is.
+     */
+    private void popMove() {
+        int move = undoStack.peekMove();
+        if (board instanceof BitBoard bitBoard) {
+            bitBoard.unmakeMove(move, undoStack.peekMovedPiece(), undoStack.peekCapturedPiece());
+        } else {
+            board.unmakeMove(Move.toChessMove(move), undoStack.peekMovedPiece(), undoStack.peekCapturedPiece());
+        }
+        undoStack.pop();
+    }
+
     /**
      * Determines if the given team is in check
      *
@@ -123,59 +375,133 @@ public class CGame implements chess.ChessGame{
      */
     @Override
     public boolean isInCheck(TeamColor teamColor) {
+        int king = findKing(teamColor);
+        if (king < 0) {
+            return false;
+        }
+        var enemy = teamColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+        if (board instanceof BitBoard bitBoard) {
+            return Attacks.isAttacked(bitBoard, king, enemy);
+        }
+        return isAttacked(king / 8 + 1, king % 8 + 1, enemy);
+    }
+
+    /**
+     * Finds a team's king
+     *
+     * @param teamColor the team whose king to find
+     * @return the king's square as (row-1)*8 + (column-1), or -1 if the team has no king
+     */
+    private int findKing(TeamColor teamColor) {
+        if (board instanceof BitBoard bitBoard) {
+            long king = bitBoard.getPieces(teamColor, ChessPiece.PieceType.KING);
+            return king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+        }
         for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8 ; j++) {
-                ChessPosition position = new CPosition(i, j);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getTeamColor() != teamColor) {
-                    Collection<ChessMove> moves = piece.pieceMoves(board, position);
-                    for (ChessMove move : moves) {
-                        if (board.getPiece(move.getEndPosition()) != null &&
-                                board.getPiece(move.getEndPosition()).getPieceType() == ChessPiece.PieceType.KING &&
-                                board.getPiece(move.getEndPosition()).getTeamColor() == teamColor) {
-                            return true;
-                        }
-                    }
+            for (int j = 1; j <= 8; j++) {
+                if (isPiece(i, j, teamColor, ChessPiece.PieceType.KING)) {
+                    return (i - 1) * 8 + j - 1;
                 }
             }
         }
+        return -1;
+    }
+
+    /**
+     * Determines if a square is attacked by a team. Works outward from the square, looking for knights, pawns and
+     * kings on the squares they would attack from, and walking each diagonal and straight line until it is blocked.
+     *
+     * @param row      the row of the square
+     * @param col      the column of the square
+     * @param attacker the team that might be attacking
+     * @return True if any piece of the attacking team attacks the square
+     */
+    private boolean isAttacked(int row, int col, TeamColor attacker) {
+        for (int[] offset : KNIGHT_OFFSETS) {
+            if (isPiece(row + offset[0], col + offset[1], attacker, ChessPiece.PieceType.KNIGHT)) {
+                return true;
+            }
+        }
+
+        for (int[] offset : KING_OFFSETS) {
+            if (isPiece(row + offset[0], col + offset[1], attacker, ChessPiece.PieceType.KING)) {
+                return true;
+            }
+        }
+
+        //Pawns attack diagonally forward, so look one row back from the attacker's point of view
+        int pawnRow = attacker == TeamColor.WHITE ? row - 1 : row + 1;
+        if (isPiece(pawnRow, col - 1, attacker, ChessPiece.PieceType.PAWN) ||
+                isPiece(pawnRow, col + 1, attacker, ChessPiece.PieceType.PAWN)) {
+            return true;
+        }
+
+        for (int[] direction : DIAGONALS) {
+            if (isSliderAttack(row, col, direction, attacker, ChessPiece.PieceType.BISHOP)) {
+                return true;
+            }
+        }
+
+        for (int[] direction : STRAIGHTS) {
+            if (isSliderAttack(row, col, direction, attacker, ChessPiece.PieceType.ROOK)) {
+                return true;
+            }
+        }
 
         return false;
     }
 
     /**
-     * Determines if the given team is in checkmate
+     * Walks from a square in one direction until it hits a piece or the edge of the board
      *
-     * @param teamColor which team to check for checkmate
-     * @return True if the specified team is in checkmate
+     * @param row        the row of the square
+     * @param col        the column of the square
+     * @param direction  the row and column step to walk by
+     * @param attacker   the team that might be attacking
+     * @param sliderType the piece type besides the queen that attacks along this direction
+     * @return True if the first piece found is the attacker's queen or slider
      */
-    @Override
-    public boolean isInCheckmate(TeamColor teamColor) {
-        var possibleMoves = new HashSet<ChessMove>();
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8 ; j++) {
-                ChessPosition position = new CPosition(i, j);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    var possibleValidMoves = piece.pieceMoves(board, position);
-                    if(possibleValidMoves != null) {
-                        possibleMoves.addAll(possibleValidMoves);
-                    }
-                }
+    private boolean isSliderAttack(int row, int col, int[] direction, TeamColor attacker, ChessPiece.PieceType sliderType) {
+        int i = row + direction[0];
+        int j = col + direction[1];
+        while (i >= 1 && i <= 8 && j >= 1 && j <= 8) {
+            ChessPiece piece = board.getPiece(CPosition.of(i, j));
+            if (piece != null) {
+                return piece.getTeamColor() == attacker &&
+                        (piece.getPieceType() == sliderType || piece.getPieceType() == ChessPiece.PieceType.QUEEN);
             }
+            i += direction[0];
+            j += direction[1];
         }
+        return false;
+    }
 
-        for (ChessMove move : possibleMoves) {
-            ChessBoard tempBoard = board.copy();
-            tempBoard.replacePiece(move.getStartPosition(), move.getEndPosition(), move.getPromotionPiece());
-            ChessGame tempGame = new CGame();
-            tempGame.setBoard(tempBoard);
-            if(!tempGame.isInCheck(teamColor)){
-                return false;
-            }
+    /**
+     * Checks what is on a square, treating squares off the board as empty
+     *
+     * @param row   the row of the square
+     * @param col   the column of the square
+     * @param color the team to look for
+     * @param type  the piece type to look for
+     * @return True if the square holds a piece of that team and type
+     */
+    private boolean isPiece(int row, int col, TeamColor color, ChessPiece.PieceType type) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return false;
         }
+        ChessPiece piece = board.getPiece(CPosition.of(row, col));
+        return piece != null && piece.getTeamColor() == color && piece.getPieceType() == type;
+    }
 
-        return true;
+    /**
+     * Determines if the given team is in checkmate
+     *
+     * @param teamColor which team to check for checkmate
+     * @return True if the specified team is in checkmate
+     */
+    @Override
+    public boolean isInCheckmate(TeamColor teamColor) {
+        return evaluateStatus(teamColor).checkmate();
     }
 
     /**
@@ -187,25 +513,33 @@ public class CGame implements chess.ChessGame{
      */
     @Override
     public boolean isInStalemate(TeamColor teamColor) {
-        var gameTeamColor = this.teamColor;
-        this.teamColor = teamColor;
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8 ; j++) {
-                ChessPosition position = new CPosition(i, j);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    var possibleValidMoves = validMoves(position);
-                    if(possibleValidMoves != null) {
-                        if (!possibleValidMoves.isEmpty()) {
-                            return false;
-                        }
-                    }
-                }
-            }
-        }
+        return evaluateStatus(teamColor).stalemate();
+    }
 
-        this.teamColor = gameTeamColor;
-        return true;
+    /**
+     * Works out whether a team is in check, checkmate or stalemate from one look at its legal moves.
+     * Moves already in the legal move cache are counted from there. Otherwise, when the team is not in check, its
+     * moves are tried only until the first legal one, which settles everything, so the count stops at 1 and nothing
+     * is cached. When it is in check, all its moves are worked out and cached, since there are few and the team
+     * will need them for its reply.
+     *
+     * @param teamColor which team to evaluate
+     * @return the team's status
+     */
+    @Override
+    public GameStatus evaluateStatus(TeamColor teamColor) {
+        boolean inCheck = isInCheck(teamColor);
+        long key = legalMoveKey(teamColor);
+        short[] cached = LegalMoveCache.SHARED.get(key);
+        int legalMoves;
+        if (cached != null) {
+            legalMoves = cached.length;
+        } else if (inCheck) {
+            legalMoves = cacheLegalMoves(key, teamColor).length;
+        } else {
+            legalMoves = hasLegalMove(teamColor) ? 1 : 0;
+        }
+        return new GameStatus(inCheck, legalMoves, inCheck && legalMoves == 0, !inCheck && legalMoves == 0);
     }
 
     /**
@@ -216,6 +550,9 @@ public class CGame implements chess.ChessGame{
     @Override
     public void setBoard(ChessBoard board) {
         this.board = board;
+        while (undoStack.size() > 0) {
+            undoStack.pop();
+        }
     }
 
     /**
@@ -228,6 +565,18 @@ public class CGame implements chess.ChessGame{
         return board;
     }
 
+    /**
+     * Gets a 64-bit Zobrist key identifying the current position, covering the pieces and whose turn it is.
+     * The board keeps its part of the key up to date as pieces move, so this costs the same after any number of moves.
+     *
+     * @return the position's key
+     */
+    @Override
+    public long getPositionKey() {
+        long key = board.getZobristKey();
+        return teamColor == TeamColor.BLACK ? key ^ Zobrist.BLACK_TO_MOVE : key;
+    }
+
     /**
      * Converts this Game object to a JSON string.
      *
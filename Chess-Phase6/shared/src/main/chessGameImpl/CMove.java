@@ -7,8 +7,30 @@ import java.util.Objects;
 
 /**
  * This class represents a chess move in the game of chess.
+ * Moves are immutable, so every move between two squares on the board is created once and shared through
+ * {@link #of(ChessPosition, ChessPosition, ChessPiece.PieceType)}.
  */
 public class CMove implements chess.ChessMove{
+    /**
+     * Piece types in ordinal order, so the table can be filled without calling values() per entry
+     */
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    /**
+     * The shared instance of every move between two squares, indexed by its {@link Move} packing without flags
+     */
+    private static final CMove[] MOVES = new CMove[(TYPES.length + 1) << 12];
+
+    static {
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                MOVES[Move.encode(from, to, null, 0)] = new CMove(CPosition.of(from), CPosition.of(to), null);
+                for (var promotion : TYPES) {
+                    MOVES[Move.encode(from, to, promotion, 0)] = new CMove(CPosition.of(from), CPosition.of(to), promotion);
+                }
+            }
+        }
+    }
     /**
      * The starting position of the chess move.
      */
@@ -38,6 +60,36 @@ public class CMove implements chess.ChessMove{
         this.promotion = promotion;
     }
 
+    /**
+     * The move's hash code, worked out the first time it is asked for
+     */
+    private transient int hash;
+
+    /**
+     * Gets the shared instance of a move
+     *
+     * @param start     ChessPosition of starting location
+     * @param end       ChessPosition of ending location
+     * @param promotion Type of piece to promote a pawn to, or null if no promotion
+     * @return the shared move, or a new one if either position is off the board
+     */
+    public static CMove of(ChessPosition start, ChessPosition end, ChessPiece.PieceType promotion) {
+        if (!BitBoard.onBoard(start) || !BitBoard.onBoard(end)) {
+            return new CMove(start, end, promotion);
+        }
+        return MOVES[Move.encode(BitBoard.square(start), BitBoard.square(end), promotion, 0)];
+    }
+
+    /**
+     * Gets the shared instance of a packed move
+     *
+     * @param move a move packed by {@link Move}, whose flags are ignored
+     * @return the shared move
+     */
+    public static CMove of(int move) {
+        return MOVES[move & Move.MOVE_MASK];
+    }
+
     /**
      * Gets the starting position of the chess move.
      *
@@ -104,6 +156,12 @@ public class CMove implements chess.ChessMove{
      */
     @Override
     public int hashCode() {
-        return Objects.hash(start, end, promotion);
+        //Packing the move gives every distinct move on the board a distinct hash. Moves off the board cannot be
+        //packed, and are hashed by their fields instead.
+        if (hash == 0) {
+            hash = start != null && end != null && BitBoard.onBoard(start) && BitBoard.onBoard(end)
+                    ? Move.encode(start, end, promotion) : Objects.hash(start, end, promotion);
+        }
+        return hash;
     }
 }
@@ -6,11 +6,28 @@ import com.google.gson.*;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 
 /**
  * Implementation of the ChessPiece interface representing a chess piece
  */
 public class CPiece implements chess.ChessPiece{
+    /**
+     * The shared instance of each piece, indexed like a BitBoard's piece masks.
+     * Pieces only carry a color and a type, so every board can use the same twelve.
+     */
+    private static final CPiece[] PIECES = new CPiece[12];
+
+    static {
+        for (var color : new ChessGame.TeamColor[]{ChessGame.TeamColor.WHITE, ChessGame.TeamColor.BLACK}) {
+            PIECES[BitBoard.pieceIndex(color, PieceType.KING)] = new King(color);
+            PIECES[BitBoard.pieceIndex(color, PieceType.QUEEN)] = new Queen(color);
+            PIECES[BitBoard.pieceIndex(color, PieceType.BISHOP)] = new Bishop(color);
+            PIECES[BitBoard.pieceIndex(color, PieceType.KNIGHT)] = new Knight(color);
+            PIECES[BitBoard.pieceIndex(color, PieceType.ROOK)] = new Rook(color);
+            PIECES[BitBoard.pieceIndex(color, PieceType.PAWN)] = new Pawn(color);
+        }
+    }
 
     /**
      * The color of the piece
@@ -32,6 +49,27 @@ public class CPiece implements chess.ChessPiece{
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance of a piece
+     *
+     * @param pieceColor The color of the piece
+     * @param type The type of the piece
+     * @return the shared piece, which is a King, Queen, etc. to match the type
+     */
+    public static CPiece of(ChessGame.TeamColor pieceColor, PieceType type) {
+        return PIECES[BitBoard.pieceIndex(pieceColor, type)];
+    }
+
+    /**
+     * Gets the shared instance of a piece by its index
+     *
+     * @param pieceIndex the piece index, as given by {@link BitBoard#pieceIndex}
+     * @return the shared piece
+     */
+    public static CPiece of(int pieceIndex) {
+        return PIECES[pieceIndex];
+    }
+
     /**
      * @return Which team this chess piece belongs to
      */
@@ -63,11 +101,47 @@ public class CPiece implements chess.ChessPiece{
     }
 
     /**
-     * @return a copy of the ChessPiece
+     * Generates this piece's moves from a position with the shared move generator
+     *
+     * @param board      The current state of the board
+     * @param myPosition the location of the piece to generate a moveset for
+     * @return a new set of the piece's moves
+     */
+    protected HashSet<ChessMove> generateMoves(ChessBoard board, ChessPosition myPosition) {
+        var moves = new MoveList();
+        MoveGenerator.addMoves(BitBoard.asBitBoard(board), type, pieceColor, BitBoard.square(myPosition), moves);
+        return new HashSet<>(moves.asChessMoves());
+    }
+
+    /**
+     * Pieces cannot be changed, so a piece is its own copy
+     *
+     * @return this piece
      */
     @Override
     public ChessPiece copy() {
-       return new CPiece(pieceColor, type);
+        return this;
+    }
+
+    /**
+     * Pieces are equal when they have the same color and type, whichever class they are
+     *
+     * @param o the object to compare to this piece
+     * @return true if o is a CPiece of the same color and type
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CPiece that)) return false;
+        return pieceColor == that.pieceColor && type == that.type;
+    }
+
+    /**
+     * @return a hash of the piece's color and type
+     */
+    @Override
+    public int hashCode() {
+        return pieceColor.ordinal() * 8 + type.ordinal();
     }
 
     public static class ChessPieceTA implements JsonDeserializer<ChessPiece> {
@@ -81,7 +155,9 @@ public class CPiece implements chess.ChessPiece{
          */
         @Override
         public ChessPiece deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
-           return new Gson().fromJson(jsonElement, CPiece.class);
+            var piece = jsonElement.getAsJsonObject();
+            return of(ChessGame.TeamColor.valueOf(piece.get("pieceColor").getAsString()),
+                    PieceType.valueOf(piece.get("type").getAsString()));
         }
     }
 }
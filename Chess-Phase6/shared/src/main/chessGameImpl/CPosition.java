@@ -1,11 +1,20 @@
 package chessGameImpl;
 
-import java.util.Objects;
-
 /**
  * CPosition class implements the ChessPosition interface and represents a position on the chess board.
+ * Positions are immutable, so the 64 on the board are created once and shared through {@link #of(int, int)}.
  */
 public class CPosition implements chess.ChessPosition{
+    /**
+     * The shared instance of every position on the board, indexed by (row-1)*8 + (column-1)
+     */
+    private static final CPosition[] POSITIONS = new CPosition[64];
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            POSITIONS[sq] = new CPosition(sq / 8 + 1, sq % 8 + 1);
+        }
+    }
 
     /**
      * The row this position is in
@@ -28,6 +37,30 @@ public class CPosition implements chess.ChessPosition{
         this.y = y;
     }
 
+    /**
+     * Gets the shared instance of a position
+     *
+     * @param x  Which row the position is in
+     * @param y  Which column the position is in
+     * @return the shared position, or a new one if it is off the board
+     */
+    public static CPosition of(int x, int y) {
+        if (x < 1 || x > 8 || y < 1 || y > 8) {
+            return new CPosition(x, y);
+        }
+        return POSITIONS[(x - 1) * 8 + y - 1];
+    }
+
+    /**
+     * Gets the shared instance of a position by its square index
+     *
+     * @param sq the square, numbered (row-1)*8 + (column-1)
+     * @return the shared position
+     */
+    public static CPosition of(int sq) {
+        return POSITIONS[sq];
+    }
+
     /**
      * @param o Object to compare
      * @return true if options are equal
@@ -42,11 +75,11 @@ public class CPosition implements chess.ChessPosition{
 
 
     /**
-     * @return a hash including its internals
+     * @return a hash including its internals, the same value Objects.hash(x, y) gives but without boxing
      */
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return 31 * (31 + x) + y;
     }
 
     /**
@@ -0,0 +1,81 @@
+package chessGameImpl;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Reads positions written in Forsyth-Edwards Notation, like
+ * "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1".
+ * Only the piece placement and side to move are used. This ruleset has no castling or en passant,
+ * and the move clocks are not tracked, so the remaining fields are ignored.
+ */
+public class Fen {
+    /**
+     * The standard starting position
+     */
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+
+    /**
+     * Utility class, not instantiated
+     */
+    private Fen() {
+    }
+
+    /**
+     * Builds a game from a FEN string
+     *
+     * @param fen       the position to read
+     * @param boardType which ChessBoard implementation to use
+     * @return a game set up in the position
+     * @throws IllegalArgumentException if the FEN string is malformed
+     */
+    public static CGame parse(String fen, CGame.BoardType boardType) {
+        String[] fields = fen.trim().split("\\s+");
+        String[] ranks = fields[0].split("/");
+        if (ranks.length != 8) {
+            throw new IllegalArgumentException("Expected 8 ranks in FEN: " + fen);
+        }
+
+        var board = CGame.newBoard(boardType);
+        for (int i = 0; i < 8; i++) {
+            int row = 8 - i;
+            int col = 1;
+            for (char c : ranks[i].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    col += c - '0';
+                    continue;
+                }
+                if (col > 8) {
+                    throw new IllegalArgumentException("Too many squares in rank " + row + " of FEN: " + fen);
+                }
+                var color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                board.addPiece(CPosition.of(row, col), CPiece.of(color, pieceType(c)));
+                col++;
+            }
+        }
+
+        var game = new CGame(boardType);
+        game.setBoard(board);
+        if (fields.length > 1 && fields[1].equals("b")) {
+            game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        }
+        return game;
+    }
+
+    /**
+     * @param c a FEN piece letter, in either case
+     * @return the piece type it stands for
+     * @throws IllegalArgumentException if the letter is not a piece
+     */
+    private static ChessPiece.PieceType pieceType(char c) {
+        return switch (Character.toLowerCase(c)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> throw new IllegalArgumentException("Unknown piece in FEN: " + c);
+        };
+    }
+}
@@ -0,0 +1,127 @@
+package chessGameImpl;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size cache of every legal move of a team in a position, shared by all games and safe to use from many
+ * threads at once. Entries are found by the position's Zobrist key and the team to move, and each slot holds at most
+ * one entry, so a new position simply replaces whatever was in its slot and the cache never grows.
+ * <p>
+ * Moves are stored as shorts, since a move packed by {@link Move} fits in 16 bits.
+ */
+public class LegalMoveCache {
+    /**
+     * How many entries the shared cache holds
+     */
+    private static final int SHARED_ENTRIES = 1 << 16;
+
+    /**
+     * The cache used by every CGame
+     */
+    public static final LegalMoveCache SHARED = new LegalMoveCache(SHARED_ENTRIES);
+
+    /**
+     * A cached set of legal moves
+     *
+     * @param key   the key of the position and team the moves are for
+     * @param moves the packed moves, which must not be changed once cached
+     */
+    private record Entry(long key, short[] moves) {
+    }
+
+    /**
+     * The slots, indexed by the low bits of the key
+     */
+    private final AtomicReferenceArray<Entry> entries;
+
+    /**
+     * Mask that turns a key into a slot index
+     */
+    private final int mask;
+
+    /**
+     * How many lookups found their moves
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * How many lookups did not find their moves
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructor for a LegalMoveCache
+     *
+     * @param size how many entries to hold, rounded up to a power of two
+     */
+    public LegalMoveCache(int size) {
+        int capacity = Integer.highestOneBit(Math.max(size - 1, 1)) << 1;
+        entries = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Looks up the legal moves for a key
+     *
+     * @param key the key of the position and team to move
+     * @return the packed moves as shorts, which must not be changed, or null if they are not cached
+     */
+    public short[] get(long key) {
+        var entry = entries.get((int) key & mask);
+        if (entry != null && entry.key() == key) {
+            hits.increment();
+            return entry.moves();
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Caches the legal moves for a key, replacing whatever was in its slot
+     *
+     * @param key   the key of the position and team to move
+     * @param moves the legal moves
+     * @return the moves as they were stored, which must not be changed
+     */
+    public short[] put(long key, MoveList moves) {
+        var packed = new short[moves.size()];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = (short) moves.get(i);
+        }
+        entries.set((int) key & mask, new Entry(key, packed));
+        return packed;
+    }
+
+    /**
+     * Empties the cache and resets its counters
+     */
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++) {
+            entries.set(i, null);
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * @return how many lookups found their moves
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return how many lookups did not find their moves
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return how many entries the cache can hold
+     */
+    public int capacity() {
+        return entries.length();
+    }
+}
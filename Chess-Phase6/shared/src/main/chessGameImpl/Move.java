@@ -0,0 +1,141 @@
+package chessGameImpl;
+
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+/**
+ * Moves packed into an int, so move generation and search can pass them around without allocating.
+ * <pre>
+ *   bits  0-5   start square, numbered like a BitBoard
+ *   bits  6-11  end square
+ *   bits 12-14  promotion piece type ordinal + 1, or 0 for no promotion
+ *   bit  15     set if the move captures a piece
+ * </pre>
+ * The capture flag is extra information filled in by the move generator; two moves are the same move when their
+ * squares and promotion match, which is what {@link #MOVE_MASK} keeps.
+ */
+public class Move {
+    /**
+     * No move. Square a1 to a1 is never a real move, so 0 is free to mean none.
+     */
+    public static final int NONE = 0;
+
+    /**
+     * Set on moves that capture a piece
+     */
+    public static final int CAPTURE = 1 << 15;
+
+    /**
+     * The bits that identify a move, without its flags
+     */
+    public static final int MOVE_MASK = (1 << 15) - 1;
+
+    /**
+     * Piece types in ordinal order, so promotions can be decoded without calling values()
+     */
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    /**
+     * Utility class, not instantiated
+     */
+    private Move() {
+    }
+
+    /**
+     * @param from      the start square
+     * @param to        the end square
+     * @param promotion the piece type to promote to, or null
+     * @param flags     extra flags such as {@link #CAPTURE}, or 0
+     * @return the packed move
+     */
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        return from | to << 6 | (promotion == null ? 0 : promotion.ordinal() + 1) << 12 | flags;
+    }
+
+    /**
+     * @param move a move
+     * @return the packed move, without flags
+     * @throws IllegalArgumentException if either position is off the board
+     */
+    public static int encode(ChessMove move) {
+        return encode(move.getStartPosition(), move.getEndPosition(), move.getPromotionPiece());
+    }
+
+    /**
+     * @param start     the start position
+     * @param end       the end position
+     * @param promotion the piece type to promote to, or null
+     * @return the packed move, without flags
+     * @throws IllegalArgumentException if either position is off the board
+     */
+    public static int encode(ChessPosition start, ChessPosition end, ChessPiece.PieceType promotion) {
+        if (!BitBoard.onBoard(start) || !BitBoard.onBoard(end)) {
+            throw new IllegalArgumentException("Move is off the board: " + start + " to " + end);
+        }
+        return encode(BitBoard.square(start), BitBoard.square(end), promotion, 0);
+    }
+
+    /**
+     * @param move a packed move
+     * @return the start square
+     */
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    /**
+     * @param move a packed move
+     * @return the end square
+     */
+    public static int to(int move) {
+        return move >>> 6 & 63;
+    }
+
+    /**
+     * @param move a packed move
+     * @return the piece type to promote to, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotion = move >>> 12 & 7;
+        return promotion == 0 ? null : TYPES[promotion - 1];
+    }
+
+    /**
+     * @param move a packed move
+     * @return true if the move captures a piece
+     */
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    /**
+     * @param move a packed move
+     * @return the move as a shared ChessMove
+     */
+    public static ChessMove toChessMove(int move) {
+        return CMove.of(move);
+    }
+
+    /**
+     * @param move a packed move
+     * @return the move written as its start and end squares plus any promotion letter, like e2e4 or a7a8q
+     */
+    public static String toString(int move) {
+        var name = new StringBuilder(5);
+        for (int sq : new int[]{from(move), to(move)}) {
+            name.append((char) ('a' + sq % 8)).append((char) ('1' + sq / 8));
+        }
+        var promotion = promotion(move);
+        if (promotion != null) {
+            name.append(switch (promotion) {
+                case QUEEN -> 'q';
+                case ROOK -> 'r';
+                case BISHOP -> 'b';
+                case KNIGHT -> 'n';
+                default -> '?';
+            });
+        }
+        return name.toString();
+    }
+}
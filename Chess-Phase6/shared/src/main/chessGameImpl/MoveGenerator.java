@@ -0,0 +1,208 @@
+package chessGameImpl;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Generates moves on a BitBoard as packed ints into a MoveList, without allocating.
+ * The addMoves methods give pseudo-legal moves: they follow how each piece moves but may leave the mover's own king
+ * in check. addLegalMoves gives only legal moves, by working out the checks and pins on the king before generating
+ * anything, so no move has to be made and taken back to test it.
+ */
+public class MoveGenerator {
+    /**
+     * The piece types a pawn can promote to
+     */
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT
+    };
+
+    /**
+     * Piece types in ordinal order, so piece indexes can be decoded without calling values()
+     */
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    /**
+     * Utility class, not instantiated
+     */
+    private MoveGenerator() {
+    }
+
+    /**
+     * Adds the moves of every piece of a team
+     *
+     * @param board the board to look at
+     * @param color the team to move
+     * @param moves the list to add the moves to
+     */
+    public static void addMoves(BitBoard board, ChessGame.TeamColor color, MoveList moves) {
+        int first = BitBoard.pieceIndex(color, ChessPiece.PieceType.KING);
+        for (int index = first; index < first + 6; index++) {
+            for (long pieces = board.getPieces(index); pieces != 0; pieces &= pieces - 1) {
+                addMoves(board, TYPES[index - first], color, Long.numberOfTrailingZeros(pieces), moves);
+            }
+        }
+    }
+
+    /**
+     * Adds the moves of one piece. The piece does not have to be on the board, so its type and team are given.
+     *
+     * @param board the board to look at
+     * @param type  the piece's type
+     * @param color the piece's team
+     * @param sq    the piece's square
+     * @param moves the list to add the moves to
+     */
+    public static void addMoves(BitBoard board, ChessPiece.PieceType type, ChessGame.TeamColor color, int sq, MoveList moves) {
+        addMoves(board, type, color, sq, -1L, moves);
+    }
+
+    /**
+     * Adds every legal move of a team. When the king is in check, only moves that capture the checking piece or
+     * block its line are generated for the other pieces, and in double check only the king moves. A piece pinned to
+     * its king only moves along the pin. The king only steps onto squares the other team does not attack.
+     * A team with no king can never be in check, so every pseudo-legal move is legal for it.
+     *
+     * @param board the board to look at
+     * @param color the team to move
+     * @param moves the list to add the moves to
+     */
+    public static void addLegalMoves(BitBoard board, ChessGame.TeamColor color, MoveList moves) {
+        long kings = board.getPieces(color, ChessPiece.PieceType.KING);
+        if (kings == 0) {
+            addMoves(board, color, moves);
+            return;
+        }
+
+        var enemy = color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long occupied = board.getOccupied();
+        long enemies = board.getTeam(enemy);
+        int king = Long.numberOfTrailingZeros(kings);
+
+        //The king is lifted off the board so a slider checking it also covers the squares behind it
+        long withoutKing = occupied ^ 1L << king;
+        for (long targets = Attacks.king(king) & ~board.getTeam(color); targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            if (Attacks.attackersOf(board, to, enemy, withoutKing) == 0) {
+                moves.add(Move.encode(king, to, null, (enemies & 1L << to) != 0 ? Move.CAPTURE : 0));
+            }
+        }
+
+        long checkers = Attacks.attackersOf(board, king, enemy, occupied);
+        if ((checkers & checkers - 1) != 0) {
+            return;
+        }
+        long allowed = checkers == 0 ? -1L : checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+        long pinned = pinnedPieces(board, color, king);
+
+        int first = BitBoard.pieceIndex(color, ChessPiece.PieceType.KING);
+        for (int index = first; index < first + 6; index++) {
+            long pieces = board.getPieces(index);
+            if (index == first) {
+                pieces &= ~(1L << king);
+            }
+            for (; pieces != 0; pieces &= pieces - 1) {
+                int sq = Long.numberOfTrailingZeros(pieces);
+                long pieceAllowed = (pinned & 1L << sq) != 0 ? allowed & Attacks.line(king, sq) : allowed;
+                addMoves(board, TYPES[index - first], color, sq, pieceAllowed, moves);
+            }
+        }
+    }
+
+    /**
+     * Finds a team's pieces that are pinned to its king, meaning they are the only piece between the king and an
+     * enemy slider that would attack it along that line
+     *
+     * @param board the board to look at
+     * @param color the team whose pieces to look at
+     * @param king  the team's king square
+     * @return the squares of the pinned pieces
+     */
+    private static long pinnedPieces(BitBoard board, ChessGame.TeamColor color, int king) {
+        var enemy = color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long own = board.getTeam(color);
+        long enemies = board.getTeam(enemy);
+        long queens = board.getPieces(enemy, ChessPiece.PieceType.QUEEN);
+
+        //Look through our own pieces from the king to find enemy sliders lined up on it
+        long snipers = (Attacks.rook(king, enemies) & (board.getPieces(enemy, ChessPiece.PieceType.ROOK) | queens))
+                | (Attacks.bishop(king, enemies) & (board.getPieces(enemy, ChessPiece.PieceType.BISHOP) | queens));
+        long pinned = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Attacks.between(king, Long.numberOfTrailingZeros(snipers)) & (own | enemies);
+            if (blockers != 0 && (blockers & blockers - 1) == 0) {
+                pinned |= blockers & own;
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * Adds the moves of one piece that land on allowed squares
+     *
+     * @param board   the board to look at
+     * @param type    the piece's type
+     * @param color   the piece's team
+     * @param sq      the piece's square
+     * @param allowed the squares the piece may move to
+     * @param moves   the list to add the moves to
+     */
+    private static void addMoves(BitBoard board, ChessPiece.PieceType type, ChessGame.TeamColor color, int sq,
+                                 long allowed, MoveList moves) {
+        var enemy = color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long enemies = board.getTeam(enemy);
+        if (type == ChessPiece.PieceType.PAWN) {
+            addPawnMoves(board, color, sq, enemies, allowed, moves);
+            return;
+        }
+        long targets = Attacks.attacks(type, color, sq, board.getOccupied()) & ~board.getTeam(color) & allowed;
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            moves.add(Move.encode(sq, to, null, (enemies & 1L << to) != 0 ? Move.CAPTURE : 0));
+        }
+    }
+
+    /**
+     * Adds a pawn's captures, its single step forward, its double step from its starting row, and promotions on
+     * reaching the last row
+     *
+     * @param board   the board to look at
+     * @param color   the pawn's team
+     * @param sq      the pawn's square
+     * @param enemies every square held by the other team
+     * @param allowed the squares the pawn may move to
+     * @param moves   the list to add the moves to
+     */
+    private static void addPawnMoves(BitBoard board, ChessGame.TeamColor color, int sq, long enemies, long allowed,
+                                     MoveList moves) {
+        boolean white = color == ChessGame.TeamColor.WHITE;
+        int row = sq / 8;
+        if (row == (white ? 7 : 0)) {
+            return;
+        }
+        int forward = white ? 8 : -8;
+        long empty = ~board.getOccupied();
+
+        long targets = Attacks.pawn(color, sq) & enemies;
+        long oneAhead = 1L << (sq + forward) & empty;
+        targets |= oneAhead;
+        if (row == (white ? 1 : 6) && oneAhead != 0) {
+            targets |= 1L << (sq + 2 * forward) & empty;
+        }
+
+        targets &= allowed;
+
+        boolean promotes = row == (white ? 6 : 1);
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            int flags = (enemies & 1L << to) != 0 ? Move.CAPTURE : 0;
+            if (!promotes) {
+                moves.add(Move.encode(sq, to, null, flags));
+                continue;
+            }
+            for (var promotion : PROMOTIONS) {
+                moves.add(Move.encode(sq, to, promotion, flags));
+            }
+        }
+    }
+}
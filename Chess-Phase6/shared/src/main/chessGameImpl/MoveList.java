@@ -0,0 +1,199 @@
+package chessGameImpl;
+
+import chess.ChessMove;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A reusable list of moves packed as ints by {@link Move}. Clearing a list keeps its array, so a list kept per
+ * search ply or per game can be filled over and over without allocating.
+ */
+public class MoveList {
+    /**
+     * Enough room for the legal moves of any reachable position
+     */
+    private static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * The moves, of which the first size are in use
+     */
+    private int[] moves;
+
+    /**
+     * The number of moves in the list
+     */
+    private int size = 0;
+
+    /**
+     * Constructor for an empty MoveList
+     */
+    public MoveList() {
+        moves = new int[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Adds a move to the end of the list
+     *
+     * @param move the packed move
+     */
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    /**
+     * @param index the position in the list
+     * @return the packed move at that position
+     */
+    public int get(int index) {
+        return moves[index];
+    }
+
+    /**
+     * Replaces the move at a position, for reordering the list in place
+     *
+     * @param index the position in the list
+     * @param move  the packed move to put there
+     */
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    /**
+     * Removes the move at a position by moving the last move into its place, so the order is not kept
+     *
+     * @param index the position in the list
+     */
+    public void removeAt(int index) {
+        moves[index] = moves[--size];
+    }
+
+    /**
+     * @param move a packed move, with or without flags
+     * @return true if the list holds the same move, ignoring flags
+     */
+    public boolean contains(int move) {
+        return indexOf(move) >= 0;
+    }
+
+    /**
+     * @param move a packed move, with or without flags
+     * @return the position of the same move in the list, ignoring flags, or -1 if it is not there
+     */
+    public int indexOf(int move) {
+        int target = move & Move.MOVE_MASK;
+        for (int i = 0; i < size; i++) {
+            if ((moves[i] & Move.MOVE_MASK) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Empties the list, keeping its storage
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the number of moves in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the list has no moves
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Takes a snapshot of the list as ChessMoves. The snapshot copies the packed moves once and only creates
+     * ChessMove objects as it is iterated, and contains checks the packed moves directly. It cannot be changed, and it
+     * does not follow later changes to this list.
+     *
+     * @return the moves as a Collection of ChessMoves
+     */
+    public Collection<ChessMove> asChessMoves() {
+        return new ChessMoves(Arrays.copyOf(moves, size));
+    }
+
+    /**
+     * A read-only Collection of ChessMoves over packed moves
+     */
+    private static class ChessMoves extends AbstractCollection<ChessMove> {
+        /**
+         * The packed moves
+         */
+        private final int[] moves;
+
+        /**
+         * Constructor for ChessMoves
+         *
+         * @param moves the packed moves, which the collection takes ownership of
+         */
+        ChessMoves(int[] moves) {
+            this.moves = moves;
+        }
+
+        /**
+         * @return an iterator that unpacks each move as it is reached
+         */
+        @Override
+        public Iterator<ChessMove> iterator() {
+            return new Iterator<>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < moves.length;
+                }
+
+                @Override
+                public ChessMove next() {
+                    if (next >= moves.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return Move.toChessMove(moves[next++]);
+                }
+            };
+        }
+
+        /**
+         * @return the number of moves
+         */
+        @Override
+        public int size() {
+            return moves.length;
+        }
+
+        /**
+         * @param o the object to look for
+         * @return true if o is a ChessMove with the same squares and promotion as one of the moves
+         */
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof ChessMove move) || !BitBoard.onBoard(move.getStartPosition())
+                    || !BitBoard.onBoard(move.getEndPosition())) {
+                return false;
+            }
+            int target = Move.encode(move);
+            for (int m : moves) {
+                if ((m & Move.MOVE_MASK) == target) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,483 @@
+package chessGameImpl;
+
+import chess.ChessBoard;
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Material and piece-square values for scoring positions, with separate middlegame and endgame values that are
+ * blended by how much material is left on the board.
+ * <p>
+ * Boards keep two running totals, like their Zobrist key: the sum of {@link #score} over their pieces and the sum of
+ * {@link #phase}. Adding or removing a piece only adds or subtracts its entries, so a board can give its evaluation
+ * at any time without looking at its squares.
+ * <p>
+ * A piece's middlegame and endgame values are packed into one int, the middlegame value times 65536 plus the endgame
+ * value, so a single addition updates both. Scores are from white's point of view, so black's entries are negated.
+ * The values are Ronald Friederich's PeSTO tables unless a tuned weights file is loaded with {@link #load(Path)}.
+ * <p>
+ * The weights can also be handled as one flat array of {@link #WEIGHT_COUNT} ints: the middlegame material values,
+ * the endgame material values, the middlegame tables and then the endgame tables, each in piece type ordinal order
+ * and with the tables drawn as below. A weights file is the same numbers as text, each group headed by its name, with
+ * lines starting with '#' ignored.
+ */
+public class PieceSquareTables {
+    /**
+     * The phase of a board with every piece but the pawns and kings still on it
+     */
+    public static final int MAX_PHASE = 24;
+
+    /**
+     * Where the middlegame material values start in a weights array
+     */
+    public static final int MIDDLEGAME_MATERIAL = 0;
+
+    /**
+     * Where the endgame material values start in a weights array
+     */
+    public static final int ENDGAME_MATERIAL = 6;
+
+    /**
+     * Where the middlegame piece-square tables start in a weights array
+     */
+    public static final int MIDDLEGAME_SQUARES = 12;
+
+    /**
+     * Where the endgame piece-square tables start in a weights array
+     */
+    public static final int ENDGAME_SQUARES = MIDDLEGAME_SQUARES + 6 * 64;
+
+    /**
+     * How many numbers a weights array holds
+     */
+    public static final int WEIGHT_COUNT = ENDGAME_SQUARES + 6 * 64;
+
+    /**
+     * How much each piece type counts towards the phase, in piece type ordinal order
+     */
+    private static final int[] TYPE_PHASES = {0, 4, 1, 1, 2, 0};
+
+    /**
+     * Middlegame material values, in piece type ordinal order
+     */
+    private static final int[] MIDDLEGAME_VALUES = {0, 1025, 365, 337, 477, 82};
+
+    /**
+     * Endgame material values, in piece type ordinal order
+     */
+    private static final int[] ENDGAME_VALUES = {0, 936, 297, 281, 512, 94};
+
+    /**
+     * Middlegame piece-square bonuses for white, in piece type ordinal order. Each table is written as the board is
+     * drawn, with the eighth row first.
+     */
+    private static final int[][] MIDDLEGAME_TABLES = {
+            {
+                    -65, 23, 16, -15, -56, -34, 2, 13,
+                    29, -1, -20, -7, -8, -4, -38, -29,
+                    -9, 24, 2, -16, -20, 6, 22, -22,
+                    -17, -20, -12, -27, -30, -25, -14, -36,
+                    -49, -1, -27, -39, -46, -44, -33, -51,
+                    -14, -14, -22, -46, -44, -30, -15, -27,
+                    1, 7, -8, -64, -43, -16, 9, 8,
+                    -15, 36, 12, -54, 8, -28, 24, 14,
+            }, {
+                    -28, 0, 29, 12, 59, 44, 43, 45,
+                    -24, -39, -5, 1, -16, 57, 28, 54,
+                    -13, -17, 7, 8, 29, 56, 47, 57,
+                    -27, -27, -16, -16, -1, 17, -2, 1,
+                    -9, -26, -9, -10, -2, -4, 3, -3,
+                    -14, 2, -11, -2, -5, 2, 14, 5,
+                    -35, -8, 11, 2, 8, 15, -3, 1,
+                    -1, -18, -9, 10, -15, -25, -31, -50,
+            }, {
+                    -29, 4, -82, -37, -25, -42, 7, -8,
+                    -26, 16, -18, -13, 30, 59, 18, -47,
+                    -16, 37, 43, 40, 35, 50, 37, -2,
+                    -4, 5, 19, 50, 37, 37, 7, -2,
+                    -6, 13, 13, 26, 34, 12, 10, 4,
+                    0, 15, 15, 15, 14, 27, 18, 10,
+                    4, 15, 16, 0, 7, 21, 33, 1,
+                    -33, -3, -14, -21, -13, -12, -39, -21,
+            }, {
+                    -167, -89, -34, -49, 61, -97, -15, -107,
+                    -73, -41, 72, 36, 23, 62, 7, -17,
+                    -47, 60, 37, 65, 84, 129, 73, 44,
+                    -9, 17, 19, 53, 37, 69, 18, 22,
+                    -13, 4, 16, 13, 28, 19, 21, -8,
+                    -23, -9, 12, 10, 19, 17, 25, -16,
+                    -29, -53, -12, -3, -1, 18, -14, -19,
+                    -105, -21, -58, -33, -17, -28, -19, -23,
+            }, {
+                    32, 42, 32, 51, 63, 9, 31, 43,
+                    27, 32, 58, 62, 80, 67, 26, 44,
+                    -5, 19, 26, 36, 17, 45, 61, 16,
+                    -24, -11, 7, 26, 24, 35, -8, -20,
+                    -36, -26, -12, -1, 9, -7, 6, -23,
+                    -45, -25, -16, -17, 3, 0, -5, -33,
+                    -44, -16, -20, -9, -1, 11, -6, -71,
+                    -19, -13, 1, 17, 16, 7, -37, -26,
+            }, {
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    98, 134, 61, 95, 68, 126, 34, -11,
+                    -6, 7, 26, 31, 65, 56, 25, -20,
+                    -14, 13, 6, 21, 23, 12, 17, -23,
+                    -27, -2, -5, 12, 17, 6, 10, -25,
+                    -26, -4, -4, -10, 3, 3, 33, -12,
+                    -35, -1, -20, -23, -15, 24, 38, -22,
+                    0, 0, 0, 0, 0, 0, 0, 0,
+            }
+    };
+
+    /**
+     * Endgame piece-square bonuses for white, laid out like {@link #MIDDLEGAME_TABLES}
+     */
+    private static final int[][] ENDGAME_TABLES = {
+            {
+                    -74, -35, -18, -18, -11, 15, 4, -17,
+                    -12, 17, 14, 17, 17, 38, 23, 11,
+                    10, 17, 23, 15, 20, 45, 44, 13,
+                    -8, 22, 24, 27, 26, 33, 26, 3,
+                    -18, -4, 21, 24, 27, 23, 9, -11,
+                    -19, -3, 11, 21, 23, 16, 7, -9,
+                    -27, -11, 4, 13, 14, 4, -5, -17,
+                    -53, -34, -21, -11, -28, -14, -24, -43,
+            }, {
+                    -9, 22, 22, 27, 27, 19, 10, 20,
+                    -17, 20, 32, 41, 58, 25, 30, 0,
+                    -20, 6, 9, 49, 47, 35, 19, 9,
+                    3, 22, 24, 45, 57, 40, 57, 36,
+                    -18, 28, 19, 47, 31, 34, 39, 23,
+                    -16, -27, 15, 6, 9, 17, 10, 5,
+                    -22, -23, -30, -16, -16, -23, -36, -32,
+                    -33, -28, -22, -43, -5, -32, -20, -41,
+            }, {
+                    -14, -21, -11, -8, -7, -9, -17, -24,
+                    -8, -4, 7, -12, -3, -13, -4, -14,
+                    2, -8, 0, -1, -2, 6, 0, 4,
+                    -3, 9, 12, 9, 14, 10, 3, 2,
+                    -6, 3, 13, 19, 7, 10, -3, -9,
+                    -12, -3, 8, 10, 13, 3, -7, -15,
+                    -14, -18, -7, -1, 4, -9, -15, -27,
+                    -23, -9, -23, -5, -9, -16, -5, -17,
+            }, {
+                    -58, -38, -13, -28, -31, -27, -63, -99,
+                    -25, -8, -25, -2, -9, -25, -24, -52,
+                    -24, -20, 10, 9, -1, -9, -19, -41,
+                    -17, 3, 22, 22, 22, 11, 8, -18,
+                    -18, -6, 16, 25, 16, 17, 4, -18,
+                    -23, -3, -1, 15, 10, -3, -20, -22,
+                    -42, -20, -10, -5, -2, -20, -23, -44,
+                    -29, -51, -23, -15, -22, -18, -50, -64,
+            }, {
+                    13, 10, 18, 15, 12, 12, 8, 5,
+                    11, 13, 13, 11, -3, 3, 8, 3,
+                    7, 7, 7, 5, 4, -3, -5, -3,
+                    4, 3, 13, 1, 2, 1, -1, 2,
+                    3, 5, 8, 4, -5, -6, -8, -11,
+                    -4, 0, -5, -1, -7, -12, -8, -16,
+                    -6, -6, 0, 2, -9, -9, -11, -3,
+                    -9, 2, 3, -1, -5, -13, 4, -20,
+            }, {
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    178, 173, 158, 134, 147, 132, 165, 187,
+                    94, 100, 85, 67, 56, 53, 82, 84,
+                    32, 24, 13, 5, -2, 4, 17, 17,
+                    13, 9, -3, -7, -7, -8, 3, -1,
+                    4, 7, -6, 1, 0, -5, -1, -8,
+                    13, 8, 8, 10, 13, 0, 2, -7,
+                    0, 0, 0, 0, 0, 0, 0, 0,
+            }
+    };
+
+    /**
+     * Packed scores, at pieceIndex * 64 + square
+     */
+    private static final int[] SCORES = new int[12 * 64];
+
+    /**
+     * Phase weights, by piece index
+     */
+    private static final int[] PHASES = new int[12];
+
+    /**
+     * The weights {@link #SCORES} was built from
+     */
+    private static int[] weights;
+
+    static {
+        for (int type = 0; type < 6; type++) {
+            PHASES[type] = TYPE_PHASES[type];
+            PHASES[type + 6] = TYPE_PHASES[type];
+        }
+        setWeights(defaultWeights());
+    }
+
+    /**
+     * Utility class, not instantiated
+     */
+    private PieceSquareTables() {
+    }
+
+    /**
+     * @return the built-in weights, as a weights array
+     */
+    public static int[] defaultWeights() {
+        var defaults = new int[WEIGHT_COUNT];
+        System.arraycopy(MIDDLEGAME_VALUES, 0, defaults, MIDDLEGAME_MATERIAL, 6);
+        System.arraycopy(ENDGAME_VALUES, 0, defaults, ENDGAME_MATERIAL, 6);
+        for (int type = 0; type < 6; type++) {
+            System.arraycopy(MIDDLEGAME_TABLES[type], 0, defaults, MIDDLEGAME_SQUARES + type * 64, 64);
+            System.arraycopy(ENDGAME_TABLES[type], 0, defaults, ENDGAME_SQUARES + type * 64, 64);
+        }
+        return defaults;
+    }
+
+    /**
+     * @return a copy of the weights in use
+     */
+    public static synchronized int[] getWeights() {
+        return weights.clone();
+    }
+
+    /**
+     * Replaces the weights in use. Boards keep running totals of the old weights, so this must be called before any
+     * board is made, normally at startup.
+     *
+     * @param newWeights a weights array
+     * @throws IllegalArgumentException if the array is the wrong length
+     */
+    public static synchronized void setWeights(int[] newWeights) {
+        if (newWeights.length != WEIGHT_COUNT) {
+            throw new IllegalArgumentException("Expected " + WEIGHT_COUNT + " weights, got " + newWeights.length);
+        }
+        weights = newWeights.clone();
+        for (int type = 0; type < 6; type++) {
+            for (int sq = 0; sq < 64; sq++) {
+                //The tables are drawn with the eighth row first, so white reads them flipped and black reads them as is
+                SCORES[type * 64 + sq] = weightedScore(type, sq ^ 56);
+                SCORES[(type + 6) * 64 + sq] = -weightedScore(type, sq);
+            }
+        }
+    }
+
+    /**
+     * Loads a weights file and puts it in use, under the same conditions as {@link #setWeights(int[])}
+     *
+     * @param path the weights file
+     * @throws IOException if the file cannot be read or is not a weights file
+     */
+    public static void load(Path path) throws IOException {
+        setWeights(readWeights(path));
+    }
+
+    /**
+     * Reads a weights file
+     *
+     * @param path the weights file
+     * @return the weights array it holds
+     * @throws IOException if the file cannot be read or is not a weights file
+     */
+    public static int[] readWeights(Path path) throws IOException {
+        var tokens = new StringBuilder();
+        for (var line : Files.readAllLines(path)) {
+            if (!line.startsWith("#")) {
+                tokens.append(line).append(' ');
+            }
+        }
+        var words = tokens.toString().trim().split("\\s+");
+        var read = new int[WEIGHT_COUNT];
+        int next = 0;
+        try {
+            for (var group : weightGroups()) {
+                if (next >= words.length || !words[next].equals(group)) {
+                    throw new IOException("Expected " + group + " in weights file " + path);
+                }
+                next++;
+                int start = groupStart(group);
+                int count = group.endsWith("material") ? 6 : 64;
+                for (int i = 0; i < count; i++) {
+                    read[start + i] = Integer.parseInt(words[next++]);
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Malformed weights file " + path, e);
+        }
+        if (next != words.length) {
+            throw new IOException("Unexpected " + words[next] + " in weights file " + path);
+        }
+        return read;
+    }
+
+    /**
+     * Writes a weights file, with each table laid out like the board
+     *
+     * @param path         where to write it
+     * @param weightsArray the weights array to write
+     * @param comment      a line describing where the weights came from
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeWeights(Path path, int[] weightsArray, String comment) throws IOException {
+        var text = new StringBuilder("# ").append(comment).append('\n');
+        for (var group : weightGroups()) {
+            text.append(group).append('\n');
+            int start = groupStart(group);
+            int count = group.endsWith("material") ? 6 : 64;
+            for (int i = 0; i < count; i += 8) {
+                var row = Arrays.copyOfRange(weightsArray, start + i, start + Math.min(i + 8, count));
+                for (int weight : row) {
+                    text.append(String.format("%5d", weight));
+                }
+                text.append('\n');
+            }
+        }
+        Files.writeString(path, text);
+    }
+
+    /**
+     * @return the names of the groups of a weights file, in order
+     */
+    private static String[] weightGroups() {
+        var types = ChessPiece.PieceType.values();
+        var groups = new String[2 + 2 * types.length];
+        groups[0] = "middlegame_material";
+        groups[1] = "endgame_material";
+        for (var type : types) {
+            groups[2 + type.ordinal()] = "middlegame_" + type.name().toLowerCase();
+            groups[2 + types.length + type.ordinal()] = "endgame_" + type.name().toLowerCase();
+        }
+        return groups;
+    }
+
+    /**
+     * @param group a group name from {@link #weightGroups()}
+     * @return where the group starts in a weights array
+     */
+    private static int groupStart(String group) {
+        if (group.endsWith("material")) {
+            return group.startsWith("middlegame") ? MIDDLEGAME_MATERIAL : ENDGAME_MATERIAL;
+        }
+        var type = ChessPiece.PieceType.valueOf(group.substring(group.indexOf('_') + 1).toUpperCase());
+        return (group.startsWith("middlegame") ? MIDDLEGAME_SQUARES : ENDGAME_SQUARES) + type.ordinal() * 64;
+    }
+
+    /**
+     * @param type        a piece type ordinal
+     * @param drawnSquare the square in the tables' drawn layout, eighth row first
+     * @return the packed middlegame and endgame value of the piece on that square under the weights in use
+     */
+    private static int weightedScore(int type, int drawnSquare) {
+        return pack(weights[MIDDLEGAME_MATERIAL + type] + weights[MIDDLEGAME_SQUARES + type * 64 + drawnSquare],
+                weights[ENDGAME_MATERIAL + type] + weights[ENDGAME_SQUARES + type * 64 + drawnSquare]);
+    }
+
+    /**
+     * @param middlegame a middlegame score
+     * @param endgame    an endgame score
+     * @return both scores packed into one int
+     */
+    public static int pack(int middlegame, int endgame) {
+        return middlegame * 65536 + endgame;
+    }
+
+    /**
+     * @param score a packed score
+     * @return its middlegame part
+     */
+    public static int middlegame(int score) {
+        return (score + 0x8000) >> 16;
+    }
+
+    /**
+     * @param score a packed score
+     * @return its endgame part
+     */
+    public static int endgame(int score) {
+        return (short) score;
+    }
+
+    /**
+     * @param pieceIndex the piece index, as given by {@link BitBoard#pieceIndex}
+     * @param sq         the square index
+     * @return the packed score of that piece standing on that square, from white's point of view
+     */
+    public static int score(int pieceIndex, int sq) {
+        return SCORES[pieceIndex * 64 + sq];
+    }
+
+    /**
+     * @param piece the piece, or null
+     * @param sq    the square index
+     * @return the packed score of that piece standing on that square, or 0 for no piece
+     */
+    public static int score(ChessPiece piece, int sq) {
+        if (piece == null) {
+            return 0;
+        }
+        return score(BitBoard.pieceIndex(piece.getTeamColor(), piece.getPieceType()), sq);
+    }
+
+    /**
+     * @param pieceIndex the piece index
+     * @return how much the piece counts towards the phase
+     */
+    public static int phase(int pieceIndex) {
+        return PHASES[pieceIndex];
+    }
+
+    /**
+     * @param piece the piece, or null
+     * @return how much the piece counts towards the phase, or 0 for no piece
+     */
+    public static int phase(ChessPiece piece) {
+        if (piece == null) {
+            return 0;
+        }
+        return phase(BitBoard.pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+    }
+
+    /**
+     * Blends the middlegame and endgame parts of a score by the phase. Promotions can push the phase past
+     * {@link #MAX_PHASE}, which counts as a full middlegame.
+     *
+     * @param score a packed score
+     * @param phase the phase, from 0 for bare kings and pawns upwards
+     * @return the blended score
+     */
+    public static int taper(int score, int phase) {
+        int middlegamePhase = Math.min(phase, MAX_PHASE);
+        return (middlegame(score) * middlegamePhase + endgame(score) * (MAX_PHASE - middlegamePhase)) / MAX_PHASE;
+    }
+
+    /**
+     * Adds up a board's packed score from scratch by looking at every square
+     *
+     * @param board the board to score
+     * @return the sum of the packed scores of every piece on the board
+     */
+    public static int score(ChessBoard board) {
+        int score = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            score += score(board.getPiece(CPosition.of(sq)), sq);
+        }
+        return score;
+    }
+
+    /**
+     * Adds up a board's phase from scratch by looking at every square
+     *
+     * @param board the board to look at
+     * @return the sum of the phase weights of every piece on the board
+     */
+    public static int phase(ChessBoard board) {
+        int phase = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            phase += phase(board.getPiece(CPosition.of(sq)));
+        }
+        return phase;
+    }
+}
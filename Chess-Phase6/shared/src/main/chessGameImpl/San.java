@@ -0,0 +1,113 @@
+package chessGameImpl;
+
+import chess.ChessPiece;
+
+/**
+ * Reads moves written in Standard Algebraic Notation, like "e4", "Nbd7", "exd5" or "e8=Q+", as found in PGN files.
+ * This ruleset has no castling or en passant, so castling moves and en passant captures are never found.
+ */
+public class San {
+    /**
+     * Utility class, not instantiated
+     */
+    private San() {
+    }
+
+    /**
+     * Finds the legal move a SAN string stands for in a game's current position
+     *
+     * @param game the game, whose turn decides which team is moving
+     * @param san  the move, with or without check marks and annotations like "+", "#", "!" or "?"
+     * @return the packed move, or {@link Move#NONE} if the string is not exactly one legal move
+     */
+    public static int parse(CGame game, String san) {
+        var text = san.replaceAll("[+#!?]", "");
+        if (text.startsWith("O-O") || text.startsWith("0-0") || text.length() < 2) {
+            return Move.NONE;
+        }
+
+        ChessPiece.PieceType promotion = null;
+        int equals = text.indexOf('=');
+        if (equals >= 0) {
+            if (equals + 1 >= text.length()) {
+                return Move.NONE;
+            }
+            promotion = pieceType(text.charAt(equals + 1));
+            text = text.substring(0, equals);
+        } else if (Character.isUpperCase(text.charAt(text.length() - 1))) {
+            //Some files leave out the equals sign, as in e8Q
+            promotion = pieceType(text.charAt(text.length() - 1));
+            text = text.substring(0, text.length() - 1);
+        }
+
+        var type = ChessPiece.PieceType.PAWN;
+        if (Character.isUpperCase(text.charAt(0))) {
+            type = pieceType(text.charAt(0));
+            text = text.substring(1);
+        }
+        if (type == null || text.length() < 2) {
+            return Move.NONE;
+        }
+        int to = square(text.charAt(text.length() - 2), text.charAt(text.length() - 1));
+        if (to < 0) {
+            return Move.NONE;
+        }
+
+        //Whatever is left before the end square tells apart pieces that could both reach it
+        int fromFile = -1;
+        int fromRank = -1;
+        for (char c : text.substring(0, text.length() - 2).toCharArray()) {
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            }
+        }
+
+        var board = BitBoard.asBitBoard(game.getBoard());
+        var moves = new MoveList();
+        game.legalMoves(moves);
+        int found = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = Move.from(move);
+            if (Move.to(move) != to || Move.promotion(move) != promotion
+                    || board.pieceIndexAt(from) % 6 != type.ordinal()
+                    || (fromFile >= 0 && from % 8 != fromFile) || (fromRank >= 0 && from / 8 != fromRank)) {
+                continue;
+            }
+            if (found != Move.NONE) {
+                return Move.NONE;
+            }
+            found = move & Move.MOVE_MASK;
+        }
+        return found;
+    }
+
+    /**
+     * @param file a file letter
+     * @param rank a rank digit
+     * @return the square index, or -1 if they are not a square
+     */
+    private static int square(char file, char rank) {
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            return -1;
+        }
+        return (rank - '1') * 8 + file - 'a';
+    }
+
+    /**
+     * @param c an upper case SAN piece letter
+     * @return the piece type, or null if the letter is not a piece
+     */
+    private static ChessPiece.PieceType pieceType(char c) {
+        return switch (c) {
+            case 'K' -> ChessPiece.PieceType.KING;
+            case 'Q' -> ChessPiece.PieceType.QUEEN;
+            case 'R' -> ChessPiece.PieceType.ROOK;
+            case 'B' -> ChessPiece.PieceType.BISHOP;
+            case 'N' -> ChessPiece.PieceType.KNIGHT;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,119 @@
+package chessGameImpl;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.util.Arrays;
+
+/**
+ * A stack of undo records for moves made in place on a ChessBoard.
+ * Each record holds the move packed by {@link Move} (and so its start, end and promotion), the piece that moved, the piece it captured,
+ * and whose turn it was. Records live in parallel arrays, so once the stack has grown to the depth it is used at,
+ * pushing and popping never touches the heap.
+ */
+public class UndoStack {
+    /**
+     * The packed moves that were made
+     */
+    private int[] moves = new int[16];
+
+    /**
+     * The pieces that made each move, before any promotion
+     */
+    private ChessPiece[] movedPieces = new ChessPiece[16];
+
+    /**
+     * The pieces captured by each move, or null where nothing was captured
+     */
+    private ChessPiece[] capturedPieces = new ChessPiece[16];
+
+    /**
+     * Whose turn it was before each move
+     */
+    private ChessGame.TeamColor[] turns = new ChessGame.TeamColor[16];
+
+    /**
+     * The number of records on the stack
+     */
+    private int size = 0;
+
+    /**
+     * Pushes a new undo record
+     *
+     * @param move          the packed move that was made
+     * @param movedPiece    the piece that made the move, before any promotion
+     * @param capturedPiece the piece that was captured, or null
+     * @param turn          whose turn it was before the move
+     */
+    public void push(int move, ChessPiece movedPiece, ChessPiece capturedPiece, ChessGame.TeamColor turn) {
+        if (size == moves.length) {
+            grow();
+        }
+        moves[size] = move;
+        movedPieces[size] = movedPiece;
+        capturedPieces[size] = capturedPiece;
+        turns[size] = turn;
+        size++;
+    }
+
+    /**
+     * Removes the top undo record
+     *
+     * @throws IllegalStateException if the stack is empty
+     */
+    public void pop() {
+        if (size == 0) {
+            throw new IllegalStateException("No moves to undo");
+        }
+        size--;
+        movedPieces[size] = null;
+        capturedPieces[size] = null;
+        turns[size] = null;
+    }
+
+    /**
+     * @return the packed move on top of the stack
+     */
+    public int peekMove() {
+        return moves[size - 1];
+    }
+
+    /**
+     * @return the piece that made the move on top of the stack
+     */
+    public ChessPiece peekMovedPiece() {
+        return movedPieces[size - 1];
+    }
+
+    /**
+     * @return the piece captured by the move on top of the stack, or null
+     */
+    public ChessPiece peekCapturedPiece() {
+        return capturedPieces[size - 1];
+    }
+
+    /**
+     * @return whose turn it was before the move on top of the stack
+     */
+    public ChessGame.TeamColor peekTurn() {
+        return turns[size - 1];
+    }
+
+    /**
+     * @return the number of records on the stack
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Doubles the capacity of every record array
+     */
+    private void grow() {
+        int capacity = moves.length * 2;
+        moves = Arrays.copyOf(moves, capacity);
+        movedPieces = Arrays.copyOf(movedPieces, capacity);
+        capturedPieces = Arrays.copyOf(capturedPieces, capacity);
+        turns = Arrays.copyOf(turns, capacity);
+    }
+}
@@ -0,0 +1,87 @@
+package chessGameImpl;
+
+import chess.ChessBoard;
+import chess.ChessPiece;
+
+/**
+ * Zobrist hashing keys. A position's key is the XOR of one random 64-bit key per piece on the board, plus a key for
+ * black to move, so a move only has to XOR out the squares it empties and XOR in the squares it fills.
+ * The keys come from a fixed seed so a position has the same key on every run, which lets keys be stored on disk.
+ * <p>
+ * This ruleset has no castling rights or en passant squares, so there is no state beyond the pieces and the side
+ * to move to hash.
+ */
+public class Zobrist {
+    /**
+     * One key per piece index and square, at pieceIndex * 64 + square
+     */
+    private static final long[] PIECE_SQUARES = new long[12 * 64];
+
+    /**
+     * XORed into a position's key when it is black's turn
+     */
+    public static final long BLACK_TO_MOVE;
+
+    static {
+        //A fixed seed keeps every key the same on every run
+        long[] seed = {0x9E3779B97F4A7C15L};
+        for (int i = 0; i < PIECE_SQUARES.length; i++) {
+            PIECE_SQUARES[i] = nextRandom(seed);
+        }
+        BLACK_TO_MOVE = nextRandom(seed);
+    }
+
+    /**
+     * Utility class, not instantiated
+     */
+    private Zobrist() {
+    }
+
+    /**
+     * @param pieceIndex the piece index, as given by {@link BitBoard#pieceIndex}
+     * @param sq         the square index
+     * @return the key for that piece standing on that square
+     */
+    public static long piece(int pieceIndex, int sq) {
+        return PIECE_SQUARES[pieceIndex * 64 + sq];
+    }
+
+    /**
+     * @param piece the piece, or null
+     * @param sq    the square index
+     * @return the key for that piece standing on that square, or 0 for no piece
+     */
+    public static long piece(ChessPiece piece, int sq) {
+        if (piece == null) {
+            return 0;
+        }
+        return piece(BitBoard.pieceIndex(piece.getTeamColor(), piece.getPieceType()), sq);
+    }
+
+    /**
+     * Hashes a board from scratch by looking at every square
+     *
+     * @param board the board to hash
+     * @return the XOR of the keys of every piece on the board
+     */
+    public static long hash(ChessBoard board) {
+        long key = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            key ^= piece(board.getPiece(CPosition.of(sq)), sq);
+        }
+        return key;
+    }
+
+    /**
+     * SplitMix64 random number generator
+     *
+     * @param seed the generator state, updated in place
+     * @return the next random number
+     */
+    private static long nextRandom(long[] seed) {
+        long z = (seed[0] += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -45,4 +45,35 @@ public interface ChessBoard {
      * @return A deep copy of the chessboard
      */
     ChessBoard copy();
+
+    /**
+     * Makes a move in place without checking if it is legal
+     *
+     * @param move the move to make
+     * @return the piece that was on the end position, or null if it was empty
+     */
+    ChessPiece makeMove(ChessMove move);
+
+    /**
+     * Takes back a move made with makeMove, restoring the board to how it was before
+     *
+     * @param move          the move to take back
+     * @param movedPiece    the piece that made the move, as it was before any promotion
+     * @param capturedPiece the piece returned by makeMove, or null if nothing was captured
+     */
+    void unmakeMove(ChessMove move, ChessPiece movedPiece, ChessPiece capturedPiece);
+
+    /**
+     * Gets the board's Zobrist key, kept up to date as pieces are added and moved
+     *
+     * @return a 64-bit hash of the pieces on the board
+     */
+    long getZobristKey();
+
+    /**
+     * Gets the board's material and piece-square score, kept up to date as pieces are added and moved
+     *
+     * @return the score in centipawns from white's point of view, blended between middlegame and endgame values
+     */
+    int getEvaluation();
 }
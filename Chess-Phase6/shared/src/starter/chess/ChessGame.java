@@ -40,6 +40,14 @@ public interface ChessGame {
      */
     Collection<ChessMove> validMoves(ChessPosition startPosition);
 
+    /**
+     * Determines if a move is valid for the piece on its start position, without making it
+     *
+     * @param move the move to check
+     * @return True if there is a piece on the start position and the move is one of its valid moves
+     */
+    boolean isValidMove(ChessMove move);
+
     /**
      * Makes a move in a chess game
      * 
@@ -73,6 +81,26 @@ public interface ChessGame {
      */
     boolean isInStalemate(TeamColor teamColor);
 
+    /**
+     * Works out whether a team is in check, checkmate or stalemate in a single pass over its moves
+     *
+     * @param teamColor which team to evaluate
+     * @return the team's status
+     */
+    GameStatus evaluateStatus(TeamColor teamColor);
+
+    /**
+     * A team's status after a move
+     *
+     * @param inCheck    True if the team's king is attacked
+     * @param legalMoves how many legal moves the team has. When the team is not in check an implementation may
+     *                   stop counting at 1, since one move is enough to rule out checkmate and stalemate
+     * @param checkmate  True if the team is in check and has no legal moves
+     * @param stalemate  True if the team is not in check and has no legal moves
+     */
+    record GameStatus(boolean inCheck, int legalMoves, boolean checkmate, boolean stalemate) {
+    }
+
     /**
      * Sets this game's chessboard with a given board
      * 
@@ -86,4 +114,12 @@ public interface ChessGame {
      * @return the chessboard
      */
     ChessBoard getBoard();
+
+    /**
+     * Gets a 64-bit Zobrist key identifying the current position, covering the pieces and whose turn it is.
+     * Equal positions have equal keys, and the key is kept up to date as moves are made.
+     *
+     * @return the position's key
+     */
+    long getPositionKey();
 }
@@ -31,7 +31,7 @@ public interface ChessMove {
     ChessPiece.PieceType getPromotionPiece();
 
     /**
-     * Custom TypeAdapter for ChessMove
+     * Custom TypeAdapter for ChessMove, which resolves to the shared CMove instances
      */
     class ChessMoveTA implements JsonDeserializer<ChessMove> {
 
@@ -45,8 +45,26 @@ public interface ChessMove {
          */
         @Override
         public ChessMove deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
-            var gson = new GsonBuilder().registerTypeAdapter(ChessPosition.class, new ChessPosition.CPositionTA()).create();
-            return gson.fromJson(jsonElement, CMove.class);
+            if (jsonElement == null || !jsonElement.isJsonObject()) {
+                throw new JsonParseException("Move is not an object: " + jsonElement);
+            }
+            var move = jsonElement.getAsJsonObject();
+            if (!move.has("start") || !move.has("end")) {
+                throw new JsonParseException("Move is missing its start or end: " + move);
+            }
+            var positionTA = new ChessPosition.CPositionTA();
+            var start = positionTA.deserialize(move.get("start"), ChessPosition.class, jsonDeserializationContext);
+            var end = positionTA.deserialize(move.get("end"), ChessPosition.class, jsonDeserializationContext);
+            var promotion = move.get("promotion");
+            ChessPiece.PieceType promotionPiece = null;
+            if (promotion != null && !promotion.isJsonNull()) {
+                try {
+                    promotionPiece = ChessPiece.PieceType.valueOf(promotion.getAsString());
+                } catch (IllegalArgumentException | IllegalStateException | UnsupportedOperationException e) {
+                    throw new JsonParseException("Unknown promotion piece: " + promotion, e);
+                }
+            }
+            return CMove.of(start, end, promotionPiece);
         }
     }
 }
@@ -25,7 +25,7 @@ public interface ChessPosition {
     int getColumn();
 
     /**
-     * Custom TypeAdapter for ChessPosition
+     * Custom TypeAdapter for ChessPosition, which resolves to the shared CPosition instances
      */
     class CPositionTA implements JsonDeserializer<CPosition> {
 
@@ -39,7 +39,20 @@ public interface ChessPosition {
          */
         @Override
         public CPosition deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
-            return new Gson().fromJson(jsonElement, CPosition.class);
+            if (jsonElement == null || !jsonElement.isJsonObject()) {
+                throw new JsonParseException("Position is not an object: " + jsonElement);
+            }
+            var position = jsonElement.getAsJsonObject();
+            var x = position.get("x");
+            var y = position.get("y");
+            if (x == null || y == null) {
+                throw new JsonParseException("Position is missing a coordinate: " + position);
+            }
+            try {
+                return CPosition.of(x.getAsInt(), y.getAsInt());
+            } catch (IllegalStateException | UnsupportedOperationException | NumberFormatException e) {
+                throw new JsonParseException("Position coordinates are not numbers: " + position, e);
+            }
         }
     }
 }
@@ -0,0 +1,82 @@
+package webSocketMessages.serverMessages;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represents the engine's live analysis of a game, sent to the users who asked for it.
+ * Scores are from white's point of view, so they can be drawn as an evaluation bar as they are.
+ */
+public class AnalysisMessage extends ServerMessage {
+
+    /**
+     * One of the engine's best lines
+     *
+     * @param score the score in centipawns for white
+     * @param mate  the number of moves until mate, negative if white is the one mated, or 0 if no mate is found
+     * @param pv    the moves of the line in long algebraic notation, separated by spaces, like "e2e4 e7e5"
+     */
+    public record Line(int score, int mate, String pv) {
+    }
+
+    private Integer gameID;
+
+    private int depth;
+
+    private List<Line> lines;
+
+    /**
+     * Constructs a new AnalysisMessage object with the specified game, depth and lines.
+     *
+     * @param gameID the ID of the game analyzed
+     * @param depth  how many plies deep the engine has searched
+     * @param lines  the engine's best lines, best first
+     */
+    public AnalysisMessage(Integer gameID, int depth, List<Line> lines) {
+        super(ServerMessageType.ANALYSIS);
+        this.gameID = gameID;
+        this.depth = depth;
+        this.lines = lines;
+    }
+
+    /**
+     * Gets the ID of the game analyzed.
+     *
+     * @return the game ID
+     */
+    public Integer getGameID() {
+        return gameID;
+    }
+
+    /**
+     * Gets how many plies deep the engine has searched.
+     *
+     * @return the depth
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Gets the engine's best lines, best first.
+     *
+     * @return the lines
+     */
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        if (!super.equals(o)) return false;
+        AnalysisMessage that = (AnalysisMessage) o;
+        return depth == that.depth && Objects.equals(gameID, that.gameID) && Objects.equals(lines, that.lines);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), gameID, depth, lines);
+    }
+}
@@ -0,0 +1,64 @@
+package webSocketMessages.userCommands;
+
+import Models.AuthToken;
+
+/**
+ * Represents a command to start or stop receiving the engine's live analysis of a game.
+ * Extends the UserGameCommand class.
+ */
+public class AnalyzeCommand extends UserGameCommand {
+    private Integer gameID;
+
+    private boolean subscribe;
+
+    /**
+     * Constructs an AnalyzeCommand object with the specified authentication token, game ID and subscription.
+     * Sets the command type to ANALYZE.
+     *
+     * @param authToken The authentication token of the user.
+     * @param gameID The ID of the game to analyze.
+     * @param subscribe True to start receiving analysis, false to stop.
+     */
+    public AnalyzeCommand(AuthToken authToken, Integer gameID, boolean subscribe) {
+        super(authToken);
+        this.gameID = gameID;
+        this.subscribe = subscribe;
+        this.commandType = CommandType.ANALYZE;
+    }
+
+    /**
+     * Returns the ID of the game to analyze.
+     *
+     * @return The game ID.
+     */
+    public Integer getGameID() {
+        return gameID;
+    }
+
+    /**
+     * Sets the ID of the game to analyze.
+     *
+     * @param gameID The game ID to set.
+     */
+    public void setGameID(Integer gameID) {
+        this.gameID = gameID;
+    }
+
+    /**
+     * Returns whether the user wants to start or stop receiving analysis.
+     *
+     * @return True to start, false to stop.
+     */
+    public boolean isSubscribe() {
+        return subscribe;
+    }
+
+    /**
+     * Sets whether the user wants to start or stop receiving analysis.
+     *
+     * @param subscribe True to start, false to stop.
+     */
+    public void setSubscribe(boolean subscribe) {
+        this.subscribe = subscribe;
+    }
+}
@@ -41,7 +41,8 @@ public class UserGameCommand {
         JOIN_OBSERVER,
         MAKE_MOVE,
         LEAVE,
-        RESIGN
+        RESIGN,
+        ANALYZE
     }
 
     protected CommandType commandType;
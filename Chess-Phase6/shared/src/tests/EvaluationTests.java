@@ -0,0 +1,89 @@
+import Benchmarks.Perft;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chessGameImpl.*;
+import com.google.gson.GsonBuilder;
+import org.junit.jupiter.api.*;
+
+import java.util.SplittableRandom;
+
+public class EvaluationTests {
+
+    @Test
+    public void testStartIsBalanced() {
+        for (var boardType : CGame.BoardType.values()) {
+            Assertions.assertEquals(0, new CGame(boardType).getBoard().getEvaluation());
+        }
+    }
+
+    @Test
+    public void testMirroredPositionsScoreOpposite() {
+        var game = Fen.parse("4k3/8/8/8/8/8/3PP3/3QK3 w - - 0 1", CGame.BoardType.BITBOARD);
+        var mirrored = Fen.parse("3qk3/3pp3/8/8/8/8/8/4K3 w - - 0 1", CGame.BoardType.BITBOARD);
+        Assertions.assertTrue(game.getBoard().getEvaluation() > 900);
+        Assertions.assertEquals(-game.getBoard().getEvaluation(), mirrored.getBoard().getEvaluation());
+    }
+
+    @Test
+    public void testRunningTotalsMatchFullScore() {
+        var random = new SplittableRandom(240);
+        var moves = new MoveList();
+        for (var boardType : CGame.BoardType.values()) {
+            for (var position : Perft.POSITIONS) {
+                var game = Fen.parse(position.fen(), boardType);
+                int start = game.getBoard().getEvaluation();
+                int made = 0;
+                for (; made < 40; made++) {
+                    game.legalMoves(moves);
+                    if (moves.isEmpty()) {
+                        break;
+                    }
+                    game.doMove(moves.get(random.nextInt(moves.size())));
+                    Assertions.assertEquals(fullScore(game.getBoard()), game.getBoard().getEvaluation(),
+                            boardType + " " + position.name());
+                }
+                for (int i = 0; i < made; i++) {
+                    game.undoMove();
+                }
+                Assertions.assertEquals(start, game.getBoard().getEvaluation());
+            }
+        }
+    }
+
+    @Test
+    public void testAddAndReplacePieceUpdateTotals() {
+        for (var boardType : CGame.BoardType.values()) {
+            var board = CGame.newBoard(boardType);
+            board.addPiece(CPosition.of(1, 5), CPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+            board.addPiece(CPosition.of(8, 5), CPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+            board.addPiece(CPosition.of(7, 1), CPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            board.addPiece(CPosition.of(8, 2), CPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+            board.replacePiece(CPosition.of(7, 1), CPosition.of(8, 2), ChessPiece.PieceType.QUEEN);
+            Assertions.assertEquals(fullScore(board), board.getEvaluation(), boardType.toString());
+
+            //Overwriting a piece replaces its score
+            board.addPiece(CPosition.of(8, 2), CPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+            Assertions.assertEquals(fullScore(board), board.getEvaluation(), boardType.toString());
+        }
+    }
+
+    @Test
+    public void testTotalsSurviveJson() {
+        for (var boardType : CGame.BoardType.values()) {
+            var game = Fen.parse(Perft.POSITIONS.get(1).fen(), boardType);
+            var gson = new GsonBuilder()
+                    .registerTypeAdapter(ChessGame.class, new CGame.ChessGameTA())
+                    .create();
+            var copy = gson.fromJson(CGame.toJSON(game), ChessGame.class);
+            Assertions.assertEquals(game.getBoard().getEvaluation(), copy.getBoard().getEvaluation());
+        }
+    }
+
+    /**
+     * @param board a board
+     * @return the board's evaluation worked out from every square
+     */
+    private static int fullScore(chess.ChessBoard board) {
+        return PieceSquareTables.taper(PieceSquareTables.score(board), PieceSquareTables.phase(board));
+    }
+}
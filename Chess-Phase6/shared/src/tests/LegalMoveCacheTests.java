@@ -0,0 +1,88 @@
+import Benchmarks.Perft;
+import chess.ChessGame;
+import chessGameImpl.*;
+import org.junit.jupiter.api.*;
+
+import java.util.HashSet;
+
+public class LegalMoveCacheTests {
+
+    @BeforeEach
+    public void setup() {
+        LegalMoveCache.SHARED.clear();
+    }
+
+    @Test
+    public void testRepeatedValidMovesHitCache() {
+        var game = new CGame();
+        var knight = CPosition.of(1, 2);
+        var first = new HashSet<>(game.validMoves(knight));
+        long misses = LegalMoveCache.SHARED.getMisses();
+
+        var second = new HashSet<>(game.validMoves(knight));
+        game.validMoves(CPosition.of(2, 5));
+        Assertions.assertTrue(game.isValidMove(CMove.of(CPosition.of(2, 5), CPosition.of(4, 5), null)));
+
+        Assertions.assertEquals(first, second);
+        Assertions.assertEquals(misses, LegalMoveCache.SHARED.getMisses());
+        Assertions.assertEquals(3, LegalMoveCache.SHARED.getHits());
+    }
+
+    @Test
+    public void testCachedMovesMatchGeneratedMoves() {
+        for (var position : Perft.POSITIONS) {
+            var game = Fen.parse(position.fen(), CGame.BoardType.BITBOARD);
+            var generated = new MoveList();
+            game.legalMoves(generated);
+
+            int cached = 0;
+            for (int sq = 0; sq < 64; sq++) {
+                var piece = game.getBoard().getPiece(CPosition.of(sq));
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    for (var move : game.validMoves(CPosition.of(sq))) {
+                        Assertions.assertTrue(generated.contains(Move.encode(move)), position.name() + " " + move);
+                        cached++;
+                    }
+                }
+            }
+            Assertions.assertEquals(generated.size(), cached, position.name());
+        }
+    }
+
+    @Test
+    public void testCacheFollowsBoardChanges() {
+        var game = new CGame();
+        var pawn = CPosition.of(2, 5);
+        Assertions.assertEquals(2, game.validMoves(pawn).size());
+
+        //Blocking the pawn changes the key, so the old moves must not be reused
+        game.getBoard().addPiece(CPosition.of(4, 5), CPiece.of(ChessGame.TeamColor.BLACK, chess.ChessPiece.PieceType.KNIGHT));
+        Assertions.assertEquals(1, game.validMoves(pawn).size());
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        var cache = new LegalMoveCache(1000);
+        Assertions.assertEquals(1024, cache.capacity());
+        var moves = new MoveList();
+        for (long key = 0; key < 5000; key++) {
+            cache.put(key, moves);
+        }
+        Assertions.assertNull(cache.get(0));
+        Assertions.assertNotNull(cache.get(4999));
+    }
+
+    @Test
+    public void testStatusStopsAtFirstLegalMoveWhenUncached() {
+        var game = new CGame();
+        var status = game.evaluateStatus(ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(1, status.legalMoves());
+        Assertions.assertFalse(status.checkmate() || status.stalemate());
+        Assertions.assertEquals(1, LegalMoveCache.SHARED.getMisses());
+
+        //Once the moves are cached they are all counted
+        game.validMoves(CPosition.of(2, 5));
+        Assertions.assertEquals(20, game.evaluateStatus(ChessGame.TeamColor.WHITE).legalMoves());
+        Assertions.assertEquals(1, LegalMoveCache.SHARED.getHits());
+    }
+}
@@ -0,0 +1,86 @@
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chessGameImpl.*;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.*;
+
+import java.util.HashSet;
+
+public class MoveTests {
+
+    @Test
+    public void testOffBoardStartIsInvalid() {
+        for (var boardType : CGame.BoardType.values()) {
+            var game = new CGame(boardType);
+            //Row 10 would wrap onto b2 if it were packed into a square
+            var move = new CMove(new CPosition(10, 2), new CPosition(3, 2), null);
+            Assertions.assertFalse(game.isValidMove(move), boardType.name());
+            Assertions.assertNull(game.validMoves(new CPosition(10, 2)), boardType.name());
+            Assertions.assertNull(game.getBoard().getPiece(new CPosition(10, 2)), boardType.name());
+            Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(move), boardType.name());
+            Assertions.assertEquals(new CGame(boardType).getBoard(), game.getBoard(), boardType.name());
+        }
+    }
+
+    @Test
+    public void testOffBoardMovesCanBeHashed() {
+        var moves = new HashSet<ChessMove>();
+        Assertions.assertTrue(moves.add(new CMove(new CPosition(9, 1), new CPosition(1, 1), null)));
+        Assertions.assertTrue(moves.add(new CMove(new CPosition(1, 1), new CPosition(1, 0), null)));
+        Assertions.assertTrue(moves.add(new CMove(new CPosition(1, 1), new CPosition(2, 2), null)));
+        Assertions.assertTrue(moves.contains(new CMove(new CPosition(9, 1), new CPosition(1, 1), null)));
+        Assertions.assertEquals(3, moves.size());
+    }
+
+    @Test
+    public void testOffBoardEndIsInvalid() {
+        for (var boardType : CGame.BoardType.values()) {
+            var game = new CGame(boardType);
+            ChessPosition start = new CPosition(2, 2);
+            for (var end : new CPosition[]{new CPosition(11, 2), new CPosition(3, 0), new CPosition(0, 2)}) {
+                var move = new CMove(start, end, null);
+                Assertions.assertFalse(game.isValidMove(move), boardType.name() + " " + end);
+                Assertions.assertFalse(game.validMoves(start).contains(move), boardType.name() + " " + end);
+                Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(move));
+            }
+            Assertions.assertEquals(new CGame(boardType).getBoard(), game.getBoard(), boardType.name());
+        }
+    }
+
+    @Test
+    public void testMalformedMoveJsonFailsToParse() {
+        var gson = new GsonBuilder().registerTypeAdapter(ChessMove.class, new ChessMove.ChessMoveTA()).create();
+        var move = gson.fromJson("{\"start\":{\"x\":7,\"y\":1},\"end\":{\"x\":8,\"y\":1},\"promotion\":\"QUEEN\"}",
+                ChessMove.class);
+        Assertions.assertEquals(CMove.of(CPosition.of(7, 1), CPosition.of(8, 1), chess.ChessPiece.PieceType.QUEEN), move);
+
+        for (var json : new String[]{
+                "{\"end\":{\"x\":3,\"y\":1}}",
+                "{\"start\":{\"x\":2,\"y\":1}}",
+                "{\"start\":{\"x\":2},\"end\":{\"x\":3,\"y\":1}}",
+                "{\"start\":{\"x\":\"two\",\"y\":1},\"end\":{\"x\":3,\"y\":1}}",
+                "{\"start\":{\"x\":7,\"y\":1},\"end\":{\"x\":8,\"y\":1},\"promotion\":\"DRAGON\"}",
+                "[1, 2]"}) {
+            Assertions.assertThrows(JsonParseException.class, () -> gson.fromJson(json, ChessMove.class), json);
+        }
+    }
+
+    @Test
+    public void testFinishingKeepsWhoseTurnItWas() {
+        var game = new CGame();
+        game.doMove(new CMove(new CPosition(2, 5), new CPosition(4, 5), null));
+        Assertions.assertNull(game.getFinishedTurn());
+
+        game.setTeamTurn(ChessGame.TeamColor.FINISHED);
+        game.setTeamTurn(ChessGame.TeamColor.FINISHED);
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getFinishedTurn());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.copy().getFinishedTurn());
+
+        var gson = new GsonBuilder().registerTypeAdapter(ChessGame.class, new CGame.ChessGameTA()).create();
+        var readBack = (CGame) gson.fromJson(CGame.toJSON(game), ChessGame.class);
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, readBack.getFinishedTurn());
+    }
+}
@@ -0,0 +1,84 @@
+import Benchmarks.Perft;
+import Engine.NnueEvaluator;
+import Engine.NnueNetwork;
+import Engine.Search;
+import Engine.SearchLimits;
+import Engine.TranspositionTable;
+import chess.ChessGame;
+import chessGameImpl.BitBoard;
+import chessGameImpl.CGame;
+import chessGameImpl.Fen;
+import chessGameImpl.MoveList;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+public class NnueTests {
+
+    private static final NnueNetwork NETWORK = NnueNetwork.random(32, 240);
+
+    @TempDir
+    Path folder;
+
+    private static int fullEvaluation(BitBoard board, ChessGame.TeamColor side) {
+        return new NnueEvaluator(NETWORK).evaluate(board.copy(), side);
+    }
+
+    @Test
+    public void testIncrementalMatchesRefresh() {
+        var random = new SplittableRandom(240);
+        var moves = new MoveList();
+        for (var position : Perft.POSITIONS) {
+            var game = Fen.parse(position.fen(), CGame.BoardType.BITBOARD);
+            var board = BitBoard.asBitBoard(game.getBoard());
+            var evaluator = new NnueEvaluator(NETWORK);
+            int start = evaluator.evaluate(board, game.getTeamTurn());
+            int made = 0;
+            for (; made < 40; made++) {
+                moves.clear();
+                game.legalMoves(moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                game.doMove(moves.get(random.nextInt(moves.size())));
+                Assertions.assertEquals(fullEvaluation(board, game.getTeamTurn()),
+                        evaluator.evaluate(board, game.getTeamTurn()), position.name());
+            }
+            for (int i = 0; i < made; i++) {
+                game.undoMove();
+            }
+            Assertions.assertEquals(start, evaluator.evaluate(board, game.getTeamTurn()));
+        }
+    }
+
+    @Test
+    public void testMirroredPositionsScoreTheSame() {
+        var game = Fen.parse("4k3/8/8/8/8/8/3PP3/3QK3 w - - 0 1", CGame.BoardType.BITBOARD);
+        var mirrored = Fen.parse("3qk3/3pp3/8/8/8/8/8/4K3 b - - 0 1", CGame.BoardType.BITBOARD);
+        Assertions.assertEquals(fullEvaluation(BitBoard.asBitBoard(game.getBoard()), ChessGame.TeamColor.WHITE),
+                fullEvaluation(BitBoard.asBitBoard(mirrored.getBoard()), ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    public void testNetworkFileRoundTrip() throws IOException {
+        var path = folder.resolve("net.nnue");
+        NETWORK.write(path);
+        var loaded = NnueNetwork.open(path);
+        Assertions.assertEquals(NETWORK.getHidden(), loaded.getHidden());
+        var board = BitBoard.asBitBoard(Fen.parse(Perft.POSITIONS.get(1).fen(), CGame.BoardType.BITBOARD).getBoard());
+        Assertions.assertEquals(new NnueEvaluator(NETWORK).evaluate(board, ChessGame.TeamColor.WHITE),
+                new NnueEvaluator(loaded).evaluate(board, ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    public void testSearchWithNetwork() {
+        var search = new Search(new NnueEvaluator(NETWORK), new TranspositionTable(1));
+        var game = Fen.parse("7k/8/6K1/8/8/8/8/1Q6 w - - 0 1", CGame.BoardType.BITBOARD);
+        var info = search.search(game, SearchLimits.depth(3));
+        Assertions.assertTrue(info.isMate());
+        Assertions.assertEquals("b1b8", chessGameImpl.Move.toString(info.bestMove()));
+    }
+}
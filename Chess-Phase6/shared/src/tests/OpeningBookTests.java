@@ -0,0 +1,110 @@
+import Engine.BookBuilder;
+import Engine.OpeningBook;
+import chessGameImpl.CGame;
+import chessGameImpl.Fen;
+import chessGameImpl.Move;
+import chessGameImpl.San;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class OpeningBookTests {
+
+    private static final String GAMES = """
+            [Event "First"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 {the usual} Nc6 3. Bb5 a6 (3... Nf6 4. O-O) 4. Ba4 Nf6 5. O-O Be7 1-0
+
+            [Event "Second"]
+            [Result "0-1"]
+
+            1.e4 c5 2.Nf3 d6 $1 3.d4 cxd4 4.Nxd4 Nf6 0-1
+
+            [Event "Third"]
+
+            1. d4 d5 ; a comment to the end of the line 2. c4
+            2. c4 e6 *
+            """;
+
+    @TempDir
+    Path folder;
+
+    private OpeningBook buildBook() throws IOException {
+        var builder = new BookBuilder(BookBuilder.DEFAULT_MAX_PLY);
+        builder.addPgn(GAMES);
+        Assertions.assertEquals(3, builder.getGames());
+        var path = folder.resolve("book.bin");
+        builder.write(path, 1);
+        return OpeningBook.open(path);
+    }
+
+    @Test
+    public void testStartPositionMovesByWeight() throws IOException {
+        var book = buildBook();
+        var moves = book.lookup(new CGame().getPositionKey());
+        Assertions.assertEquals(2, moves.size());
+        Assertions.assertEquals("e2e4", Move.toString(moves.get(0).move()));
+        Assertions.assertEquals(2, moves.get(0).weight());
+        Assertions.assertEquals("d2d4", Move.toString(moves.get(1).move()));
+        Assertions.assertEquals(1, moves.get(1).weight());
+    }
+
+    @Test
+    public void testSkipsCommentsVariationsAndCastling() throws IOException {
+        var book = buildBook();
+        //The variation 3... Nf6 is not counted, and the first game stops at castling
+        var game = Fen.parse("r1bqkbnr/1ppp1ppp/p1n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R w - - 0 1",
+                CGame.BoardType.BITBOARD);
+        var moves = book.lookup(game.getPositionKey());
+        Assertions.assertEquals(1, moves.size());
+        Assertions.assertEquals("b5a4", Move.toString(moves.get(0).move()));
+
+        var castlingPosition = Fen.parse("r1bqkb1r/1ppp1ppp/p1n2n2/4p3/B3P3/5N2/PPPP1PPP/RNBQK2R w - - 0 1",
+                CGame.BoardType.BITBOARD);
+        Assertions.assertTrue(book.lookup(castlingPosition.getPositionKey()).isEmpty());
+
+        //The line comment hides the first 2. c4, so it is only counted once
+        var queensGambit = Fen.parse("rnbqkbnr/ppp1pppp/8/3p4/3P4/8/PPP1PPPP/RNBQKBNR w - - 0 1",
+                CGame.BoardType.BITBOARD);
+        var gambit = book.lookup(queensGambit.getPositionKey());
+        Assertions.assertEquals(1, gambit.size());
+        Assertions.assertEquals(1, gambit.get(0).weight());
+    }
+
+    @Test
+    public void testPickMoveIsLegalAndMissesOutOfBook() throws IOException {
+        var book = buildBook();
+        var random = new Random(1);
+        for (int i = 0; i < 20; i++) {
+            int move = book.pickMove(new CGame(), random);
+            var text = Move.toString(move);
+            Assertions.assertTrue(text.equals("e2e4") || text.equals("d2d4"), text);
+        }
+        var outOfBook = Fen.parse("4k3/8/8/8/8/8/8/4K3 w - - 0 1", CGame.BoardType.BITBOARD);
+        Assertions.assertEquals(Move.NONE, book.pickMove(outOfBook, random));
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws IOException {
+        var path = folder.resolve("notabook.bin");
+        Files.writeString(path, "[Event \"not a book\"]\n");
+        Assertions.assertThrows(IOException.class, () -> OpeningBook.open(path));
+    }
+
+    @Test
+    public void testSanDisambiguation() {
+        var game = Fen.parse("4k3/8/8/8/8/8/4K3/R6R w - - 0 1", CGame.BoardType.BITBOARD);
+        Assertions.assertEquals(Move.NONE, San.parse(game, "Rd1"));
+        Assertions.assertEquals("a1d1", Move.toString(San.parse(game, "Rad1")));
+        Assertions.assertEquals("h1d1", Move.toString(San.parse(game, "Rhd1+")));
+
+        var promotion = Fen.parse("4k3/1P6/8/8/8/8/8/4K3 w - - 0 1", CGame.BoardType.BITBOARD);
+        Assertions.assertEquals("b7b8q", Move.toString(San.parse(promotion, "b8=Q")));
+        Assertions.assertEquals("b7b8n", Move.toString(San.parse(promotion, "b8N")));
+    }
+}
@@ -0,0 +1,72 @@
+import Benchmarks.ParallelPerft;
+import Benchmarks.Perft;
+import chessGameImpl.CGame;
+import chessGameImpl.Fen;
+import org.junit.jupiter.api.*;
+
+public class PerftTests {
+
+    /**
+     * Deep enough to reach promotions, checks and discovered checks in every standard position
+     */
+    private static final int DEPTH = 3;
+
+    @Test
+    public void testStandardPositions() {
+        for (var boardType : CGame.BoardType.values()) {
+            for (var position : Perft.POSITIONS) {
+                var game = Fen.parse(position.fen(), boardType);
+                Assertions.assertEquals(position.nodes()[DEPTH - 1], Perft.perft(game, DEPTH),
+                        boardType + " " + position.name());
+            }
+        }
+    }
+
+    @Test
+    public void testPinsAndChecks() {
+        //Pinned bishop, double check, pawn pinned on a diagonal, and a check blocked by a pinned knight
+        var positions = new Perft.TestPosition[]{
+                new Perft.TestPosition("pinned bishop", "4k3/4r3/8/8/8/8/4B3/4K3 w - - 0 1", 4, 64, 790),
+                new Perft.TestPosition("double check", "4k3/8/8/8/8/5n2/8/r3K2R w - - 0 1", 2, 54, 819),
+                new Perft.TestPosition("pinned pawn", "4k3/8/8/b7/8/8/3P4/4K1R1 w - - 0 1", 13, 130, 2155),
+                new Perft.TestPosition("pinned blocker", "4k3/8/8/8/1b6/8/3N4/4K3 w - - 0 1", 4, 52, 569),
+        };
+        for (var boardType : CGame.BoardType.values()) {
+            for (var position : positions) {
+                for (int depth = 1; depth <= position.nodes().length; depth++) {
+                    var game = Fen.parse(position.fen(), boardType);
+                    Assertions.assertEquals(position.nodes()[depth - 1], Perft.perft(game, depth),
+                            boardType + " " + position.name() + " depth " + depth);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDivideSumsToPerft() {
+        var position = Perft.POSITIONS.get(3);
+        var game = Fen.parse(position.fen(), CGame.BoardType.BITBOARD);
+        var divide = Perft.divide(game, 2);
+        Assertions.assertEquals(position.nodes()[0], divide.size());
+        Assertions.assertEquals(position.nodes()[1], divide.values().stream().mapToLong(Long::longValue).sum());
+        Assertions.assertTrue(divide.containsKey("g1h1"));
+    }
+
+    @Test
+    public void testBoardLeftUnchanged() {
+        var game = Fen.parse(Perft.POSITIONS.get(1).fen(), CGame.BoardType.BITBOARD);
+        long key = game.getPositionKey();
+        Perft.perft(game, 2);
+        Assertions.assertEquals(key, game.getPositionKey());
+    }
+
+    @Test
+    public void testParallelMatchesSerial() {
+        for (var position : Perft.POSITIONS) {
+            var game = Fen.parse(position.fen(), CGame.BoardType.BITBOARD);
+            long key = game.getPositionKey();
+            Assertions.assertEquals(position.nodes()[DEPTH - 1], ParallelPerft.perft(game, DEPTH), position.name());
+            Assertions.assertEquals(key, game.getPositionKey());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+import Benchmarks.Perft;
+import Engine.ParallelSearch;
+import Engine.Search;
+import Engine.SearchInfo;
+import Engine.SearchLimits;
+import chessGameImpl.CGame;
+import chessGameImpl.Fen;
+import chessGameImpl.Move;
+import chessGameImpl.MoveList;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+public class SearchTests {
+
+    @Test
+    public void testFindsMateInOne() {
+        var game = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1", CGame.BoardType.BITBOARD);
+        var info = new Search().search(game, SearchLimits.depth(4));
+        Assertions.assertEquals("a1a8", Move.toString(info.bestMove()));
+        Assertions.assertEquals(1, info.mateIn());
+    }
+
+    @Test
+    public void testFindsScholarsMate() {
+        var game = Fen.parse("r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w - - 0 1", CGame.BoardType.ARRAY);
+        var info = new Search().search(game, SearchLimits.depth(3));
+        Assertions.assertEquals("h5f7", Move.toString(info.bestMove()));
+        Assertions.assertTrue(info.isMate());
+    }
+
+    @Test
+    public void testWinsHangingQueen() {
+        var game = Fen.parse("4k3/8/8/3q4/8/8/8/3RK3 w - - 0 1", CGame.BoardType.BITBOARD);
+        var info = new Search().search(game, SearchLimits.depth(4));
+        Assertions.assertEquals("d1d5", Move.toString(info.bestMove()));
+        Assertions.assertTrue(info.score() > 300);
+    }
+
+    @Test
+    public void testReportsEachIteration() {
+        var game = Fen.parse(Fen.START, CGame.BoardType.BITBOARD);
+        long key = game.getPositionKey();
+        var reports = new ArrayList<SearchInfo>();
+        var info = new Search().search(game, SearchLimits.depth(4), reports::add);
+
+        Assertions.assertEquals(4, reports.size());
+        Assertions.assertEquals(4, info.depth());
+        Assertions.assertEquals(key, game.getPositionKey());
+
+        //The principal variation must be a legal line
+        var moves = new MoveList();
+        for (int move : info.pv()) {
+            game.legalMoves(moves);
+            Assertions.assertTrue(moves.contains(move), Move.toString(move));
+            game.doMove(move);
+        }
+    }
+
+    @Test
+    public void testNoLegalMoves() {
+        var game = Fen.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1", CGame.BoardType.BITBOARD);
+        var info = new Search().search(game, SearchLimits.depth(3));
+        Assertions.assertEquals(0, info.depth());
+        Assertions.assertEquals(Move.NONE, info.bestMove());
+        Assertions.assertEquals(0, info.score());
+    }
+
+    @Test
+    public void testStopsOnTime() {
+        var game = Fen.parse(Perft.POSITIONS.get(1).fen(), CGame.BoardType.BITBOARD);
+        long start = System.currentTimeMillis();
+        var info = new Search().search(game, SearchLimits.time(200));
+        Assertions.assertTrue(System.currentTimeMillis() - start < 2000);
+        Assertions.assertTrue(info.depth() >= 1);
+        Assertions.assertNotEquals(Move.NONE, info.bestMove());
+    }
+
+    @Test
+    public void testStopFromAnotherThread() throws InterruptedException {
+        var game = Fen.parse(Fen.START, CGame.BoardType.BITBOARD);
+        var search = new Search();
+        var stopper = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+            }
+            search.stop();
+        });
+        stopper.start();
+        var info = search.search(game, SearchLimits.depth(Search.MAX_PLY));
+        stopper.join();
+        Assertions.assertTrue(info.depth() < Search.MAX_PLY - 1);
+        Assertions.assertNotEquals(Move.NONE, info.bestMove());
+    }
+
+    @Test
+    public void testParallelSearchFindsMate() {
+        var game = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1", CGame.BoardType.BITBOARD);
+        try (var search = new ParallelSearch(3)) {
+            var info = search.search(game, SearchLimits.depth(5));
+            Assertions.assertEquals("a1a8", Move.toString(info.bestMove()));
+            Assertions.assertEquals(1, info.mateIn());
+        }
+    }
+
+    @Test
+    public void testParallelSearchCountsEveryThread() {
+        var game = Fen.parse(Fen.START, CGame.BoardType.BITBOARD);
+        try (var search = new ParallelSearch(2)) {
+            var info = search.search(game, SearchLimits.depth(5));
+            Assertions.assertEquals(5, info.depth());
+            Assertions.assertEquals(search.getNodes(), info.nodes());
+            Assertions.assertNotEquals(Move.NONE, info.bestMove());
+
+            //The search can run again once the last one has finished
+            Assertions.assertEquals(3, search.search(game, SearchLimits.depth(3)).depth());
+        }
+    }
+
+    @Test
+    public void testSearchesSeveralLines() {
+        var game = Fen.parse("4k3/8/8/3q4/8/8/8/3RK3 w - - 0 1", CGame.BoardType.BITBOARD);
+        var reports = new ArrayList<List<SearchInfo>>();
+        var lines = new Search().searchLines(game, SearchLimits.depth(4), 3, reports::add);
+
+        Assertions.assertEquals(4, reports.size());
+        Assertions.assertEquals(3, lines.size());
+        Assertions.assertEquals("d1d5", Move.toString(lines.get(0).bestMove()));
+        var firstMoves = new HashSet<Integer>();
+        for (int i = 0; i < lines.size(); i++) {
+            Assertions.assertEquals(4, lines.get(i).depth());
+            Assertions.assertTrue(firstMoves.add(lines.get(i).bestMove()));
+            if (i > 0) {
+                Assertions.assertTrue(lines.get(i - 1).score() >= lines.get(i).score());
+            }
+        }
+
+        //There are only as many lines as legal moves
+        var mated = Fen.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1", CGame.BoardType.BITBOARD);
+        Assertions.assertTrue(new Search().searchLines(mated, SearchLimits.depth(3), 3, info -> {
+        }).isEmpty());
+    }
+}
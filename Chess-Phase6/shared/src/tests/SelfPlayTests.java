@@ -0,0 +1,49 @@
+import Benchmarks.SelfPlay;
+import Benchmarks.Sprt;
+import org.junit.jupiter.api.*;
+
+public class SelfPlayTests {
+
+    @Test
+    public void testSprtAcceptsFavoredHypothesis() {
+        var winning = new Sprt(0, 10, 0.05, 0.05);
+        var losing = new Sprt(0, 10, 0.05, 0.05);
+        for (int i = 0; i < 200; i++) {
+            winning.addResult(i % 3 == 0 ? 0.5 : 1);
+            losing.addResult(i % 3 == 0 ? 0.5 : 0);
+        }
+        Assertions.assertTrue(winning.llr() > 0);
+        Assertions.assertEquals(Sprt.Decision.ACCEPT_H1, winning.decision());
+        Assertions.assertTrue(losing.llr() < 0);
+        Assertions.assertEquals(Sprt.Decision.ACCEPT_H0, losing.decision());
+        Assertions.assertTrue(winning.elo() > 0);
+    }
+
+    @Test
+    public void testSprtContinuesOnEvenResults() {
+        var sprt = new Sprt(-5, 0, 0.05, 0.05);
+        Assertions.assertEquals(Sprt.Decision.CONTINUE, sprt.decision());
+        for (int i = 0; i < 10; i++) {
+            sprt.addResult(i % 2);
+        }
+        Assertions.assertEquals(Sprt.Decision.CONTINUE, sprt.decision());
+        Assertions.assertEquals(10, sprt.getGames());
+    }
+
+    @Test
+    public void testShortMatchPlaysEveryGame() throws InterruptedException {
+        var match = new SelfPlay(SelfPlay.EngineConfig.parse("pst:depth=1"),
+                SelfPlay.EngineConfig.parse("material:nodes=200"));
+        var sprt = new Sprt(-5, 0, 0.05, 0.05);
+        match.run(sprt, 4, 2, false);
+        Assertions.assertEquals(4, sprt.getGames());
+        Assertions.assertTrue(match.getNodesPerSecond(0) > 0);
+        Assertions.assertTrue(match.getNodesPerSecond(1) > 0);
+    }
+
+    @Test
+    public void testBadConfigurationsAreRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SelfPlay.EngineConfig.parse("pst"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SelfPlay.EngineConfig.parse("nnue:depth=2"));
+    }
+}
@@ -0,0 +1,76 @@
+import Engine.Endgame;
+import Engine.Tablebase;
+import Engine.TablebaseGenerator;
+import chessGameImpl.CGame;
+import chessGameImpl.Fen;
+import chessGameImpl.Move;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.concurrent.ForkJoinPool;
+
+public class TablebaseTests {
+
+    @TempDir
+    static Path folder;
+
+    private static Tablebase tablebase;
+
+    @BeforeAll
+    public static void generate() throws IOException {
+        var solved = new EnumMap<Endgame, byte[]>(Endgame.class);
+        for (var endgame : new Endgame[]{Endgame.KQK, Endgame.KRK, Endgame.KPK}) {
+            var values = TablebaseGenerator.generate(endgame, solved, ForkJoinPool.commonPool());
+            solved.put(endgame, values);
+            TablebaseGenerator.write(endgame, values, folder);
+        }
+        tablebase = Tablebase.open(folder);
+    }
+
+    private static Tablebase.Result probe(String fen) {
+        return tablebase.probe(Fen.parse(fen, CGame.BoardType.BITBOARD));
+    }
+
+    @Test
+    public void testMates() {
+        Assertions.assertEquals(new Tablebase.Result(Tablebase.Outcome.WIN, 1), probe("7k/8/6K1/8/8/8/8/1Q6 w - - 0 1"));
+        Assertions.assertEquals(new Tablebase.Result(Tablebase.Outcome.LOSS, 0), probe("Q6k/8/6K1/8/8/8/8/8 b - - 0 1"));
+        Assertions.assertEquals(new Tablebase.Result(Tablebase.Outcome.DRAW, 0), probe("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"));
+        Assertions.assertEquals(new Tablebase.Result(Tablebase.Outcome.WIN, 3), probe("7k/8/8/6K1/8/8/8/R7 w - - 0 1"));
+    }
+
+    @Test
+    public void testMirroredAndBlackPositions() {
+        //The same position turned around and with the colors swapped has the same result
+        var white = probe("8/8/8/3k4/8/8/2K5/6R1 w - - 0 1");
+        Assertions.assertEquals(Tablebase.Outcome.WIN, white.outcome());
+        Assertions.assertEquals(white, probe("8/8/8/4k3/8/8/5K2/1R6 w - - 0 1"));
+        Assertions.assertEquals(white, probe("6r1/2k5/8/8/3K4/8/8/8 b - - 0 1"));
+        Assertions.assertEquals(Tablebase.Outcome.LOSS, probe("6r1/2k5/8/8/3K4/8/8/8 w - - 0 1").outcome());
+    }
+
+    @Test
+    public void testPawnEndings() {
+        Assertions.assertEquals(Tablebase.Outcome.WIN, probe("7k/8/P7/8/8/8/8/K7 w - - 0 1").outcome());
+        //A rook's pawn cannot win against a king in the corner
+        Assertions.assertEquals(Tablebase.Outcome.DRAW, probe("k7/8/8/P1K5/8/8/8/8 b - - 0 1").outcome());
+        Assertions.assertEquals(Tablebase.Outcome.DRAW, probe("8/8/8/8/8/8/8/k1K2B2 w - - 0 1").outcome());
+        Assertions.assertNull(probe("8/8/8/8/8/8/8/k1K1BN2 w - - 0 1"));
+    }
+
+    @Test
+    public void testBestMoveMates() {
+        var game = Fen.parse("8/8/8/3k4/8/8/2K5/6R1 w - - 0 1", CGame.BoardType.BITBOARD);
+        int plies = tablebase.probe(game).plies();
+        for (int ply = 0; ply < plies; ply++) {
+            int move = tablebase.bestMove(game);
+            Assertions.assertNotEquals(Move.NONE, move);
+            game.doMove(move);
+            Assertions.assertEquals(plies - ply - 1, tablebase.probe(game).plies());
+        }
+        Assertions.assertTrue(game.isInCheckmate(game.getTeamTurn()));
+    }
+}
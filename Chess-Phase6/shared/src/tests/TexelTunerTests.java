@@ -0,0 +1,77 @@
+import Engine.TexelTuner;
+import chessGameImpl.BitBoard;
+import chessGameImpl.CGame;
+import chessGameImpl.Fen;
+import chessGameImpl.PieceSquareTables;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+public class TexelTunerTests {
+
+    private static final String POSITIONS = """
+            4k3/8/8/8/8/8/4P3/4K3 w - - 0 1 [1.0]
+            4k3/4p3/8/8/8/8/8/4K3 w - - 0 1 [0.0]
+            4k3/8/8/8/8/8/8/4K3 b - - 0 1 [0.5]
+            4k3/8/8/8/8/8/3PP3/4K3 w - - 0 1 1-0
+            4k3/3pp3/8/8/8/8/8/4K3 b - - 0 1 0-1
+            4k3/4p3/8/8/8/8/4P3/4K3 w - - 0 1 1/2-1/2
+            4k3/8/8/8/8/8/8/3QK3 w - - 0 1 [1.0]
+            3qk3/8/8/8/8/8/8/4K3 w - - 0 1 [0.0]
+            not a position [1.0]
+            4k3/8/8/8/8/8/8/4K3 w - - 0 1
+            """;
+
+    @TempDir
+    Path folder;
+
+    @Test
+    public void testWeightsFileRoundTrip() throws IOException {
+        var defaults = PieceSquareTables.defaultWeights();
+        var path = folder.resolve("weights.txt");
+        PieceSquareTables.writeWeights(path, defaults, "defaults");
+        Assertions.assertArrayEquals(defaults, PieceSquareTables.readWeights(path));
+    }
+
+    @Test
+    public void testLoadedWeightsChangeEvaluation() throws IOException {
+        var weights = PieceSquareTables.defaultWeights();
+        var startScore = BitBoard.asBitBoard(Fen.parse("4k3/8/8/8/8/8/4P3/4K3 w", CGame.BoardType.BITBOARD)
+                .getBoard()).getEvaluation();
+        weights[PieceSquareTables.MIDDLEGAME_MATERIAL + 5] += 100;
+        weights[PieceSquareTables.ENDGAME_MATERIAL + 5] += 100;
+        var path = folder.resolve("weights.txt");
+        PieceSquareTables.writeWeights(path, weights, "heavier pawns");
+        try {
+            PieceSquareTables.load(path);
+            var score = BitBoard.asBitBoard(Fen.parse("4k3/8/8/8/8/8/4P3/4K3 w", CGame.BoardType.BITBOARD)
+                    .getBoard()).getEvaluation();
+            Assertions.assertEquals(startScore + 100, score);
+        } finally {
+            PieceSquareTables.setWeights(PieceSquareTables.defaultWeights());
+        }
+    }
+
+    @Test
+    public void testTuningLowersError() throws IOException {
+        var pool = new ForkJoinPool(2);
+        try {
+            var tuner = new TexelTuner(pool);
+            Assertions.assertEquals(8, tuner.addPositions(new BufferedReader(new StringReader(POSITIONS))));
+
+            var initial = TexelTuner.toDoubles(PieceSquareTables.defaultWeights());
+            double scale = tuner.fitScale(initial);
+            double before = tuner.error(initial, scale);
+            var tuned = tuner.tune(initial, scale, 50, (epoch, error) -> {
+            });
+            Assertions.assertTrue(tuner.error(tuned, scale) < before);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+import Engine.TranspositionTable;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TranspositionTableTests {
+
+    @Test
+    public void testStoreAndProbe() {
+        var table = new TranspositionTable(1);
+        Assertions.assertEquals(65536, table.capacity());
+        table.store(0x1234_5678_9ABC_DEF0L, 0x1F3C, -29950, 7, TranspositionTable.LOWER);
+
+        long entry = table.probe(0x1234_5678_9ABC_DEF0L);
+        Assertions.assertEquals(0x1F3C, TranspositionTable.move(entry));
+        Assertions.assertEquals(-29950, TranspositionTable.score(entry));
+        Assertions.assertEquals(7, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+
+        //Same slot, different position
+        Assertions.assertEquals(0, table.probe(0x7234_5678_9ABC_DEF0L));
+        Assertions.assertEquals(2, table.getProbes());
+        Assertions.assertEquals(1, table.getHits());
+        Assertions.assertEquals(0.5, table.hitRate());
+    }
+
+    @Test
+    public void testDeeperEntriesKeptWithinASearch() {
+        var table = new TranspositionTable(1);
+        table.newSearch();
+        table.store(0x10000, 1, 50, 8, TranspositionTable.EXACT);
+        table.store(0x20000, 2, 60, 3, TranspositionTable.EXACT);
+        Assertions.assertEquals(8, TranspositionTable.depth(table.probe(0x10000)));
+
+        //An entry from an earlier search is replaced whatever its depth
+        table.newSearch();
+        table.store(0x20000, 2, 60, 3, TranspositionTable.EXACT);
+        Assertions.assertEquals(0, table.probe(0x10000));
+        Assertions.assertEquals(3, TranspositionTable.depth(table.probe(0x20000)));
+    }
+
+    @Test
+    public void testFillRate() {
+        var table = new TranspositionTable(1);
+        Assertions.assertEquals(0, table.fillRate());
+        for (long key = 0; key < table.capacity(); key++) {
+            table.store(key, 1, 0, 1, TranspositionTable.EXACT);
+        }
+        Assertions.assertEquals(1, table.fillRate());
+        table.clear();
+        Assertions.assertEquals(0, table.fillRate());
+    }
+
+    @Test
+    public void testConcurrentWritersNeverCorruptReads() throws InterruptedException {
+        //Small table so threads keep writing over each other's slots
+        var table = new TranspositionTable(1);
+        var corrupt = new AtomicBoolean(false);
+        var threads = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            long seed = t;
+            threads.add(new Thread(() -> {
+                var random = new SplittableRandom(seed);
+                for (int i = 0; i < 1_000_000; i++) {
+                    //Thousands of keys share 16 slots, and each entry's move is built from its key and its writer
+                    long key = random.nextLong(1024) << 40 | random.nextLong(16);
+                    long entry = table.probe(key);
+                    if (entry != 0) {
+                        int move = TranspositionTable.move(entry);
+                        if ((move & 0x3FF) != (int) (key >>> 40) || move >>> 10 != TranspositionTable.score(entry) + 1) {
+                            corrupt.set(true);
+                        }
+                    }
+                    table.store(key, (int) (key >>> 40) | (int) (seed + 1) << 10, (int) seed, 1, TranspositionTable.EXACT);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (var thread : threads) {
+            thread.join();
+        }
+        Assertions.assertFalse(corrupt.get());
+    }
+}
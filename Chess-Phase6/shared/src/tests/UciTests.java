@@ -0,0 +1,98 @@
+import Engine.Uci;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+public class UciTests {
+
+    private ByteArrayOutputStream output;
+
+    private Uci uci;
+
+    @BeforeEach
+    public void setUp() {
+        output = new ByteArrayOutputStream();
+        uci = new Uci(new PrintStream(output, true));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        uci.close();
+    }
+
+    private String[] lines() {
+        return output.toString().split("\\R");
+    }
+
+    private String lastLine() {
+        var lines = lines();
+        return lines[lines.length - 1];
+    }
+
+    @Test
+    public void testHandshake() {
+        uci.handle("uci");
+        Assertions.assertEquals("id name " + Uci.NAME, lines()[0]);
+        Assertions.assertEquals("uciok", lastLine());
+        uci.handle("isready");
+        Assertions.assertEquals("readyok", lastLine());
+    }
+
+    @Test
+    public void testGoDepthGivesInfoAndBestMove() {
+        uci.handle("position startpos moves e2e4 e7e5");
+        uci.handle("go depth 3");
+        uci.waitForSearch();
+        var lines = lines();
+        Assertions.assertTrue(lines[0].startsWith("info depth 1 score cp "));
+        Assertions.assertTrue(lines[2].contains(" hashfull ") && lines[2].contains(" pv "));
+        Assertions.assertTrue(lastLine().startsWith("bestmove "));
+    }
+
+    @Test
+    public void testFindsMateFromFen() {
+        uci.handle("position fen 7k/8/6K1/8/8/8/8/1Q6 w - - 0 1");
+        uci.handle("go movetime 1000");
+        uci.waitForSearch();
+        Assertions.assertEquals("bestmove b1b8", lastLine());
+    }
+
+    @Test
+    public void testInfiniteSearchWaitsForStop() throws InterruptedException {
+        uci.handle("position fen 7k/8/6K1/8/8/8/8/1Q6 w - - 0 1");
+        uci.handle("go infinite");
+        Thread.sleep(200);
+        Assertions.assertFalse(output.toString().contains("bestmove"));
+        uci.handle("stop");
+        uci.waitForSearch();
+        Assertions.assertEquals("bestmove b1b8", lastLine());
+    }
+
+    @Test
+    public void testGoDuringInfiniteSearchStopsIt() {
+        uci.handle("position fen 7k/8/6K1/8/8/8/8/1Q6 w - - 0 1");
+        uci.handle("go infinite");
+        uci.handle("go depth 1");
+        uci.handle("setoption name Hash value 1");
+        uci.handle("go infinite");
+        uci.handle("stop");
+        uci.waitForSearch();
+        Assertions.assertEquals(3, output.toString().split("bestmove").length - 1);
+        Assertions.assertEquals("bestmove b1b8", lastLine());
+    }
+
+    @Test
+    public void testPerftDividesByRootMove() {
+        uci.handle("go perft 2");
+        uci.waitForSearch();
+        Assertions.assertTrue(output.toString().contains("e2e4: 20"));
+        Assertions.assertTrue(output.toString().contains("Nodes searched: 400"));
+    }
+
+    @Test
+    public void testIllegalMovesAreReported() {
+        uci.handle("position startpos moves e2e5");
+        Assertions.assertEquals("info string Illegal move: e2e5", lastLine());
+    }
+}
@@ -0,0 +1,66 @@
+import chess.ChessGame;
+import chessGameImpl.CGame;
+import chessGameImpl.CMove;
+import chessGameImpl.CPosition;
+import chessGameImpl.Zobrist;
+import com.google.gson.GsonBuilder;
+import org.junit.jupiter.api.*;
+
+public class ZobristTests {
+
+    @Test
+    public void testTranspositionsShareKey() {
+        for (var boardType : CGame.BoardType.values()) {
+            var game1 = new CGame(boardType);
+            game1.doMove(new CMove(new CPosition(1, 2), new CPosition(3, 3), null));
+            game1.doMove(new CMove(new CPosition(8, 2), new CPosition(6, 3), null));
+            game1.doMove(new CMove(new CPosition(1, 7), new CPosition(3, 6), null));
+
+            var game2 = new CGame(boardType);
+            game2.doMove(new CMove(new CPosition(1, 7), new CPosition(3, 6), null));
+            game2.doMove(new CMove(new CPosition(8, 2), new CPosition(6, 3), null));
+            game2.doMove(new CMove(new CPosition(1, 2), new CPosition(3, 3), null));
+
+            Assertions.assertEquals(game1.getPositionKey(), game2.getPositionKey());
+        }
+    }
+
+    @Test
+    public void testSideToMoveChangesKey() {
+        var game = new CGame();
+        long whiteToMove = game.getPositionKey();
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertNotEquals(whiteToMove, game.getPositionKey());
+    }
+
+    @Test
+    public void testIncrementalKeyMatchesFullHash() {
+        for (var boardType : CGame.BoardType.values()) {
+            var game = new CGame(boardType);
+            long start = game.getPositionKey();
+            game.doMove(new CMove(new CPosition(2, 5), new CPosition(4, 5), null));
+            game.doMove(new CMove(new CPosition(7, 4), new CPosition(5, 4), null));
+            game.doMove(new CMove(new CPosition(4, 5), new CPosition(5, 4), null));
+            Assertions.assertEquals(Zobrist.hash(game.getBoard()), game.getBoard().getZobristKey());
+
+            game.undoMove();
+            game.undoMove();
+            game.undoMove();
+            Assertions.assertEquals(start, game.getPositionKey());
+        }
+    }
+
+    @Test
+    public void testKeySurvivesJson() {
+        for (var boardType : CGame.BoardType.values()) {
+            var game = new CGame(boardType);
+            game.doMove(new CMove(new CPosition(2, 5), new CPosition(4, 5), null));
+
+            var gson = new GsonBuilder()
+                    .registerTypeAdapter(ChessGame.class, new CGame.ChessGameTA())
+                    .create();
+            ChessGame readBack = gson.fromJson(CGame.toJSON(game), ChessGame.class);
+            Assertions.assertEquals(game.getPositionKey(), readBack.getPositionKey());
+        }
+    }
+}
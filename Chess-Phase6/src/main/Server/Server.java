@@ -3,6 +3,7 @@ package Server;
 import DAOs.*;
 import Handlers.*;
 import Services.*;
+import WebSockets.EnginePool;
 import WebSockets.WSServer;
 import org.eclipse.jetty.websocket.api.annotations.WebSocket;
 import spark.Request;
@@ -77,8 +78,8 @@ public class Server {
         this.listGamesHandler = new ListGamesHandler(this.listGamesService);
         this.logoutHandler = new LogoutHandler(this.logoutService);
 
-        // Init WebSocket Server
-        this.wsServer = new WSServer(this.authService, this.gameService);
+        // Init WebSocket Server, with the threads bots think on
+        this.wsServer = new WSServer(this.authService, this.gameService, EnginePool.fromSystemProperties());
     }
 
     /**
@@ -3,6 +3,7 @@ package Services;
 import DAOs.AuthDAO;
 import DAOs.GameDAO;
 import DAOs.UserDAO;
+import Models.Bot;
 import RequestClasses.CreateGameRequest;
 import ResultClasses.CreateGameResult;
 import chessGameImpl.CGame;
@@ -51,12 +52,27 @@ public class CreateGameService extends Service {
             return new CreateGameResult(401, "Error: unauthorized");
         }
 
+        //Check the computer opponent, if there is one
+        Bot bot = null;
+        if (request.getBotLevel() != null) {
+            bot = Bot.fromLevel(request.getBotLevel());
+            var botColor = request.getBotColor();
+            if (bot == null || (botColor != null && !botColor.equals("WHITE") && !botColor.equals("BLACK"))) {
+                return new CreateGameResult(400, "Error: bad request");
+            }
+        }
+
         //Create game
         try {
             var game = new Models.Game();
             game.setGameName(request.getGameName());
             game.setGameID(game.generateGameID());
             game.setGame(new CGame());
+            if (bot != null && "WHITE".equals(request.getBotColor())) {
+                game.setWhiteUsername(bot.getUsername());
+            } else if (bot != null) {
+                game.setBlackUsername(bot.getUsername());
+            }
             gameDAO.addGame(game);
             return new CreateGameResult(game.getGameID());
         } catch (Exception e) {
@@ -3,6 +3,7 @@ package Services;
 import DAOs.AuthDAO;
 import DAOs.UserDAO;
 import Models.AuthToken;
+import Models.Bot;
 import Models.User;
 import RequestClasses.RegisterRequest;
 import ResultClasses.RegisterResult;
@@ -43,6 +44,11 @@ public class RegisterService extends Service {
             return new RegisterResult(400, "Error: bad request");
         }
 
+        //Bots play under usernames no player can take
+        if (Bot.fromUsername(request.getUsername()) != null) {
+            return new RegisterResult(403, "Error: already taken");
+        }
+
         //Check if username is already taken
         try {
             var user = new User(request.getUsername(), request.getPassword(), request.getEmail());
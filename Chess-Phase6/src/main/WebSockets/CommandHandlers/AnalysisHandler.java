@@ -0,0 +1,459 @@
+package WebSockets.CommandHandlers;
+
+import Engine.Search;
+import Engine.SearchInfo;
+import Engine.SearchLimits;
+import Services.GameService;
+import WebSockets.EnginePool;
+import WebSockets.WSSessionsManager;
+import chess.ChessGame;
+import chessGameImpl.CGame;
+import chessGameImpl.Move;
+import dataAccess.DataAccessException;
+import webSocketMessages.serverMessages.AnalysisMessage;
+import webSocketMessages.userCommands.AnalyzeCommand;
+import webSocketMessages.userCommands.UserGameCommand;
+
+import org.eclipse.jetty.websocket.api.Session;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class represents a command handler for the "analyze" command in the WebSocket API, and runs the live analysis
+ * it subscribes users to. However many users watch a game's analysis, the game has one search, which finds the best
+ * few lines and sends them to every subscriber as it deepens, at most once every {@value #PUSH_INTERVAL_MILLIS} ms.
+ * When a move is made the search is stopped and started again on the new position.
+ * <p>
+ * Engine time is capped twice. Each position is searched for at most a set time, after which its last lines stand
+ * until the next move. And only a set number of analyses run at once, each holding one of a fixed set of searches
+ * while it runs on the {@link EnginePool}, so the bots always keep the rest of the engine threads. There are always
+ * fewer analyses than engine threads, so with a single engine thread there is no analysis at all. Games waiting for
+ * a search are served in turn, and a game whose position changes goes to the back of the line.
+ * <p>
+ * Players cannot analyze their own game until it is over. A finished game's final position is analyzed with whoever
+ * was to move when it finished.
+ */
+public class AnalysisHandler extends CommandHandler {
+    /**
+     * How many analyses may run at once unless told otherwise
+     */
+    public static final int DEFAULT_THREADS = 1;
+
+    /**
+     * How long each position is analyzed unless told otherwise, in milliseconds
+     */
+    public static final long DEFAULT_POSITION_MILLIS = 10_000;
+
+    /**
+     * How many lines are sent unless told otherwise
+     */
+    public static final int DEFAULT_LINES = 3;
+
+    /**
+     * The least time between two updates of a game's analysis, in milliseconds. The final lines for a position are
+     * always sent.
+     */
+    private static final long PUSH_INTERVAL_MILLIS = 250;
+
+    /**
+     * How long to wait before queueing an analysis again when the engine queue is full, in milliseconds
+     */
+    private static final long RETRY_MILLIS = 250;
+
+    /**
+     * One game's analysis. Fields other than the subscribers are guarded by the handler's lock, except where noted.
+     */
+    private static final class Analysis {
+        /**
+         * The ID of the game analyzed
+         */
+        private final int gameID;
+
+        /**
+         * The usernames of the users to send the analysis to
+         */
+        private final Set<String> subscribers = ConcurrentHashMap.newKeySet();
+
+        /**
+         * True if the game's current position has not been searched yet. Also read by the engine thread, to stop a
+         * search whose position is out of date.
+         */
+        private volatile boolean stale = true;
+
+        /**
+         * True while waiting for a search to run on
+         */
+        private boolean queued;
+
+        /**
+         * The search running the analysis, or null if it is not running
+         */
+        private Search search;
+
+        /**
+         * The last analysis sent, for users who subscribe later, or null if none has been sent for this position.
+         * Written by the engine thread with the handler's lock held, and read without it to skip early updates.
+         */
+        private volatile AnalysisMessage latest;
+
+        /**
+         * When the last analysis was sent, from System.nanoTime. Only used by the engine thread.
+         */
+        private long lastPush;
+
+        /**
+         * Constructor for an Analysis
+         *
+         * @param gameID the ID of the game analyzed
+         */
+        private Analysis(int gameID) {
+            this.gameID = gameID;
+        }
+    }
+
+    /**
+     * The threads the analysis runs on, shared with the bots
+     */
+    private final EnginePool enginePool;
+
+    /**
+     * How long each position is analyzed, in milliseconds
+     */
+    private final long positionMillis;
+
+    /**
+     * How many lines are sent
+     */
+    private final int lines;
+
+    /**
+     * False if the bots need every engine thread, so there are no searches to analyze on
+     */
+    private final boolean available;
+
+    /**
+     * The searches not in use. There is one per analysis that may run at once.
+     */
+    private final Queue<Search> idleSearches = new ArrayDeque<>();
+
+    /**
+     * The games waiting for a search, in the order they will get one
+     */
+    private final Queue<Analysis> waiting = new ArrayDeque<>();
+
+    /**
+     * The analyses of every game with at least one subscriber
+     */
+    private final Map<Integer, Analysis> analyses = new ConcurrentHashMap<>();
+
+    /**
+     * Queues analyses again after the engine queue was full. Only waits, so one thread is plenty.
+     */
+    private final ScheduledExecutorService retries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "analysis-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs an AnalysisHandler with the specified WSSessionsManager, GameService, EnginePool and limits.
+     *
+     * @param sessionsManager The WSSessionsManager used to manage WebSocket sessions.
+     * @param gameService     The GameService used to interact with the game logic.
+     * @param enginePool      The EnginePool the analysis runs on.
+     * @param threads         How many analyses may run at once. This is cut to one fewer than the engine threads.
+     * @param positionMillis  How long each position is analyzed, in milliseconds.
+     * @param lines           How many lines are sent.
+     */
+    public AnalysisHandler(WSSessionsManager sessionsManager, GameService gameService, EnginePool enginePool,
+                           int threads, long positionMillis, int lines) {
+        super(sessionsManager, gameService);
+        this.enginePool = enginePool;
+        this.positionMillis = positionMillis;
+        this.lines = Math.max(1, lines);
+        int searches = Math.min(Math.max(1, threads), enginePool.getThreads() - 1);
+        for (int i = 0; i < searches; i++) {
+            idleSearches.add(enginePool.newSearch());
+        }
+        available = searches > 0;
+    }
+
+    /**
+     * Handles the user's analyze command, subscribing or unsubscribing them.
+     *
+     * @param session the WebSocket session of the user
+     * @param command the user's analyze command
+     * @throws IOException         if there is an error in the input/output
+     * @throws DataAccessException if there is an error accessing the data
+     */
+    public void handle(Session session, UserGameCommand command) throws IOException, DataAccessException {
+        AnalyzeCommand analyzeCommand = (AnalyzeCommand) command;
+        var gameID = analyzeCommand.getGameID();
+        var username = analyzeCommand.getUsername();
+        if (!analyzeCommand.isSubscribe()) {
+            unsubscribe(gameID, username);
+            return;
+        }
+
+        //Check if there are engine threads to spare
+        if (!available) {
+            WSSessionsManager.send(session, gson.toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Analysis is not available")));
+            return;
+        }
+
+        //Check if user is in game
+        if (sessionsManager.getSession(gameID, username) == null) {
+            WSSessionsManager.send(session, gson.toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Join the game before analyzing it")));
+            return;
+        }
+
+        //Check if user is playing
+        var game = gameService.getGame(gameID);
+        if (!game.isOver() && (Objects.equals(game.getWhiteUsername(), username)
+                || Objects.equals(game.getBlackUsername(), username))) {
+            WSSessionsManager.send(session, gson.toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Players cannot analyze their own game")));
+            return;
+        }
+
+        subscribe(gameID, username);
+    }
+
+    /**
+     * Sends a user a game's analysis, starting it if nobody was watching it yet
+     *
+     * @param gameID   the ID of the game
+     * @param username the username of the user
+     * @throws IOException if there is an error sending the last analysis
+     */
+    public void subscribe(int gameID, String username) throws IOException {
+        //Under the lock, so the last analysis cannot be replaced by one for another position before it is sent
+        synchronized (this) {
+            var analysis = analyses.computeIfAbsent(gameID, Analysis::new);
+            analysis.subscribers.add(username);
+            schedule(analysis);
+            if (analysis.latest != null) {
+                sessionsManager.sendMessage(gameID, analysis.latest, username);
+            }
+        }
+    }
+
+    /**
+     * Stops sending a user a game's analysis, stopping it if nobody is watching it any more. Does nothing if the
+     * user was not subscribed.
+     *
+     * @param gameID   the ID of the game
+     * @param username the username of the user
+     */
+    public synchronized void unsubscribe(int gameID, String username) {
+        var analysis = analyses.get(gameID);
+        if (analysis == null || !analysis.subscribers.remove(username) || !analysis.subscribers.isEmpty()) {
+            return;
+        }
+        analyses.remove(gameID);
+        waiting.remove(analysis);
+        if (analysis.search != null) {
+            analysis.search.stop();
+        }
+    }
+
+    /**
+     * Tells the analysis of a game that its position has changed, so it starts again on the new one. Does nothing
+     * if nobody is watching the game's analysis.
+     *
+     * @param gameID the ID of the game
+     */
+    public synchronized void positionChanged(int gameID) {
+        var analysis = analyses.get(gameID);
+        if (analysis == null) {
+            return;
+        }
+        analysis.stale = true;
+        analysis.latest = null;
+        if (analysis.search != null) {
+            //Queued again once the search has stopped
+            analysis.search.stop();
+        } else {
+            schedule(analysis);
+        }
+    }
+
+    /**
+     * Queues an analysis if its position has not been searched and it is not already running or queued, then
+     * starts whatever analyses there are searches for. Called with the lock held.
+     *
+     * @param analysis the analysis
+     */
+    private void schedule(Analysis analysis) {
+        if (analysis.stale && analysis.search == null && !analysis.queued) {
+            analysis.queued = true;
+            waiting.add(analysis);
+        }
+        dispatch();
+    }
+
+    /**
+     * Starts waiting analyses on the engine pool while there are searches for them. Called with the lock held.
+     */
+    private void dispatch() {
+        while (!waiting.isEmpty() && !idleSearches.isEmpty()) {
+            var analysis = waiting.peek();
+            var search = idleSearches.poll();
+            analysis.search = search;
+            analysis.stale = false;
+            if (!enginePool.submit(() -> run(analysis, search))) {
+                analysis.search = null;
+                analysis.stale = true;
+                idleSearches.add(search);
+                retries.schedule(this::retry, RETRY_MILLIS, TimeUnit.MILLISECONDS);
+                return;
+            }
+            waiting.poll();
+            analysis.queued = false;
+        }
+    }
+
+    /**
+     * Tries again to start waiting analyses after the engine queue was full
+     */
+    private synchronized void retry() {
+        dispatch();
+    }
+
+    /**
+     * Searches a game's position and sends the lines to its subscribers. Runs on an engine thread.
+     *
+     * @param analysis the analysis to run
+     * @param search   the search to run it on, which the analysis holds until it finishes
+     */
+    private void run(Analysis analysis, Search search) {
+        try {
+            var game = gameService.getGame(analysis.gameID);
+            if (isAbandoned(analysis) || !(game.getGame() instanceof CGame chessGame)) {
+                return;
+            }
+            var position = chessGame.copy();
+            if (game.isOver()) {
+                position.setTeamTurn(finishedTurn(position));
+            }
+            boolean whiteToMove = position.getTeamTurn() == ChessGame.TeamColor.WHITE;
+            var limits = SearchLimits.time(positionMillis);
+            var found = search.searchLines(position, limits, lines, iteration -> {
+                //A move or the last unsubscribe may have come before the search started, so its stop was missed
+                if (isAbandoned(analysis)) {
+                    search.stop();
+                } else {
+                    publish(analysis, iteration, whiteToMove, false);
+                }
+            });
+            publish(analysis, found, whiteToMove, true);
+        } catch (Exception e) {
+            System.out.println("Error: analysis failed in game " + analysis.gameID + ": " + e.getMessage());
+        } finally {
+            synchronized (this) {
+                analysis.search = null;
+                idleSearches.add(search);
+                if (analyses.get(analysis.gameID) == analysis) {
+                    schedule(analysis);
+                } else {
+                    dispatch();
+                }
+            }
+        }
+    }
+
+    /**
+     * @param position the final position of a game that is over
+     * @return whose turn it was when the game finished. For games that finished before this was kept, the side in
+     * check if there is one, since only the side to move can be, and otherwise white.
+     */
+    private static ChessGame.TeamColor finishedTurn(CGame position) {
+        if (position.getFinishedTurn() != null) {
+            return position.getFinishedTurn();
+        }
+        return position.isInCheck(ChessGame.TeamColor.BLACK) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+
+    /**
+     * @param analysis the analysis
+     * @return True if the analysis's search should stop, because its position has changed or nobody is watching it
+     */
+    private boolean isAbandoned(Analysis analysis) {
+        return analysis.stale || analyses.get(analysis.gameID) != analysis;
+    }
+
+    /**
+     * Sends a game's lines to its subscribers, unless lines were sent too recently or the analysis has been
+     * abandoned. Subscribers who have left are unsubscribed. Runs on an engine thread.
+     *
+     * @param analysis    the analysis
+     * @param found       the lines, best first, with scores for the side to move
+     * @param whiteToMove whether white is to move in the position analyzed
+     * @param last        true if these are the final lines for the position, which are always sent
+     */
+    private void publish(Analysis analysis, List<SearchInfo> found, boolean whiteToMove, boolean last) {
+        long now = System.nanoTime();
+        if (!last && analysis.latest != null && now - analysis.lastPush < PUSH_INTERVAL_MILLIS * 1_000_000) {
+            return;
+        }
+        var message = toMessage(analysis.gameID, found, whiteToMove);
+
+        //Checked and sent under the lock, so lines for a position that has just changed are neither kept nor sent
+        synchronized (this) {
+            if (isAbandoned(analysis) || message.equals(analysis.latest)) {
+                return;
+            }
+            analysis.lastPush = now;
+            analysis.latest = message;
+
+            var gone = new ArrayList<String>();
+            for (var username : analysis.subscribers) {
+                var session = sessionsManager.getSession(analysis.gameID, username);
+                try {
+                    if (session == null || !session.isOpen()) {
+                        gone.add(username);
+                    } else {
+                        WSSessionsManager.send(session, gson.toJson(message));
+                    }
+                } catch (IOException e) {
+                    gone.add(username);
+                }
+            }
+            for (var username : gone) {
+                unsubscribe(analysis.gameID, username);
+            }
+        }
+    }
+
+    /**
+     * Turns lines found by a search into a message
+     *
+     * @param gameID      the ID of the game
+     * @param found       the lines, best first, with scores for the side to move
+     * @param whiteToMove whether white is to move in the position analyzed
+     * @return the message, with scores for white
+     */
+    private static AnalysisMessage toMessage(int gameID, List<SearchInfo> found, boolean whiteToMove) {
+        var messageLines = new ArrayList<AnalysisMessage.Line>(found.size());
+        for (var info : found) {
+            var pv = new StringJoiner(" ");
+            for (int move : info.pv()) {
+                pv.add(Move.toString(move));
+            }
+            int sign = whiteToMove ? 1 : -1;
+            messageLines.add(new AnalysisMessage.Line(sign * info.score(), sign * info.mateIn(), pv.toString()));
+        }
+        int depth = found.isEmpty() ? 0 : found.get(0).depth();
+        return new AnalysisMessage(gameID, depth, messageLines);
+    }
+}
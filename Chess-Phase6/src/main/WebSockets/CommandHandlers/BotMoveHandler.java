@@ -0,0 +1,124 @@
+package WebSockets.CommandHandlers;
+
+import Services.GameService;
+import WebSockets.EnginePool;
+import WebSockets.WSSessionsManager;
+import chessGameImpl.CGame;
+import chessGameImpl.Move;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class plays the bots' moves. When it is a bot's turn, the bot's search is queued on the EnginePool, and the
+ * move it finds is made and announced the same way as a player's move.
+ * If the engine queue is full, the move is queued again a little later, so bots slow down under load instead of
+ * losing their turn.
+ */
+public class BotMoveHandler extends CommandHandler {
+    /**
+     * How long to wait before queueing a move again when the engine queue is full, in milliseconds
+     */
+    private static final long RETRY_MILLIS = 250;
+
+    /**
+     * The threads the bots think on
+     */
+    private final EnginePool enginePool;
+
+    /**
+     * Runs the live analysis of games
+     */
+    private final AnalysisHandler analysisHandler;
+
+    /**
+     * The games with a bot move queued or being searched, so a bot is never asked to move twice at once
+     */
+    private final Set<Integer> pendingGames = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Queues moves again after the engine queue was full. Only waits, so one thread is plenty.
+     */
+    private final ScheduledExecutorService retries = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "bot-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs a BotMoveHandler with the specified WSSessionsManager, GameService, EnginePool and AnalysisHandler.
+     *
+     * @param sessionsManager The WSSessionsManager used to manage WebSocket sessions.
+     * @param gameService     The GameService used to interact with the game logic.
+     * @param enginePool      The EnginePool the bots think on.
+     * @param analysisHandler The AnalysisHandler that restarts the game's analysis after a bot moves.
+     */
+    public BotMoveHandler(WSSessionsManager sessionsManager, GameService gameService, EnginePool enginePool,
+                          AnalysisHandler analysisHandler) {
+        super(sessionsManager, gameService);
+        this.enginePool = enginePool;
+        this.analysisHandler = analysisHandler;
+    }
+
+    /**
+     * Asks the bot to move in a game. Returns right away; the move is made on an engine thread.
+     * Does nothing if the bot is already thinking in that game.
+     *
+     * @param gameID the ID of the game
+     */
+    public void requestMove(int gameID) {
+        if (pendingGames.add(gameID)) {
+            queue(gameID);
+        }
+    }
+
+    /**
+     * Queues a bot move on the engine pool, or schedules another try if the queue is full
+     *
+     * @param gameID the ID of the game
+     */
+    private void queue(int gameID) {
+        if (!enginePool.submit(() -> play(gameID))) {
+            retries.schedule(() -> queue(gameID), RETRY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Finds and makes the bot's move. Runs on an engine thread.
+     *
+     * @param gameID the ID of the game
+     */
+    private void play(int gameID) {
+        try {
+            var game = gameService.getGame(gameID);
+            var bot = game.getBotToMove();
+            if (bot == null || !(game.getGame() instanceof CGame chessGame)) {
+                return;
+            }
+            long positionKey = chessGame.getPositionKey();
+            int move = enginePool.chooseMove(chessGame.copy(), bot);
+            if (move == Move.NONE) {
+                return;
+            }
+
+            //The game may have changed while the bot was thinking, for example if its opponent resigned. The check and
+            //the save are made under the game's lock, so nothing can change it in between.
+            synchronized (sessionsManager.getGameLock(gameID)) {
+                var currentGame = gameService.getGame(gameID);
+                if (currentGame.isOver() || currentGame.getBotToMove() != bot
+                        || !(currentGame.getGame() instanceof CGame current) || current.getPositionKey() != positionKey) {
+                    return;
+                }
+                applyMove(currentGame, bot.getUsername(), Move.toChessMove(move));
+            }
+            analysisHandler.positionChanged(gameID);
+        } catch (Exception e) {
+            System.out.println("Error: bot move failed in game " + gameID + ": " + e.getMessage());
+        } finally {
+            pendingGames.remove(gameID);
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package WebSockets.CommandHandlers;
 
+import Models.Game;
 import Services.GameService;
 import WebSockets.WSSessionsManager;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
 import com.google.gson.Gson;
+import dataAccess.DataAccessException;
+
+import java.io.IOException;
 
 /**
  * The CommandHandler class is responsible for handling commands received from WebSocket clients.
@@ -25,4 +32,55 @@ public class CommandHandler {
         this.sessionsManager = sessionsManager;
         this.gameService = gameService;
     }
+
+    /**
+     * Makes a move that has already been checked, saves the game, and tells everyone in the game about the move and
+     * about any check, checkmate or stalemate it causes. Players' and bots' moves both go through here.
+     *
+     * @param game     the game to move in
+     * @param username the username of the player or bot moving
+     * @param move     the move to make
+     * @throws IOException          if there is an error sending the messages
+     * @throws InvalidMoveException if the move is invalid
+     * @throws DataAccessException  if there is an error saving the game
+     */
+    protected void applyMove(Game game, String username, ChessMove move) throws IOException, InvalidMoveException, DataAccessException {
+        var gameID = game.getGameID();
+        var playerTeam = game.getGame().getTeamTurn();
+
+        game.getGame().makeMove(move);
+        gameService.updateGame(game);
+        sessionsManager.broadcast(gameID, new webSocketMessages.serverMessages.LoadGameMessage(game.getGame()), "");
+
+        //flip player team
+        playerTeam = playerTeam == ChessGame.TeamColor.BLACK ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+
+        //Broadcast move
+        var message = String.format("Player %s moved %s", username, move);
+        var notification = new webSocketMessages.serverMessages.NotificationMessage(message);
+        sessionsManager.broadcast(gameID, notification, username);
+
+        //Switch username
+        username = playerTeam == ChessGame.TeamColor.WHITE ? game.getWhiteUsername() : game.getBlackUsername();
+
+        //Check if player is in check, checkmate or stalemate
+        var status = game.getGame().evaluateStatus(playerTeam);
+        if (status.inCheck()) {
+            var alert = String.format("Player %s is in check", username);
+            var notif = new webSocketMessages.serverMessages.NotificationMessage(alert);
+            sessionsManager.broadcast(gameID, notif, "");
+        }
+
+        if (status.checkmate()) {
+            var alert = String.format("Player %s is in checkmate", username);
+            var notif = new webSocketMessages.serverMessages.NotificationMessage(alert);
+            sessionsManager.broadcast(gameID, notif, "");
+        }
+
+        if (status.stalemate()) {
+            var alert = String.format("Player %s is in stalemate", username);
+            var notif = new webSocketMessages.serverMessages.NotificationMessage(alert);
+            sessionsManager.broadcast(gameID, notif, "");
+        }
+    }
 }
@@ -40,14 +40,14 @@ public class JoinObserverCommandHandler extends CommandHandler {
         try {
             game = gameService.getGame(joinObserverCommand.getGameID());
         } catch (Exception e) {
-            session.getRemote().sendString(new Gson().toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Invalid GameID")));
+            WSSessionsManager.send(session, new Gson().toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Invalid GameID")));
             return;
         }
 
         sessionsManager.addSession(joinObserverCommand.getGameID(), joinObserverCommand.getUsername(), session);
 
         var loadGameMessage = new webSocketMessages.serverMessages.LoadGameMessage(game.getGame());
-        session.getRemote().sendString(gson.toJson(loadGameMessage));
+        WSSessionsManager.send(session, gson.toJson(loadGameMessage));
 
         var message = String.format("Player %s is now observing", joinObserverCommand.getUsername());
         var notification = new webSocketMessages.serverMessages.NotificationMessage(message);
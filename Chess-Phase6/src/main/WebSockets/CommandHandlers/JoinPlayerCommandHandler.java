@@ -17,14 +17,21 @@ import java.util.Objects;
  * It extends the CommandHandler class and provides the functionality to handle the JoinPlayerCommand.
  */
 public class JoinPlayerCommandHandler extends CommandHandler {
+    /**
+     * Plays the bots' moves
+     */
+    private final BotMoveHandler botMoveHandler;
+
     /**
      * Constructs a JoinPlayerCommandHandler with the specified WSSessionsManager and GameService.
      *
      * @param sessionsManager The WSSessionsManager used to manage WebSocket sessions.
      * @param gameService     The GameService used to interact with the game logic.
+     * @param botMoveHandler  The BotMoveHandler that starts the bot's turn if it moves first.
      */
-    public JoinPlayerCommandHandler(WSSessionsManager sessionsManager, GameService gameService) {
+    public JoinPlayerCommandHandler(WSSessionsManager sessionsManager, GameService gameService, BotMoveHandler botMoveHandler) {
         super(sessionsManager, gameService);
+        this.botMoveHandler = botMoveHandler;
     }
 
     /**
@@ -39,7 +46,7 @@ public class JoinPlayerCommandHandler extends CommandHandler {
         JoinPlayerCommand joinPlayerCommand = (JoinPlayerCommand) command;
 
         if (joinPlayerCommand.getPlayerColor() == null) {
-            session.getRemote().sendString(new Gson().toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Player color not specified")));
+            WSSessionsManager.send(session, new Gson().toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Player color not specified")));
             return;
         }
 
@@ -48,28 +55,33 @@ public class JoinPlayerCommandHandler extends CommandHandler {
         try {
             game = gameService.getGame(joinPlayerCommand.getGameID());
         } catch (Exception e) {
-            session.getRemote().sendString(new Gson().toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Invalid GameID")));
+            WSSessionsManager.send(session, new Gson().toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Invalid GameID")));
             return;
         }
 
         //Make sure the user is joining the right team
         if (joinPlayerCommand.getPlayerColor() == ChessGame.TeamColor.BLACK && !Objects.equals(game.getBlackUsername(), command.getUsername())) {
-            session.getRemote().sendString(new Gson().toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: You are not the black player")));
+            WSSessionsManager.send(session, new Gson().toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: You are not the black player")));
             return;
         }
 
         if (joinPlayerCommand.getPlayerColor() == ChessGame.TeamColor.WHITE && !Objects.equals(game.getWhiteUsername(), command.getUsername())) {
-            session.getRemote().sendString(new Gson().toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: You are not the white player")));
+            WSSessionsManager.send(session, new Gson().toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: You are not the white player")));
             return;
         }
 
         sessionsManager.addSession(joinPlayerCommand.getGameID(), joinPlayerCommand.getUsername(), session);
 
         var loadGameMessage = new webSocketMessages.serverMessages.LoadGameMessage(game.getGame());
-        session.getRemote().sendString(gson.toJson(loadGameMessage));
+        WSSessionsManager.send(session, gson.toJson(loadGameMessage));
 
         var message = String.format("Player %s joined the game", joinPlayerCommand.getUsername());
         var notification = new webSocketMessages.serverMessages.NotificationMessage(message);
         sessionsManager.broadcast(joinPlayerCommand.getGameID(), notification, joinPlayerCommand.getUsername());
+
+        //A bot playing white waits for its opponent to join before making the first move
+        if (game.getBotToMove() != null) {
+            botMoveHandler.requestMove(joinPlayerCommand.getGameID());
+        }
     }
 }
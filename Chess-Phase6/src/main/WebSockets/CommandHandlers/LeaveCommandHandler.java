@@ -15,15 +15,21 @@ import java.util.Objects;
      * It handles the logic for when a player wants to leave a game session.
      */
 public class LeaveCommandHandler extends CommandHandler {
-    
+    /**
+     * Runs the live analysis of games
+     */
+    private final AnalysisHandler analysisHandler;
+
     /**
      * Constructs a LeaveCommandHandler with the specified WSSessionsManager and GameService.
      * 
      * @param sessionsManager The WSSessionsManager object that manages the WebSocket sessions.
      * @param gameService The GameService object that provides game-related functionality.
+     * @param analysisHandler The AnalysisHandler to stop sending the leaving user analysis.
      */
-    public LeaveCommandHandler(WSSessionsManager sessionsManager, GameService gameService) {
+    public LeaveCommandHandler(WSSessionsManager sessionsManager, GameService gameService, AnalysisHandler analysisHandler) {
         super(sessionsManager, gameService);
+        this.analysisHandler = analysisHandler;
     }
 
     /**
@@ -39,17 +45,21 @@ public class LeaveCommandHandler extends CommandHandler {
         var gameID = leaveCommand.getGameID();
         var username = leaveCommand.getUsername();
         sessionsManager.removeSession(gameID, username);
+        analysisHandler.unsubscribe(gameID, username);
 
-        var game = gameService.getGame(gameID);
-        if (Objects.equals(game.getWhiteUsername(), username)) {
-            game.setWhiteUsername(null);
-        } else if (Objects.equals(game.getBlackUsername(), username)) {
-            game.setBlackUsername(null);
-        } else {
-            game.getObservers().remove(username);
-        }
+        //Saved under the game's lock, so a move being made at the same time is not overwritten
+        synchronized (sessionsManager.getGameLock(gameID)) {
+            var game = gameService.getGame(gameID);
+            if (Objects.equals(game.getWhiteUsername(), username)) {
+                game.setWhiteUsername(null);
+            } else if (Objects.equals(game.getBlackUsername(), username)) {
+                game.setBlackUsername(null);
+            } else {
+                game.getObservers().remove(username);
+            }
 
-        gameService.updateGame(game);
+            gameService.updateGame(game);
+        }
 
         var message = String.format("Player %s left the game", username);
         var notification = new webSocketMessages.serverMessages.NotificationMessage(message);
@@ -16,14 +16,29 @@ import java.io.IOException;
  * It handles the logic for when a player wants to make a move in a game.
  */
 public class MoveCommandHandler extends CommandHandler {
+    /**
+     * Plays the bots' moves
+     */
+    private final BotMoveHandler botMoveHandler;
+
+    /**
+     * Runs the live analysis of games
+     */
+    private final AnalysisHandler analysisHandler;
+
     /**
      * Constructs a MoveCommandHandler with the specified WSSessionsManager and GameService.
      * 
      * @param sessionsManager The WSSessionsManager used to manage WebSocket sessions.
      * @param gameService     The GameService used to interact with the game logic.
+     * @param botMoveHandler  The BotMoveHandler that answers moves in games against a bot.
+     * @param analysisHandler The AnalysisHandler that restarts the game's analysis after the move.
      */
-    public MoveCommandHandler(WSSessionsManager sessionsManager, GameService gameService) {
+    public MoveCommandHandler(WSSessionsManager sessionsManager, GameService gameService, BotMoveHandler botMoveHandler,
+                              AnalysisHandler analysisHandler) {
         super(sessionsManager, gameService);
+        this.botMoveHandler = botMoveHandler;
+        this.analysisHandler = analysisHandler;
     }
 
     /**
@@ -40,73 +55,52 @@ public class MoveCommandHandler extends CommandHandler {
         var gameID = moveCommand.getGameID();
         var username = moveCommand.getUsername();
         var move = moveCommand.getMove();
-        var game = gameService.getGame(gameID);
-        ChessGame.TeamColor playerTeam;
-
-        //Check if player is in game
-        if (game.getWhiteUsername().equals(username)) {
-            playerTeam = ChessGame.TeamColor.WHITE;
-        } else if (game.getBlackUsername().equals(username)) {
-            playerTeam = ChessGame.TeamColor.BLACK;
-        } else {
-            session.getRemote().sendString(gson.toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Player not in game")));
-            return;
-        }
-
-        //Check turn
-        var chessGame = game.getGame();
-        if (chessGame.getTeamTurn() != playerTeam) {
-            session.getRemote().sendString(gson.toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Not your turn")));
-            return;
-        }
-
-        //Check if move is valid
-        var moves = chessGame.validMoves(move.getStartPosition());
-        if (moves == null) {
-            session.getRemote().sendString(gson.toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Invalid move")));
-            return;
-        }
 
-        if (!chessGame.validMoves(move.getStartPosition()).contains(move)) {
-            session.getRemote().sendString(gson.toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Invalid move")));
-            return;
+        //Checked and saved under the game's lock, so a bot's move or a resignation cannot slip in between
+        synchronized (sessionsManager.getGameLock(gameID)) {
+            var game = gameService.getGame(gameID);
+            ChessGame.TeamColor playerTeam;
+
+            //Check if player is in game
+            if (game.getWhiteUsername().equals(username)) {
+                playerTeam = ChessGame.TeamColor.WHITE;
+            } else if (game.getBlackUsername().equals(username)) {
+                playerTeam = ChessGame.TeamColor.BLACK;
+            } else {
+                WSSessionsManager.send(session, gson.toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Player not in game")));
+                return;
+            }
+
+            //Check turn
+            var chessGame = game.getGame();
+            if (chessGame.getTeamTurn() != playerTeam) {
+                //A bot's move is lost if the server restarts while it is thinking, so make sure one is coming
+                if (game.getBotToMove() != null) {
+                    botMoveHandler.requestMove(gameID);
+                }
+                WSSessionsManager.send(session, gson.toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Not your turn")));
+                return;
+            }
+
+            //Check if move is valid
+            if (!chessGame.isValidMove(move)) {
+                WSSessionsManager.send(session, gson.toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Invalid move")));
+                return;
+            }
+
+            //Check if game is over
+            if (game.isOver()) {
+                WSSessionsManager.send(session, gson.toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Game is over")));
+                return;
+            }
+
+            applyMove(game, username, move);
+            analysisHandler.positionChanged(gameID);
+
+            //Let the bot answer, if the other player is one
+            if (game.getBotToMove() != null) {
+                botMoveHandler.requestMove(gameID);
+            }
         }
-
-        //Check if game is over
-        if (game.isOver()) {
-            session.getRemote().sendString(gson.toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Game is over")));
-            return;
-        }
-
-        game.getGame().makeMove(move);
-        gameService.updateGame(game);
-        sessionsManager.broadcast(gameID, new webSocketMessages.serverMessages.LoadGameMessage(game.getGame()), "");
-
-        //flip player team
-        playerTeam = playerTeam == ChessGame.TeamColor.BLACK ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
-
-        //Broadcast move
-        var message = String.format("Player %s moved %s", username, move);
-        var notification = new webSocketMessages.serverMessages.NotificationMessage(message);
-        sessionsManager.broadcast(gameID, notification, username);
-
-        //Switch username
-        username = playerTeam == ChessGame.TeamColor.WHITE ? game.getWhiteUsername() : game.getBlackUsername();
-
-        //Check if player is in Check
-        if (game.getGame().isInCheck(playerTeam)) {
-            var alert = String.format("Player %s is in check", username);
-            var notif = new webSocketMessages.serverMessages.NotificationMessage(alert);
-            sessionsManager.broadcast(gameID, notif, "");
-        }
-
-        //Check if player is in Checkmate
-        if (game.getGame().isInCheckmate(playerTeam)) {
-            var alert = String.format("Player %s is in checkmate", username);
-            var notif = new webSocketMessages.serverMessages.NotificationMessage(alert);
-            sessionsManager.broadcast(gameID, notif, "");
-        }
-
-
     }
 }
@@ -36,21 +36,25 @@ public class ResignCommandHandler extends CommandHandler {
         var resignCommand = (webSocketMessages.userCommands.ResignCommand) command;
         var gameID = resignCommand.getGameID();
         var username = resignCommand.getUsername();
-        var game = gameService.getGame(gameID);
 
-        if (!Objects.equals(game.getBlackUsername(), username) && !Objects.equals(game.getWhiteUsername(), username)) {
-            session.getRemote().sendString(gson.toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Player not in game")));
-            return;
-        }
+        //Checked and saved under the game's lock, so a move being made at the same time cannot undo the resignation
+        synchronized (sessionsManager.getGameLock(gameID)) {
+            var game = gameService.getGame(gameID);
 
-        if (game.isOver()) {
-            session.getRemote().sendString(gson.toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Game is over")));
-            return;
-        }
+            if (!Objects.equals(game.getBlackUsername(), username) && !Objects.equals(game.getWhiteUsername(), username)) {
+                WSSessionsManager.send(session, gson.toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Player not in game")));
+                return;
+            }
 
-        game.setOver();
+            if (game.isOver()) {
+                WSSessionsManager.send(session, gson.toJson(new webSocketMessages.serverMessages.ErrorMessage("Error: Game is over")));
+                return;
+            }
 
-        gameService.updateGame(game);
+            game.setOver();
+
+            gameService.updateGame(game);
+        }
 
         var message = String.format("Player %s forfeits", username);
         var notification = new webSocketMessages.serverMessages.NotificationMessage(message);
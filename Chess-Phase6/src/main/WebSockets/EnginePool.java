@@ -0,0 +1,239 @@
+package WebSockets;
+
+import Engine.NnueEvaluator;
+import Engine.NnueNetwork;
+import Engine.OpeningBook;
+import Engine.PieceSquareEvaluator;
+import Engine.Search;
+import Engine.SearchLimits;
+import Engine.Tablebase;
+import Engine.TranspositionTable;
+import Models.Bot;
+import chessGameImpl.CGame;
+import chessGameImpl.Move;
+import chessGameImpl.PieceSquareTables;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The threads bots think on. Searches run here instead of on the Jetty threads, so a burst of bot games only makes
+ * bots slower and never delays messages in other games. The pool has a fixed number of low priority threads and a
+ * bounded queue; once the queue is full, new work is turned away rather than piling up.
+ * <p>
+ * A bot plays from the opening book while it has a move for the position, then from the endgame tablebases when they
+ * cover the position, and otherwise searches within its level's time and depth budget.
+ * <p>
+ * The live analysis observers ask for runs here too, on searches from {@link #newSearch()}, so it competes with the
+ * bots for the same threads; {@link WebSockets.CommandHandlers.AnalysisHandler} keeps it to a few of them, and always
+ * leaves the bots at least one.
+ */
+public class EnginePool implements AutoCloseable {
+    /**
+     * How many bot moves may wait for a thread unless told otherwise
+     */
+    public static final int DEFAULT_QUEUE_LIMIT = 64;
+
+    /**
+     * The size of each thread's transposition table, in megabytes
+     */
+    private static final int TABLE_MB = 16;
+
+    /**
+     * Runs the bots' searches
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Each engine thread's own search, so no search state is shared between games
+     */
+    private final ThreadLocal<Search> searches;
+
+    /**
+     * The opening book, or null if there is none
+     */
+    private final OpeningBook book;
+
+    /**
+     * The endgame tablebases, or null if there are none
+     */
+    private final Tablebase tablebase;
+
+    /**
+     * The network to evaluate with, or null to use the handcrafted evaluation
+     */
+    private final NnueNetwork network;
+
+    /**
+     * Constructor for an EnginePool
+     *
+     * @param threads    how many searches may run at once
+     * @param queueLimit how many bot moves may wait for a thread
+     * @param book       the opening book, or null to always search in the opening
+     * @param tablebase  the endgame tablebases, or null to always search in the endgame
+     * @param network    the network to evaluate with, or null to use the handcrafted evaluation
+     */
+    public EnginePool(int threads, int queueLimit, OpeningBook book, Tablebase tablebase, NnueNetwork network) {
+        this.book = book;
+        this.tablebase = tablebase;
+        this.network = network;
+        //Built from the network rather than this, which is not finished being constructed yet
+        searches = ThreadLocal.withInitial(() -> newSearch(network));
+        var count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit), runnable -> {
+            var thread = new Thread(runnable, "engine-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Builds the pool the server runs with, configured by system properties:
+     * "chess.engineThreads" (default half the cores), "chess.engineQueue" (default {@value #DEFAULT_QUEUE_LIMIT}),
+     * "chess.book" (default "book.bin"), "chess.tablebases" (default "tablebases") and "chess.weights" (default
+     * "weights.txt", tuned evaluation weights from {@link Engine.TexelTuner}) and "chess.network" (default
+     * "network.nnue", a {@link NnueNetwork} to evaluate with instead). A missing book, tablebase folder, weights file
+     * or network is skipped. Weights are put in use here, so this must be called before any game is loaded.
+     *
+     * @return the pool
+     */
+    public static EnginePool fromSystemProperties() {
+        int threads = Integer.getInteger("chess.engineThreads",
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        int queueLimit = Integer.getInteger("chess.engineQueue", DEFAULT_QUEUE_LIMIT);
+
+        var weightsPath = Path.of(System.getProperty("chess.weights", "weights.txt"));
+        if (Files.exists(weightsPath)) {
+            try {
+                PieceSquareTables.load(weightsPath);
+                System.out.println("Loaded evaluation weights " + weightsPath);
+            } catch (IOException e) {
+                System.out.println("Error: could not load evaluation weights: " + e.getMessage());
+            }
+        }
+
+        OpeningBook book = null;
+        var bookPath = Path.of(System.getProperty("chess.book", "book.bin"));
+        if (Files.exists(bookPath)) {
+            try {
+                book = OpeningBook.open(bookPath);
+                System.out.println("Loaded opening book " + bookPath + " with " + book.size() + " moves");
+            } catch (IOException e) {
+                System.out.println("Error: could not load opening book: " + e.getMessage());
+            }
+        }
+
+        Tablebase tablebase = null;
+        var tablebasePath = Path.of(System.getProperty("chess.tablebases", "tablebases"));
+        if (Files.isDirectory(tablebasePath)) {
+            try {
+                tablebase = Tablebase.open(tablebasePath);
+                System.out.println("Loaded tablebases from " + tablebasePath);
+            } catch (IOException e) {
+                System.out.println("Error: could not load tablebases: " + e.getMessage());
+            }
+        }
+
+        NnueNetwork network = null;
+        var networkPath = Path.of(System.getProperty("chess.network", "network.nnue"));
+        if (Files.exists(networkPath)) {
+            try {
+                network = NnueNetwork.open(networkPath);
+                System.out.println("Loaded network " + networkPath + " with " + network.getHidden() + " hidden units");
+            } catch (IOException e) {
+                System.out.println("Error: could not load network: " + e.getMessage());
+            }
+        }
+        return new EnginePool(threads, queueLimit, book, tablebase, network);
+    }
+
+    /**
+     * Queues work to run on an engine thread
+     *
+     * @param task the work to run
+     * @return true if it was queued, or false if the queue is full
+     */
+    public boolean submit(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Makes a search that evaluates the same way the bots do, with its own transposition table
+     *
+     * @return the search
+     */
+    public Search newSearch() {
+        return newSearch(network);
+    }
+
+    /**
+     * Makes a search with its own transposition table
+     *
+     * @param network the network to evaluate with, or null to use the handcrafted evaluation
+     * @return the search
+     */
+    private static Search newSearch(NnueNetwork network) {
+        return new Search(network == null ? new PieceSquareEvaluator() : new NnueEvaluator(network),
+                new TranspositionTable(TABLE_MB));
+    }
+
+    /**
+     * Picks a bot's move. Called on an engine thread, since it may search for the bot's whole time budget.
+     *
+     * @param game the position to move in, which may be changed while searching and is restored afterwards
+     * @param bot  the bot moving
+     * @return the packed move, or {@link Move#NONE} if there are no legal moves
+     */
+    public int chooseMove(CGame game, Bot bot) {
+        if (book != null) {
+            int move = book.pickMove(game, ThreadLocalRandom.current());
+            if (move != Move.NONE) {
+                return move;
+            }
+        }
+        if (tablebase != null) {
+            int move = tablebase.bestMove(game);
+            if (move != Move.NONE) {
+                return move;
+            }
+        }
+        var limits = new SearchLimits(bot.getDepth(), bot.getTimeMillis());
+        return searches.get().search(game, limits).bestMove();
+    }
+
+    /**
+     * @return how many searches may run at once
+     */
+    public int getThreads() {
+        return executor.getCorePoolSize();
+    }
+
+    /**
+     * @return how many bot moves are waiting for a thread
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Stops the engine threads, abandoning any moves still waiting
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -40,6 +40,8 @@ public class WSServer {
     private final LeaveCommandHandler leaveCommandHandler;
     private final MoveCommandHandler moveCommandHandler;
     private final ResignCommandHandler resignCommandHandler;
+    private final BotMoveHandler botMoveHandler;
+    private final AnalysisHandler analysisHandler;
 
     /**
      * Handles the WebSocket messages.
@@ -57,11 +59,11 @@ public class WSServer {
         //Check AuthToken
         try {
             if (!authService.validateAuthToken(tmp)) {
-                session.getRemote().sendString(new Gson().toJson(new webSocketMessages.serverMessages.ErrorMessage("AuthToken Error: Invalid AuthToken")));
+                WSSessionsManager.send(session, new Gson().toJson(new webSocketMessages.serverMessages.ErrorMessage("AuthToken Error: Invalid AuthToken")));
                 return;
             }
         } catch (Exception e) {
-            session.getRemote().sendString(new Gson().toJson(new webSocketMessages.serverMessages.ErrorMessage("AuthToken Error: " + e.getMessage())));
+            WSSessionsManager.send(session, new Gson().toJson(new webSocketMessages.serverMessages.ErrorMessage("AuthToken Error: " + e.getMessage())));
             return;
         }
 
@@ -94,6 +96,11 @@ public class WSServer {
                 command.setAuthToken(trueAuthToken);
                 resignCommandHandler.handle(session, command);
             }
+            case ANALYZE -> {
+                command = new Gson().fromJson(message, AnalyzeCommand.class);
+                command.setAuthToken(trueAuthToken);
+                analysisHandler.handle(session, command);
+            }
         }
     }
 
@@ -114,18 +121,29 @@ public class WSServer {
     }
 
     /**
-     * Constructs a WSServer with the specified AuthService and GameService.
+     * Constructs a WSServer with the specified AuthService, GameService and EnginePool.
+     * The live analysis is configured by system properties: "chess.analysisThreads" (how many analyses may run at
+     * once, default {@value AnalysisHandler#DEFAULT_THREADS}, at most one fewer than the engine threads),
+     * "chess.analysisMillis" (how long each position is analyzed, default
+     * {@value AnalysisHandler#DEFAULT_POSITION_MILLIS}) and "chess.analysisLines" (default
+     * {@value AnalysisHandler#DEFAULT_LINES}).
      *
      * @param authService The AuthService used to validate authentication tokens.
      * @param gameService The GameService used to interact with the game logic.
+     * @param enginePool  The EnginePool the bots think and the analysis runs on.
      */
-    public WSServer(AuthService authService, GameService gameService) {
+    public WSServer(AuthService authService, GameService gameService, EnginePool enginePool) {
         this.gameService = gameService;
         this.authService = authService;
-        this.joinPlayerCommandHandler = new JoinPlayerCommandHandler(sessionsManager, gameService);
+        this.analysisHandler = new AnalysisHandler(sessionsManager, gameService, enginePool,
+                Integer.getInteger("chess.analysisThreads", AnalysisHandler.DEFAULT_THREADS),
+                Long.getLong("chess.analysisMillis", AnalysisHandler.DEFAULT_POSITION_MILLIS),
+                Integer.getInteger("chess.analysisLines", AnalysisHandler.DEFAULT_LINES));
+        this.botMoveHandler = new BotMoveHandler(sessionsManager, gameService, enginePool, analysisHandler);
+        this.joinPlayerCommandHandler = new JoinPlayerCommandHandler(sessionsManager, gameService, botMoveHandler);
         this.joinObserverCommandHandler = new JoinObserverCommandHandler(sessionsManager, gameService);
-        this.leaveCommandHandler = new LeaveCommandHandler(sessionsManager, gameService);
-        this.moveCommandHandler = new MoveCommandHandler(sessionsManager, gameService);
+        this.leaveCommandHandler = new LeaveCommandHandler(sessionsManager, gameService, analysisHandler);
+        this.moveCommandHandler = new MoveCommandHandler(sessionsManager, gameService, botMoveHandler, analysisHandler);
         this.resignCommandHandler = new ResignCommandHandler(sessionsManager, gameService);
     }
 }
@@ -5,36 +5,66 @@ import webSocketMessages.serverMessages.ServerMessage;
 
 import org.eclipse.jetty.websocket.api.Session;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
  * This class represents the WebSocket sessions manager.
- * It is responsible for managing which sessions are connected to which games.
+ * It is responsible for managing which sessions are connected to which games, and hands out the lock that keeps
+ * each game's changes in order.
+ * Bots' moves are announced from engine threads, so the sessions can be used from several threads at once.
  */
 public class WSSessionsManager {
     private final Map<Integer, Map<String, Session>> sessions;
 
     /**
-     * Constructs a new WSSessionsManager with the map as a HashMap.
+     * One lock per game, held while a game is read, checked and saved, so that changes to it from different threads
+     * are made one at a time and none is lost
+     */
+    private final Map<Integer, Object> gameLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new WSSessionsManager with the map as a ConcurrentHashMap.
      */
     public WSSessionsManager() {
-        sessions = new HashMap<>();
+        sessions = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the lock for a game. Anything that loads a game, checks it and saves it again, such as a player's or bot's
+     * move, a resignation or a player leaving, must hold this lock from the load to the save.
+     *
+     * @param gameId The ID of the game.
+     * @return The game's lock, the same object every time for the same game.
+     */
+    public Object getGameLock(int gameId) {
+        return gameLocks.computeIfAbsent(gameId, id -> new Object());
     }
 
     /**
-     * Adds a session to the sessions manager. Uses a TreeMap to store the sessions.
+     * Sends a message to a session. Jetty does not allow two threads to send to a session at the same time,
+     * so every message goes through here.
+     *
+     * @param session The session to send to.
+     * @param message The message to send.
+     * @throws IOException If an I/O error occurs while sending the message.
+     */
+    public static void send(Session session, String message) throws IOException {
+        synchronized (session) {
+            session.getRemote().sendString(message);
+        }
+    }
+
+    /**
+     * Adds a session to the sessions manager. Uses a ConcurrentSkipListMap to store the sessions.
      *
      * @param gameId  The ID of the game the session is connected to.
      * @param username The username of the session.
      * @param session The session to add.
      */
     public void addSession(int gameId, String username, Session session) {
-        if (!sessions.containsKey(gameId)) {
-            sessions.put(gameId, new TreeMap<>());
-        }
-        sessions.get(gameId).put(username, session);
+        sessions.computeIfAbsent(gameId, id -> new ConcurrentSkipListMap<>()).put(username, session);
     }
 
     /**
@@ -88,7 +118,7 @@ public class WSSessionsManager {
         if (sessions.containsKey(gameId)) {
             for (Map.Entry<String, Session> entry : sessions.get(gameId).entrySet()) {
                 if (!entry.getKey().equals(usernameToExclude)) {
-                    entry.getValue().getRemote().sendString(new Gson().toJson(message));
+                    send(entry.getValue(), new Gson().toJson(message));
                 }
             }
         }
@@ -106,7 +136,7 @@ public class WSSessionsManager {
         if (sessions.containsKey(gameId)) {
             Session session = sessions.get(gameId).get(username);
             if (session != null) {
-                session.getRemote().sendString(new Gson().toJson(message));
+                send(session, new Gson().toJson(message));
             }
         }
     }
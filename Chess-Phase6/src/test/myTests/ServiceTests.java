@@ -326,6 +326,46 @@ public class ServiceTests{
         Assertions.assertEquals(400, createGameResult.getStatus());
     }
 
+    @Test
+    public void testCreateBotGameServicePositive() {
+        // Register a user
+        var tempRequest = new RequestClasses.RegisterRequest("test", "test", "test");
+        var tempResult = this.registerService.register(tempRequest);
+        var authToken = tempResult.getAuthToken();
+
+        // Create a game against the computer playing white
+        var createGameRequest = new RequestClasses.CreateGameRequest(authToken, "test", "easy", "WHITE");
+        var createGameResult = this.createGameService.createGame(createGameRequest);
+        Assertions.assertEquals(200, createGameResult.getStatus());
+
+        // Check that the bot is seated and moves first
+        try {
+            var game = this.gameDAO.getGame(createGameResult.getGameID());
+            Assertions.assertEquals(Models.Bot.EASY.getUsername(), game.getWhiteUsername());
+            Assertions.assertNull(game.getBlackUsername());
+            Assertions.assertEquals(Models.Bot.EASY, game.getBotToMove());
+        } catch (Exception e) {
+            e.printStackTrace();
+            Assertions.fail("Exception thrown");
+        }
+    }
+
+    @Test
+    public void testCreateBotGameServiceNegative() {
+        // Register a user
+        var tempRequest = new RequestClasses.RegisterRequest("test", "test", "test");
+        var tempResult = this.registerService.register(tempRequest);
+        var authToken = tempResult.getAuthToken();
+
+        // Attempt to create a game against a level that does not exist
+        var createGameRequest = new RequestClasses.CreateGameRequest(authToken, "test", "grandmaster", null);
+        Assertions.assertEquals(400, this.createGameService.createGame(createGameRequest).getStatus());
+
+        // Attempt to register as a bot
+        var botRequest = new RequestClasses.RegisterRequest(Models.Bot.HARD.getUsername(), "test", "test");
+        Assertions.assertEquals(403, this.registerService.register(botRequest).getStatus());
+    }
+
     @Test
     public void testListGamesServicePositive() {
         // Register a User
@@ -11,12 +11,19 @@ public class TestFactory {
 
     //Chess Functions
     //------------------------------------------------------------------------------------------------------------------
+    /*
+    Which board implementation the chess tests run against, BITBOARD unless the "chess.boardType" system property
+    says otherwise. Run the tests once with -Dchess.boardType=ARRAY as well, so CBoard stays covered.
+     */
+    private static final CGame.BoardType BOARD_TYPE =
+            CGame.BoardType.valueOf(System.getProperty("chess.boardType", CGame.BoardType.BITBOARD.name()));
+
     public static ChessBoard getNewBoard(){
-        return new CBoard();
+        return CGame.newBoard(BOARD_TYPE);
     }
 
     public static ChessGame getNewGame(){
-		return new CGame();
+		return new CGame(BOARD_TYPE);
     }
 
     public static ChessPiece getNewPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type){